@@ -0,0 +1,111 @@
+package com.zula.apihealth.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with the GC profiler, writes JMH JSON results and compares them with the committed
+ * baseline. Exits with 1 when a benchmark got slower than {@code bench.tolerance} (default 25%) or allocates more
+ * than {@code bench.allocTolerance} (default 10%) per operation.
+ * <pre>
+ * java -jar target/benchmarks.jar [include-regex]
+ *   -Dbench.baseline=baseline/jmh-baseline.json  -Dbench.result=target/jmh-result.json
+ *   -Dbench.update=true   replace the baseline with this run
+ * </pre>
+ */
+public final class BenchmarkMain {
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        Path result = Path.of(System.getProperty("bench.result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("bench.baseline", "baseline/jmh-baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("bench.tolerance", "0.25"));
+        double allocTolerance = Double.parseDouble(System.getProperty("bench.allocTolerance", "0.10"));
+        Files.createDirectories(result.toAbsolutePath().getParent());
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com.zula.apihealth.bench.*")
+                .forks(Integer.getInteger("bench.forks", 1))
+                .warmupIterations(Integer.getInteger("bench.warmup", 3))
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(Integer.getInteger("bench.iterations", 5))
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        new Runner(options.build()).run();
+
+        if (Boolean.getBoolean("bench.update")) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + "; run with -Dbench.update=true to create one");
+            return;
+        }
+        int regressions = compare(load(baseline.toFile()), load(result.toFile()), tolerance, allocTolerance);
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) against " + baseline);
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + baseline);
+    }
+
+    private static int compare(Map<String, double[]> base, Map<String, double[]> current, double tolerance, double allocTolerance) {
+        int regressions = 0;
+        System.out.printf("%n%-80s %14s %14s %12s %12s%n", "benchmark", "baseline", "current", "B/op base", "B/op now");
+        for (Map.Entry<String, double[]> e : current.entrySet()) {
+            double[] b = base.get(e.getKey());
+            double[] c = e.getValue();
+            String flag = "";
+            if (b != null) {
+                if (c[0] > b[0] * (1 + tolerance)) flag += " SLOWER";
+                // Small absolute slack: allocation of a few bytes/op is within profiler noise
+                if (c[1] > b[1] * (1 + allocTolerance) + 16) flag += " ALLOC";
+                if (!flag.isEmpty()) regressions++;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %12.0f %12.0f%s%n", e.getKey(),
+                    b != null ? b[0] : Double.NaN, c[0], b != null ? b[1] : Double.NaN, c[1], flag);
+        }
+        return regressions;
+    }
+
+    /** benchmark[params] -> {score, alloc bytes/op}. */
+    private static Map<String, double[]> load(File file) throws Exception {
+        Map<String, double[]> out = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText().replace("com.zula.apihealth.bench.", ""));
+            JsonNode params = run.get("params");
+            if (params != null) {
+                Map<String, String> sorted = new TreeMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> p = it.next();
+                    sorted.put(p.getKey(), p.getValue().asText());
+                }
+                key.append(sorted);
+            }
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC).path("score");
+            out.put(key.toString(), new double[]{run.get("primaryMetric").get("score").asDouble(),
+                    alloc.isMissingNode() ? 0 : alloc.asDouble()});
+        }
+        return out;
+    }
+}
@@ -0,0 +1,32 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.service.StatusClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** {@link StatusClassifier#isUp} over a mix of statuses, for the bundled spec and a multi-range spec. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ClassifierBenchmark {
+    private static final int[] STATUSES = {200, 201, 204, 301, 304, 400, 401, 404, 429, 500, 502, 503};
+    private final StatusClassifier bundled = new StatusClassifier();
+    private final StatusClassifier custom = new StatusClassifier("200-299,304,401,404,409,418");
+    private int i;
+
+    @Benchmark
+    public boolean bundledSpec() {
+        return bundled.isUp(STATUSES[i++ % STATUSES.length]);
+    }
+
+    @Benchmark
+    public boolean customSpec() {
+        return custom.isUp(STATUSES[i++ % STATUSES.length]);
+    }
+}
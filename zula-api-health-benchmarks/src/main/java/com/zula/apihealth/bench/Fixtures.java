@@ -0,0 +1,175 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.config.ApiHealthProperties;
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.repository.ApiHealthRepository;
+import com.zula.apihealth.service.ApiHealthService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared in-process fixtures: a repository that never touches a database, and a stub HTTP exchange, so the
+ * benchmarks measure only the library's own work on the caller thread.
+ */
+final class Fixtures {
+    static final String BASE = "https://partner.example.com/api/v1";
+
+    private Fixtures() {}
+
+    /** Service over {@link NoopRepository} with a small registry, as the library would run in an app. */
+    static ApiHealthService service(NoopRepository repository) {
+        return new ApiHealthService(repository, properties());
+    }
+
+    static ApiHealthProperties properties() {
+        ApiHealthProperties properties = new ApiHealthProperties();
+        properties.setAutoCreateTables(false);
+        return properties;
+    }
+
+    /** Registry rows the matcher snapshot is built from. */
+    static List<ApiEndpointView> registry(int size) {
+        List<ApiEndpointView> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ApiEndpointView v = new ApiEndpointView();
+            v.setId((long) i + 1);
+            v.setName("endpoint-" + i);
+            v.setPath(i == 0 ? BASE + "/customers/{id}/accounts" : BASE + "/resource" + i);
+            v.setMethod("POST");
+            rows.add(v);
+        }
+        return rows;
+    }
+
+    static byte[] bytes(int size) {
+        byte[] b = new byte[size];
+        Arrays.fill(b, (byte) 'x');
+        return b;
+    }
+
+    static ApiCallLogEntry entry(String url) {
+        ApiCallLogEntry entry = new ApiCallLogEntry();
+        entry.setId(java.util.UUID.randomUUID());
+        entry.setTimestamp(OffsetDateTime.now());
+        entry.setUrl(url);
+        entry.setHttpMethod("POST");
+        entry.setRequestHeaders("[Content-Type:\"application/json\"]");
+        entry.setRequestBody("{\"amount\":100}");
+        entry.setResponseHeaders("[Content-Type:\"application/json\"]");
+        entry.setResponseBody("{\"status\":\"ok\"}");
+        entry.setHttpStatus(200);
+        entry.setDurationMs(42);
+        entry.setTraceId("4bf92f3577b34da6a3ce929d0e0e4736");
+        entry.setSuccess(true);
+        return entry;
+    }
+
+    /** Repository whose writes are counted and discarded; the registry is served from memory. */
+    static class NoopRepository extends ApiHealthRepository {
+        final AtomicLong logs = new AtomicLong();
+        private final AtomicLong nextId = new AtomicLong();
+        private final List<ApiEndpointView> registry;
+
+        NoopRepository(List<ApiEndpointView> registry) {
+            super(new JdbcTemplate(), properties());
+            this.registry = registry;
+        }
+
+        @Override
+        public List<ApiEndpointView> registeredEndpoints() {
+            return registry;
+        }
+
+        @Override
+        public void insertLogs(List<ApiCallLogEntry> entries) {
+            logs.addAndGet(entries.size());
+        }
+
+        /** Dictionary lookups hand out fresh ids, as if every set and body were new. */
+        @Override
+        public Map<String, Long> resolveHeaderSets(Map<String, String> headersByHash) {
+            return ids(headersByHash);
+        }
+
+        @Override
+        public Map<String, Long> resolveBodies(Map<String, String> bodiesByHash) {
+            return ids(bodiesByHash);
+        }
+
+        @Override
+        public List<Long> addBodyReferences(Map<Long, Integer> refs, OffsetDateTime now) {
+            return List.of();
+        }
+
+        private Map<String, Long> ids(Map<String, String> byHash) {
+            Map<String, Long> ids = new HashMap<>();
+            for (String hash : byHash.keySet()) ids.put(hash, nextId.incrementAndGet());
+            return ids;
+        }
+
+        @Override
+        public void updateMonitorStatus(long id, int status, boolean success, String body, OffsetDateTime checkedAt,
+                                        Integer latencyMs, boolean degraded) {
+        }
+
+        @Override
+        public void updateMonitorStatusByUrl(String url, String method, int status, boolean success, String body,
+                                             OffsetDateTime checkedAt) {
+        }
+    }
+
+    static final class StubRequest implements HttpRequest {
+        private final URI uri;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        StubRequest(URI uri) {
+            this.uri = uri;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Override public String getMethodValue() { return "POST"; }
+        @Override public URI getURI() { return uri; }
+        @Override public HttpHeaders getHeaders() { return headers; }
+    }
+
+    /** Returns a fresh response over a shared body, as a client would after reading the status line. */
+    static final class StubExecution implements ClientHttpRequestExecution {
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        StubExecution(byte[] body) {
+            this.body = body;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public ClientHttpResponse execute(HttpRequest request, byte[] requestBody) {
+            return new ClientHttpResponse() {
+                @Override public HttpStatus getStatusCode() { return HttpStatus.OK; }
+                @Override public int getRawStatusCode() { return 200; }
+                @Override public String getStatusText() { return "OK"; }
+                @Override public void close() { }
+                @Override public InputStream getBody() { return new ByteArrayInputStream(body); }
+                @Override public HttpHeaders getHeaders() { return headers; }
+            };
+        }
+    }
+}
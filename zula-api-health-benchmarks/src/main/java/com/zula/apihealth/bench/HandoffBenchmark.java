@@ -0,0 +1,64 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.service.ApiHealthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of handing a captured call to the library ({@code ApiHealthService.logCall}): template normalization,
+ * in-memory stats and the offer to the background writer queue. The writer drains into a no-op repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class HandoffBenchmark {
+    private ApiHealthService service;
+    private ApiEndpointView endpoint;
+    private String matchedUrl;
+    private String unmatchedUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = Fixtures.service(new Fixtures.NoopRepository(Fixtures.registry(50)));
+        matchedUrl = Fixtures.BASE + "/customers/8812/accounts";
+        unmatchedUrl = "https://other.example.com/v2/orders/8812/items/5f0c1d2e-9a4b-4c3d-8e7f-001122334455";
+        endpoint = service.matchEndpoint(matchedUrl, "POST");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public void registered() {
+        service.logCall(Fixtures.entry(matchedUrl), endpoint);
+    }
+
+    @Benchmark
+    public void unregistered() {
+        service.logCall(Fixtures.entry(unmatchedUrl), null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void registeredContended() {
+        service.logCall(Fixtures.entry(matchedUrl), endpoint);
+    }
+
+    @Benchmark
+    public ApiEndpointView match() {
+        return service.matchEndpointCached(matchedUrl, "POST");
+    }
+}
@@ -0,0 +1,80 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.interceptor.ApiCallLoggingInterceptor;
+import com.zula.apihealth.service.ApiHealthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caller-thread cost of {@link ApiCallLoggingInterceptor#intercept} against a stub execution, next to the same
+ * exchange without the interceptor ({@code direct}). Run with the GC profiler for allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class InterceptorBenchmark {
+    @Param({"0", "1024", "16384"})
+    int requestBytes;
+
+    @Param({"256", "8192", "65536"})
+    int responseBytes;
+
+    private ApiHealthService service;
+    private ApiCallLoggingInterceptor interceptor;
+    private Fixtures.StubExecution execution;
+    private byte[] requestBody;
+    private URI uri;
+    private final byte[] sink = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = Fixtures.service(new Fixtures.NoopRepository(Fixtures.registry(50)));
+        interceptor = new ApiCallLoggingInterceptor(service);
+        execution = new Fixtures.StubExecution(Fixtures.bytes(responseBytes));
+        requestBody = Fixtures.bytes(requestBytes);
+        uri = URI.create(Fixtures.BASE + "/customers/8812/accounts?expand=true");
+        service.matchEndpoint(uri.toString(), "POST"); // load the registry snapshot
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public long intercepted() throws IOException {
+        try (ClientHttpResponse response = interceptor.intercept(new Fixtures.StubRequest(uri), requestBody, execution)) {
+            return drain(response.getBody());
+        }
+    }
+
+    @Benchmark
+    public long direct() throws IOException {
+        try (ClientHttpResponse response = execution.execute(new Fixtures.StubRequest(uri), requestBody)) {
+            return drain(response.getBody());
+        }
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(sink)) != -1) {
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,99 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.repository.ApiHealthRepository;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of the repository's log and endpoint row mappers (read through reflection, they are private)
+ * over an in-memory result set positioned on one row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RowMapperBenchmark {
+    private RowMapper<?> logMapper;
+    private RowMapper<?> endpointMapper;
+    private ResultSet logRow;
+    private ResultSet endpointRow;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Fixtures.NoopRepository repository = new Fixtures.NoopRepository(Fixtures.registry(1));
+        logMapper = mapper(repository, "logMapper");
+        endpointMapper = mapper(repository, "endpointMapper");
+        logRow = logResultSet();
+        endpointRow = endpointResultSet();
+    }
+
+    @Benchmark
+    public Object logRow() throws SQLException {
+        return logMapper.mapRow(logRow, 0);
+    }
+
+    @Benchmark
+    public Object endpointRow() throws SQLException {
+        return endpointMapper.mapRow(endpointRow, 0);
+    }
+
+    private static RowMapper<?> mapper(ApiHealthRepository repository, String name) throws Exception {
+        Field f = ApiHealthRepository.class.getDeclaredField(name);
+        f.setAccessible(true);
+        return (RowMapper<?>) f.get(repository);
+    }
+
+    private static ResultSet logResultSet() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        String[] names = {"id", "timestamp", "url", "url_template", "http_method", "http_status", "duration_ms", "success",
+                "trace_id", "direction", "inbound_request_id"};
+        int[] types = {Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+                Types.INTEGER, Types.BOOLEAN, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        for (int i = 0; i < names.length; i++) rs.addColumn(names[i], types[i], 0, 0);
+        rs.addRow(UUID.randomUUID().toString(), new Timestamp(System.currentTimeMillis()),
+                Fixtures.BASE + "/customers/8812/accounts", Fixtures.BASE + "/customers/{id}/accounts", "POST", 200, 42, true,
+                "4bf92f3577b34da6a3ce929d0e0e4736", "OUT", null);
+        rs.next();
+        return rs;
+    }
+
+    private static ResultSet endpointResultSet() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        Object[][] cols = {
+                {"id", Types.BIGINT, 1L}, {"name", Types.VARCHAR, "payments-api"}, {"path", Types.VARCHAR, Fixtures.BASE + "/payments"},
+                {"http_method", Types.VARCHAR, "POST"}, {"description", Types.VARCHAR, "Payments"},
+                {"ping_interval_sec", Types.INTEGER, 60}, {"active_monitor", Types.BOOLEAN, true},
+                {"last_check_time", Types.TIMESTAMP, new Timestamp(System.currentTimeMillis())},
+                {"last_check_status", Types.INTEGER, 200}, {"last_check_success", Types.BOOLEAN, true},
+                {"last_check_body", Types.VARCHAR, "{\"status\":\"UP\"}"}, {"probe_path", Types.VARCHAR, "/actuator/health"},
+                {"probe_method", Types.VARCHAR, "GET"}, {"probe_expected_status", Types.VARCHAR, "200"},
+                {"probe_body_pattern", Types.VARCHAR, null}, {"degraded_threshold_ms", Types.INTEGER, 800},
+                {"last_check_latency_ms", Types.INTEGER, 35}, {"last_check_degraded", Types.BOOLEAN, false},
+                {"total_calls", Types.BIGINT, 12000L}, {"success_calls", Types.BIGINT, 11950L},
+                {"failure_calls", Types.BIGINT, 50L}, {"avg_duration_ms", Types.DOUBLE, 41.5},
+                {"last_called", Types.TIMESTAMP, new Timestamp(System.currentTimeMillis())}};
+        Object[] row = new Object[cols.length];
+        for (int i = 0; i < cols.length; i++) {
+            rs.addColumn((String) cols[i][0], (Integer) cols[i][1], 0, 0);
+            row[i] = cols[i][2];
+        }
+        rs.addRow(row);
+        rs.next();
+        return rs;
+    }
+}
@@ -0,0 +1,53 @@
+package com.zula.apihealth.bench;
+
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.service.OffHeapStaging;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OffHeapStaging} with a captured entry whose request and response bodies are {@code bodyBytes} each:
+ * {@code stage} is the caller-thread cost of serializing it into the direct buffer (segments are handed back
+ * straight away, without decoding), {@code roundTrip} adds the writer-thread decode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StagingBenchmark {
+    @Param({"256", "4096"})
+    int bodyBytes;
+
+    private OffHeapStaging staging;
+    private ApiCallLogEntry entry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        staging = new OffHeapStaging(1024 * 1024, 4096);
+        entry = Fixtures.entry(Fixtures.BASE + "/customers/42/accounts");
+        String body = new String(Fixtures.bytes(bodyBytes));
+        entry.setRequestBody(body);
+        entry.setResponseBody(body);
+    }
+
+    @Benchmark
+    public ByteBuffer[] stage() {
+        ByteBuffer[] segments = staging.write(entry);
+        staging.release(segments);
+        return segments;
+    }
+
+    @Benchmark
+    public ApiCallLogEntry roundTrip() {
+        return staging.read(staging.write(entry));
+    }
+}
@@ -0,0 +1,108 @@
+package com.zula.apihealth.load;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory H2 database in MySQL or PostgreSQL compatibility mode behind a Hikari pool, so the repository runs
+ * its own dialect SQL unchanged. Two gaps are bridged on the connection: in Postgres mode the metadata reports
+ * "PostgreSQL" (H2 reports "H2", which the repository would treat as MySQL), and in MySQL mode prefix lengths in
+ * {@code UNIQUE(col(255), ...)} are dropped from plain statements because H2 cannot parse them.
+ */
+public final class EmbeddedDb {
+    public enum Mode { MYSQL, POSTGRES }
+
+    private EmbeddedDb() {}
+
+    public static Mode mode(String name) {
+        return "postgres".equalsIgnoreCase(name) || "postgresql".equalsIgnoreCase(name) ? Mode.POSTGRES : Mode.MYSQL;
+    }
+
+    /** A fresh named database; {@code close} the returned pool when done. */
+    public static HikariDataSource pool(Mode mode, String name, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(mode == Mode.POSTGRES
+                ? "jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+                : "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(Math.max(2, poolSize));
+        config.setPoolName("h2-" + name);
+        return new HikariDataSource(config);
+    }
+
+    /** The data source to hand to the repository: a view of the pool that bridges the H2 gaps above. */
+    public static DataSource dataSource(Mode mode, HikariDataSource pool) {
+        return new Compat(pool, mode);
+    }
+
+    private static final class Compat extends DelegatingDataSource {
+        private static final Pattern PREFIX_LENGTH = Pattern.compile("(UNIQUE\\s*\\([^)]*?\\w)\\(\\d+\\)", Pattern.CASE_INSENSITIVE);
+
+        private final Mode mode;
+
+        Compat(DataSource target, Mode mode) {
+            super(target);
+            this.mode = mode;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (mode == Mode.POSTGRES && result instanceof DatabaseMetaData) {
+                            return postgresMetaData((DatabaseMetaData) result);
+                        }
+                        if (mode == Mode.MYSQL && result instanceof Statement && !(result instanceof PreparedStatement)) {
+                            return mysqlStatement((Statement) result);
+                        }
+                        return result;
+                    });
+        }
+
+        private static Statement mysqlStatement(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        if (args != null && args.length > 0 && args[0] instanceof String) {
+                            args[0] = dropPrefixLengths((String) args[0]);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static String dropPrefixLengths(String sql) {
+            String previous;
+            do {
+                previous = sql;
+                sql = PREFIX_LENGTH.matcher(sql).replaceAll("$1");
+            } while (!sql.equals(previous));
+            return sql;
+        }
+
+        private static DatabaseMetaData postgresMetaData(DatabaseMetaData metaData) {
+            return (DatabaseMetaData) Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class},
+                    (proxy, method, args) -> "getDatabaseProductName".equals(method.getName())
+                            ? "PostgreSQL" : invoke(metaData, method, args));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
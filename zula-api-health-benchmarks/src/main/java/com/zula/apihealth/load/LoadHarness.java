@@ -0,0 +1,334 @@
+package com.zula.apihealth.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zula.apihealth.config.ApiHealthProperties;
+import com.zula.apihealth.interceptor.ApiCallLoggingInterceptor;
+import com.zula.apihealth.model.ApiInternalStatsView;
+import com.zula.apihealth.repository.ApiHealthRepository;
+import com.zula.apihealth.service.ApiHealthService;
+import com.zula.apihealth.service.AsyncLogWriter;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end ingest load test: caller threads drive a {@link RestTemplate} against a local {@link StubServer},
+ * once bare and once with {@link ApiCallLoggingInterceptor}, while the library persists through
+ * {@link ApiHealthRepository} into embedded H2 (MySQL and PostgreSQL modes). Reports sustained calls/sec,
+ * caller-observed latency overhead, DB rows/sec and the log queue backlog.
+ * <pre>
+ * java -cp target/benchmarks.jar com.zula.apihealth.load.LoadHarness
+ *   -Dload.db=both|mysql|postgres  -Dload.threads=32  -Dload.seconds=20  -Dload.warmupSeconds=5
+ *   -Dload.requestBytes=512  -Dload.responseBytes=2048  -Dload.latencyMs=1
+ *   -Dload.queueCapacity=10000  -Dload.batchSize=200  -Dload.result=target/load-result.json
+ *   -Dload.headerDictionary=true   false keeps full headers on every row (compare stored header bytes)
+ *   -Dload.bodyDedup=true          false keeps the response body on every row (compare stored body bytes)
+ *   -Dload.offHeapStaging=false    true queues call logs in the off-heap staging buffer (compare GC)
+ *   -Dload.maxP99OverheadMs=5   exit 1 when the p99 overhead is above this (unset = report only)
+ * </pre>
+ */
+public final class LoadHarness {
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    private final int threads = Integer.getInteger("load.threads", 32);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final int warmupSeconds = Integer.getInteger("load.warmupSeconds", 5);
+    private final int requestBytes = Integer.getInteger("load.requestBytes", 512);
+    private final int responseBytes = Integer.getInteger("load.responseBytes", 2048);
+    private final long latencyMs = Long.getLong("load.latencyMs", 1);
+    private final int queueCapacity = Integer.getInteger("load.queueCapacity", 10_000);
+    private final int batchSize = Integer.getInteger("load.batchSize", 200);
+    private final boolean headerDictionary = Boolean.parseBoolean(System.getProperty("load.headerDictionary", "true"));
+    private final boolean bodyDedup = Boolean.parseBoolean(System.getProperty("load.bodyDedup", "true"));
+    private final boolean offHeapStaging = Boolean.getBoolean("load.offHeapStaging");
+
+    private LoadHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadHarness harness = new LoadHarness();
+        // HttpURLConnection keeps only 5 idle connections per host by default; don't measure reconnects
+        System.setProperty("http.maxConnections", String.valueOf(harness.threads));
+        String db = System.getProperty("load.db", "both");
+        Path resultFile = Path.of(System.getProperty("load.result", "target/load-result.json"));
+        String maxOverhead = System.getProperty("load.maxP99OverheadMs");
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        boolean failed = false;
+        try (StubServer stub = new StubServer(harness.threads, harness.responseBytes, harness.latencyMs)) {
+            for (EmbeddedDb.Mode mode : EmbeddedDb.Mode.values()) {
+                if (!"both".equalsIgnoreCase(db) && EmbeddedDb.mode(db) != mode) continue;
+                Map<String, Object> result = harness.run(mode, stub.baseUrl());
+                results.add(result);
+                double overhead = (double) result.get("p99OverheadMs");
+                if ((long) result.get("failedRows") > 0) failed = true;
+                if (maxOverhead != null && overhead > Double.parseDouble(maxOverhead)) failed = true;
+            }
+        }
+        Files.createDirectories(resultFile.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(resultFile.toFile(), results);
+        System.out.println("Results: " + resultFile);
+        if (failed) {
+            System.out.println("FAILED: rows failed to persist or p99 overhead above -Dload.maxP99OverheadMs=" + maxOverhead);
+            System.exit(1);
+        }
+    }
+
+    private Map<String, Object> run(EmbeddedDb.Mode mode, String baseUrl) throws Exception {
+        System.out.printf("%n== %s: %d threads, %ds (+%ds warm-up), request %dB, response %dB, stub latency %dms%n",
+                mode, threads, seconds, warmupSeconds, requestBytes, responseBytes, latencyMs);
+        try (HikariDataSource pool = EmbeddedDb.pool(mode, "load_" + mode.name().toLowerCase(), 4)) {
+            ApiHealthProperties properties = new ApiHealthProperties();
+            properties.setSchemaName("load");
+            properties.setAutoCreateTables(true);
+            properties.setLogQueueCapacity(queueCapacity);
+            properties.setLogBatchSize(batchSize);
+            properties.setHeaderDictionaryEnabled(headerDictionary);
+            properties.setBodyDedupEnabled(bodyDedup);
+            properties.setLogStagingOffHeap(offHeapStaging);
+            JdbcTemplate jdbc = new JdbcTemplate(EmbeddedDb.dataSource(mode, pool));
+            ApiHealthRepository repository = new ApiHealthRepository(jdbc, properties);
+            String url = baseUrl + "/api/v1/orders/";
+            // Plain insert: H2 parses neither ON CONFLICT nor every ON DUPLICATE KEY form of the registry upsert
+            jdbc.update("INSERT INTO load.api_endpoint_registry (name, path, http_method, description) VALUES (?,?,?,?)",
+                    "orders", url + "{id}", "POST", "load harness stub");
+            ApiHealthService service = new ApiHealthService(repository, properties);
+
+            RestTemplate bare = new RestTemplate(new SimpleClientHttpRequestFactory());
+            RestTemplate instrumented = new RestTemplate(new SimpleClientHttpRequestFactory());
+            instrumented.getInterceptors().add(new ApiCallLoggingInterceptor(service));
+            AsyncLogWriter writer = service.logWriter();
+
+            Phase baseline = drive(bare, url, null);
+            Phase tracked = drive(instrumented, url, writer);
+            long drainStart = System.nanoTime();
+            while (writer.queueDepth() > 0 && System.nanoTime() - drainStart < DRAIN_TIMEOUT_MILLIS * 1_000_000) {
+                Thread.sleep(10);
+            }
+            service.shutdown();
+            double drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+            long rows = jdbc.queryForObject("SELECT COUNT(*) FROM load.api_call_logs", Long.class);
+            Double headerBytes = jdbc.queryForObject("SELECT AVG(COALESCE(LENGTH(request_headers),0) + " +
+                    "COALESCE(LENGTH(response_headers),0)) FROM load.api_call_logs", Double.class);
+            long headerSets = jdbc.queryForObject("SELECT COUNT(*) FROM load.api_header_sets", Long.class);
+            Double bodyBytes = jdbc.queryForObject("SELECT AVG(COALESCE(LENGTH(response_body),0)) FROM load.api_call_logs", Double.class);
+            long bodies = jdbc.queryForObject("SELECT COUNT(*) FROM load.api_bodies", Long.class);
+
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("db", mode.name());
+            r.put("threads", threads);
+            r.put("seconds", seconds);
+            r.put("baselineCallsPerSec", round(baseline.callsPerSec()));
+            r.put("callsPerSec", round(tracked.callsPerSec()));
+            r.put("baselineP50Ms", round(baseline.percentileMs(0.50)));
+            r.put("baselineP99Ms", round(baseline.percentileMs(0.99)));
+            r.put("p50Ms", round(tracked.percentileMs(0.50)));
+            r.put("p99Ms", round(tracked.percentileMs(0.99)));
+            r.put("p99OverheadMs", round(tracked.percentileMs(0.99) - baseline.percentileMs(0.99)));
+            r.put("dbRowsPerSec", round(tracked.rowsWritten / tracked.seconds));
+            r.put("maxQueueDepth", tracked.maxQueueDepth);
+            r.put("avgQueueDepth", round(tracked.avgQueueDepth()));
+            r.put("drainSeconds", round(drainSeconds));
+            r.put("droppedRows", writer.droppedCount());
+            r.put("failedRows", writer.failedCount());
+            r.put("rowsInTable", rows);
+            r.put("headerBytesPerRow", round(orZero(headerBytes)));
+            r.put("headerSets", headerSets);
+            r.put("responseBodyBytesPerRow", round(orZero(bodyBytes)));
+            r.put("storedBodies", bodies);
+            ApiInternalStatsView internal = service.internalSnapshot();
+            r.put("avgCaptureMicros", round(orZero(internal.getAvgCaptureMicros())));
+            r.put("avgFlushMs", round(orZero(internal.getAvgFlushMs())));
+            r.put("avgBatchSize", round(orZero(internal.getAvgBatchSize())));
+            r.put("dbErrors", internal.getDbErrors());
+            r.put("offHeapStaging", offHeapStaging);
+            r.put("maxStagingBytes", tracked.maxStagingBytes);
+            r.put("baselineGcCount", baseline.gcCount);
+            r.put("baselineGcMs", baseline.gcMillis);
+            r.put("gcCount", tracked.gcCount);
+            r.put("gcMs", tracked.gcMillis);
+            print(r);
+            return r;
+        }
+    }
+
+    /** Warm up, then run the measured window; samples the log writer when one is given. */
+    private Phase drive(RestTemplate template, String url, AsyncLogWriter writer) throws InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> request = new HttpEntity<>(json(requestBytes), headers);
+        runFor(template, url, request, warmupSeconds, null);
+
+        Phase phase = new Phase();
+        long writtenBefore = writer != null ? writer.writtenCount() : 0;
+        Thread sampler = null;
+        if (writer != null) {
+            sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    phase.sample(writer.queueDepth(), writer.staging() != null ? writer.staging().usedBytes() : 0);
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "load-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+        long[] gcBefore = gc();
+        long start = System.nanoTime();
+        phase.latencies = runFor(template, url, request, seconds, phase.errors);
+        phase.seconds = (System.nanoTime() - start) / 1e9;
+        long[] gcAfter = gc();
+        phase.gcCount = gcAfter[0] - gcBefore[0];
+        phase.gcMillis = gcAfter[1] - gcBefore[1];
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler.join();
+            phase.rowsWritten = writer.writtenCount() - writtenBefore;
+        }
+        if (phase.errors.get() > 0) {
+            System.out.println("  " + phase.errors.get() + " call(s) failed");
+        }
+        return phase;
+    }
+
+    /** Caller threads call as fast as they can for {@code durationSeconds}; returns sorted latencies in nanos. */
+    private long[] runFor(RestTemplate template, String url, HttpEntity<String> request, int durationSeconds,
+                          AtomicLong errors) throws InterruptedException {
+        long deadline = System.nanoTime() + durationSeconds * 1_000_000_000L;
+        long[][] perThread = new long[threads][];
+        int[] counts = new int[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            Thread caller = new Thread(() -> {
+                long[] samples = new long[1 << 14];
+                int n = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        try {
+                            template.postForEntity(url + ThreadLocalRandom.current().nextInt(1_000_000), request, String.class);
+                        } catch (Exception e) {
+                            if (errors != null) errors.incrementAndGet();
+                            continue;
+                        }
+                        if (n == samples.length) samples = Arrays.copyOf(samples, n * 2);
+                        samples[n++] = System.nanoTime() - begin;
+                    }
+                } finally {
+                    perThread[index] = samples;
+                    counts[index] = n;
+                    done.countDown();
+                }
+            }, "load-caller-" + t);
+            caller.start();
+        }
+        done.await();
+        int total = 0;
+        for (int c : counts) total += c;
+        long[] all = new long[total];
+        int at = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(perThread[t], 0, all, at, counts[t]);
+            at += counts[t];
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    /** Collections and collection time so far, over all collectors. */
+    private static long[] gc() {
+        long[] total = new long[2];
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total[0] += Math.max(0, bean.getCollectionCount());
+            total[1] += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static String json(int size) {
+        StringBuilder sb = new StringBuilder("{\"amount\":100,\"note\":\"");
+        while (sb.length() < size - 2) sb.append('x');
+        return sb.append("\"}").toString();
+    }
+
+    private static void print(Map<String, Object> r) {
+        System.out.printf("  calls/sec      %10.1f   (bare %.1f)%n", r.get("callsPerSec"), r.get("baselineCallsPerSec"));
+        System.out.printf("  p50 ms         %10.3f   (bare %.3f)%n", r.get("p50Ms"), r.get("baselineP50Ms"));
+        System.out.printf("  p99 ms         %10.3f   (bare %.3f, overhead %.3f)%n", r.get("p99Ms"), r.get("baselineP99Ms"), r.get("p99OverheadMs"));
+        System.out.printf("  DB rows/sec    %10.1f%n", r.get("dbRowsPerSec"));
+        System.out.printf("  queue depth    max %d, avg %.1f, drained in %.2fs%n", r.get("maxQueueDepth"), r.get("avgQueueDepth"), r.get("drainSeconds"));
+        System.out.printf("  capture        %.1f us/call on the caller thread%n", r.get("avgCaptureMicros"));
+        System.out.printf("  flush          %.2f ms avg, %.1f entries/batch, %d DB error(s)%n", r.get("avgFlushMs"), r.get("avgBatchSize"), r.get("dbErrors"));
+        System.out.printf("  rows           %d in table, %d dropped, %d failed%n", r.get("rowsInTable"), r.get("droppedRows"), r.get("failedRows"));
+        System.out.printf("  headers        %.1f bytes/row on the row, %d shared set(s)%n", r.get("headerBytesPerRow"), r.get("headerSets"));
+        System.out.printf("  response body  %.1f bytes/row on the row, %d stored bod(ies)%n", r.get("responseBodyBytesPerRow"), r.get("storedBodies"));
+        System.out.printf("  gc             %d collection(s), %d ms (bare %d, %d ms)%n", r.get("gcCount"), r.get("gcMs"), r.get("baselineGcCount"), r.get("baselineGcMs"));
+        if (Boolean.TRUE.equals(r.get("offHeapStaging"))) {
+            System.out.printf("  staging        max %d bytes off-heap%n", r.get("maxStagingBytes"));
+        }
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1000) / 1000.0;
+    }
+
+    private static final class Phase {
+        final AtomicLong errors = new AtomicLong();
+        long[] latencies = new long[0];
+        double seconds;
+        long rowsWritten;
+        long gcCount;
+        long gcMillis;
+        // Only touched by the sampler thread until it is joined
+        int maxQueueDepth;
+        long maxStagingBytes;
+        long depthSum;
+        long depthSamples;
+
+        void sample(int depth, long stagingBytes) {
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+            maxStagingBytes = Math.max(maxStagingBytes, stagingBytes);
+            depthSum += depth;
+            depthSamples++;
+        }
+
+        double callsPerSec() {
+            return seconds > 0 ? latencies.length / seconds : 0;
+        }
+
+        double percentileMs(double p) {
+            if (latencies.length == 0) return 0;
+            int i = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, i)] / 1e6;
+        }
+
+        double avgQueueDepth() {
+            return depthSamples > 0 ? (double) depthSum / depthSamples : 0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.zula.apihealth.load;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local partner API for the load harness: JDK {@link HttpServer} on an ephemeral loopback port that drains the
+ * request body, waits {@code latencyMillis} and answers 200 with a fixed JSON body of {@code responseBytes}.
+ */
+final class StubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StubServer(int threads, int responseBytes, long latencyMillis) throws IOException {
+        byte[] body = body(responseBytes);
+        // Without TCP_NODELAY, Nagle plus delayed ACKs add ~40ms to every small exchange
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "stub-server");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] body(int size) {
+        String prefix = "{\"status\":\"ok\",\"pad\":\"";
+        String suffix = "\"}";
+        byte[] b = new byte[Math.max(size, prefix.length() + suffix.length())];
+        Arrays.fill(b, (byte) 'x');
+        System.arraycopy(prefix.getBytes(), 0, b, 0, prefix.length());
+        System.arraycopy(suffix.getBytes(), 0, b, b.length - suffix.length(), suffix.length());
+        return b;
+    }
+}
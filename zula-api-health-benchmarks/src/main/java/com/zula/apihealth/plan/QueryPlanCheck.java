@@ -0,0 +1,252 @@
+package com.zula.apihealth.plan;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zula.apihealth.config.ApiHealthProperties;
+import com.zula.apihealth.load.EmbeddedDb;
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.repository.ApiHealthRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query-plan regression check: seeds {@code plan.rows} call logs into embedded H2 (MySQL and PostgreSQL
+ * modes), runs the repository's read and monitor-update queries, {@code EXPLAIN}s the exact statements they
+ * prepared and fails when a query scans a table it must reach through an index, exceeds its latency budget
+ * or returns a wrong result. Plans are written to {@code target/query-plans.txt}; exits with 1 on any failure.
+ * <pre>
+ * java -Xmx3g -cp target/benchmarks.jar com.zula.apihealth.plan.QueryPlanCheck
+ *   -Dplan.db=both|mysql|postgres  -Dplan.rows=1000000  -Dplan.endpoints=50  -Dplan.runs=5
+ *   -Dplan.budgetScale=1.0   multiply every latency budget (slow CI runners)
+ * </pre>
+ */
+public final class QueryPlanCheck {
+    private static final String SCHEMA = "plan";
+    private static final String LOGS = "api_call_logs";
+    private static final String REGISTRY = "api_endpoint_registry";
+    private static final String BODIES = "api_bodies";
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\*\\s*[\\w.\"]*?\"?(\\w+)\"?\\.tableScan");
+    private static final int CHUNK = 100_000;
+    private static final int PROBE_STATUS = 299;
+
+    private final int rows = Integer.getInteger("plan.rows", 1_000_000);
+    private final int endpoints = Integer.getInteger("plan.endpoints", 50);
+    private final int runs = Integer.getInteger("plan.runs", 5);
+    private final double budgetScale = Double.parseDouble(System.getProperty("plan.budgetScale", "1.0"));
+    private final StringBuilder report = new StringBuilder();
+
+    private QueryPlanCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        QueryPlanCheck check = new QueryPlanCheck();
+        String db = System.getProperty("plan.db", "both");
+        Path reportFile = Path.of(System.getProperty("plan.report", "target/query-plans.txt"));
+        int failures = 0;
+        for (EmbeddedDb.Mode mode : EmbeddedDb.Mode.values()) {
+            if (!"both".equalsIgnoreCase(db) && EmbeddedDb.mode(db) != mode) continue;
+            failures += check.run(mode);
+        }
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, check.report);
+        System.out.println("Plans: " + reportFile);
+        if (failures > 0) {
+            System.out.println(failures + " query check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All query checks passed");
+    }
+
+    private int run(EmbeddedDb.Mode mode) throws Exception {
+        try (HikariDataSource pool = EmbeddedDb.pool(mode, "plan_" + mode.name().toLowerCase(), 4)) {
+            StatementCapture capture = new StatementCapture(EmbeddedDb.dataSource(mode, pool));
+            ApiHealthProperties properties = new ApiHealthProperties();
+            properties.setSchemaName(SCHEMA);
+            properties.setAutoCreateTables(true);
+            ApiHealthRepository repository = new ApiHealthRepository(new JdbcTemplate(capture), properties);
+            JdbcTemplate jdbc = new JdbcTemplate(EmbeddedDb.dataSource(mode, pool));
+
+            long seedStart = System.nanoTime();
+            seed(jdbc, mode);
+            System.out.printf("%n== %s: seeded %,d call logs over %d endpoints in %.1fs%n",
+                    mode, rows, endpoints, (System.nanoTime() - seedStart) / 1e9);
+            report.append("== ").append(mode).append(", ").append(rows).append(" call logs, ")
+                    .append(endpoints).append(" endpoints\n\n");
+
+            int templated = endpoints / 2 & ~1;
+            long endpointId = idOf(jdbc, templated);
+            long prefixId = idOf(jdbc, templated + 1);
+            long idleId = jdbc.queryForObject("SELECT id FROM " + SCHEMA + "." + REGISTRY + " WHERE name = ?", Long.class, "idle");
+            String template = templateOf(templated);
+            String traceId = "trace-" + (rows / 8);
+            String url = "https://svc" + (templated + 1) + ".example.com/api/v1/orders/" + rows;
+
+            List<Check> checks = List.of(
+                    // All-time totals read every log row once (grouped before the join); the budget catches a
+                    // return to joining the registry against each row
+                    new Check("listEndpointsWithStats", 3000, Set.of(REGISTRY, LOGS),
+                            r -> r.listEndpointsWithStats(null, null, null, null, false, null, null),
+                            () -> repository.listEndpointsWithStats(null, null, null, null, false, null, null).stream()
+                                    .mapToLong(ApiEndpointView::getTotalCalls).sum() == rows),
+                    // A window is read through the timestamp index
+                    new Check("listEndpointsWithStats 1h", 500, Set.of(REGISTRY),
+                            r -> r.listEndpointsWithStats(null, OffsetDateTime.now().minusHours(1).toString(), null, null, false, null, null),
+                            null),
+                    new Check("logsForEndpointId", 50, Set.of(),
+                            r -> r.logsForEndpointId(endpointId, 50),
+                            () -> repository.logsForEndpointId(endpointId, 50).size() == 50),
+                    new Check("logsForEndpointId prefix", 50, Set.of(),
+                            r -> r.logsForEndpointId(prefixId, 50),
+                            () -> repository.logsForEndpointId(prefixId, 50).size() == 50),
+                    // No call ever matched: must come back from the template index, not a walk over every log
+                    new Check("logsForEndpointId idle", 20, Set.of(),
+                            r -> r.logsForEndpointId(idleId, 50),
+                            () -> repository.logsForEndpointId(idleId, 50).isEmpty()),
+                    new Check("recentLogs", 50, Set.of(),
+                            r -> r.recentLogs(50), null),
+                    new Check("logDetailsByTraceId", 50, Set.of(),
+                            r -> r.logDetailsByTraceId(traceId, 50), null),
+                    new Check("logsByTemplate", 50, Set.of(),
+                            r -> r.logsByTemplate(template, 50), null),
+                    // The registry is small and matched by URL prefix, so it may be scanned; call logs must not be
+                    new Check("updateMonitorStatusByUrl", 20, Set.of(REGISTRY),
+                            r -> r.updateMonitorStatusByUrl(url, "POST", PROBE_STATUS, true, "ok", OffsetDateTime.now()),
+                            () -> Integer.valueOf(PROBE_STATUS).equals(jdbc.queryForObject(
+                                    "SELECT last_check_status FROM " + SCHEMA + "." + REGISTRY + " WHERE id = ?", Integer.class, prefixId))),
+                    // Retention finds expired rows through the timestamp index; the cutoff is older than every
+                    // seeded row, so nothing is deleted. The body dictionary is small and may be scanned
+                    new Check("deleteLogsBefore", 50, Set.of(BODIES),
+                            r -> r.deleteLogsBefore(OffsetDateTime.now().minusSeconds(2L * rows).minusDays(1)),
+                            () -> jdbc.queryForObject("SELECT COUNT(*) FROM " + SCHEMA + "." + LOGS, Long.class) == rows));
+
+            int failures = 0;
+            System.out.printf("%-26s %10s %10s  %-24s %s%n", "query", "median ms", "budget ms", "scanned tables", "result");
+            for (Check c : checks) {
+                failures += c.run(repository, capture, pool) ? 0 : 1;
+            }
+            return failures;
+        }
+    }
+
+    /**
+     * Registry rows (even ones registered as templates, odd ones as plain prefixes, plus one that is never
+     * called) and {@code rows} logs spread round-robin over them, two seconds apart, four calls per trace.
+     */
+    private void seed(JdbcTemplate jdbc, EmbeddedDb.Mode mode) {
+        for (int i = 0; i < endpoints; i++) {
+            jdbc.update("INSERT INTO " + SCHEMA + "." + REGISTRY + " (name, path, http_method, description) VALUES (?,?,?,?)",
+                    "svc" + i, i % 2 == 0 ? templateOf(i) : "https://svc" + i + ".example.com/api/v1/", "POST", "query plan check");
+        }
+        jdbc.update("INSERT INTO " + SCHEMA + "." + REGISTRY + " (name, path, http_method, description) VALUES (?,?,?,?)",
+                "idle", "https://idle.example.com/api/v1/", "POST", "query plan check");
+        String id = mode == EmbeddedDb.Mode.POSTGRES ? "RANDOM_UUID()" : "CAST(RANDOM_UUID() AS VARCHAR(36))";
+        // SYSTEM_RANGE's column is upper-case X, which DATABASE_TO_LOWER only resolves when quoted
+        String sql = "INSERT INTO " + SCHEMA + "." + LOGS + " (id, timestamp, url, url_template, http_method, request_headers, " +
+                "request_body, response_headers, response_body, http_status, duration_ms, trace_id, success, direction, inbound_request_id) " +
+                "SELECT " + id + ", DATEADD(SECOND, (n - " + rows + ") * 2, CAST(? AS TIMESTAMP)), " +
+                "CONCAT('https://svc', MOD(n, " + endpoints + "), '.example.com/api/v1/orders/', n), " +
+                "CONCAT('https://svc', MOD(n, " + endpoints + "), '.example.com/api/v1/orders/{id}'), 'POST', " +
+                "'[Content-Type:\"application/json\"]', '{\"amount\":100}', '[Content-Type:\"application/json\"]', '{\"status\":\"ok\"}', " +
+                "CASE WHEN MOD(n, 50) = 0 THEN 503 ELSE 200 END, MOD(n, 900) + 10, CONCAT('trace-', n / 4), " +
+                "MOD(n, 50) <> 0, 'OUT', CONCAT('req-', n / 4) " +
+                "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(?, ?)) r";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 1; from <= rows; from += CHUNK) {
+            jdbc.update(sql, now, from, Math.min(rows, from + CHUNK - 1));
+        }
+        jdbc.execute("ANALYZE");
+    }
+
+    private static long idOf(JdbcTemplate jdbc, int endpoint) {
+        return jdbc.queryForObject("SELECT id FROM " + SCHEMA + "." + REGISTRY + " WHERE name = ?", Long.class, "svc" + endpoint);
+    }
+
+    private static String templateOf(int endpoint) {
+        return "https://svc" + endpoint + ".example.com/api/v1/orders/{id}";
+    }
+
+    private final class Check {
+        final String name;
+        final long budgetMillis;
+        final Set<String> scanAllowed;
+        final Consumer<ApiHealthRepository> query;
+        final BooleanSupplier verify;
+
+        Check(String name, long budgetMillis, Set<String> scanAllowed, Consumer<ApiHealthRepository> query, BooleanSupplier verify) {
+            this.name = name;
+            this.budgetMillis = budgetMillis;
+            this.scanAllowed = scanAllowed;
+            this.query = query;
+            this.verify = verify;
+        }
+
+        boolean run(ApiHealthRepository repository, StatementCapture capture, HikariDataSource pool) throws Exception {
+            capture.drain();
+            query.accept(repository);
+            List<StatementCapture.Captured> statements = capture.drain();
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                query.accept(repository);
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            capture.drain();
+            Arrays.sort(millis);
+            long median = millis[runs / 2];
+            long budget = Math.round(budgetMillis * budgetScale);
+
+            List<String> problems = new ArrayList<>();
+            Set<String> scanned = new TreeSet<>();
+            report.append("-- ").append(name).append('\n');
+            Map<String, StatementCapture.Captured> distinct = new LinkedHashMap<>();
+            for (StatementCapture.Captured s : statements) distinct.putIfAbsent(s.sql, s);
+            for (StatementCapture.Captured s : distinct.values()) {
+                String plan = explain(pool, s);
+                report.append(s.sql).append("\n  params ").append(s.params.values()).append('\n').append(plan).append("\n\n");
+                Matcher m = TABLE_SCAN.matcher(plan);
+                while (m.find()) scanned.add(m.group(1).toLowerCase());
+            }
+            for (String table : scanned) {
+                if (!scanAllowed.contains(table)) problems.add("scans " + table);
+            }
+            if (distinct.isEmpty()) problems.add("no statement executed");
+            if (median > budget) problems.add("median " + median + "ms > " + budget + "ms");
+            if (verify != null && !verify.getAsBoolean()) problems.add("wrong result");
+            report.append("   median ").append(median).append("ms, budget ").append(budget).append("ms, ")
+                    .append(problems.isEmpty() ? "OK" : "FAIL " + problems).append("\n\n");
+            System.out.printf("%-26s %10d %10d  %-24s %s%n", name, median, budget,
+                    scanned.isEmpty() ? "-" : String.join(",", scanned), problems.isEmpty() ? "OK" : "FAIL " + problems);
+            return problems.isEmpty();
+        }
+    }
+
+    private static String explain(HikariDataSource pool, StatementCapture.Captured s) throws Exception {
+        try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement("EXPLAIN " + s.sql)) {
+            for (Map.Entry<Integer, Object> p : s.params.entrySet()) {
+                ps.setObject(p.getKey(), p.getValue());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString().trim();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.zula.apihealth.plan;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Records the SQL and bind parameters of every prepared statement the repository executes, so the check can
+ * {@code EXPLAIN} exactly what the repository sent rather than a hand-copied version of it.
+ */
+final class StatementCapture extends DelegatingDataSource {
+    private final List<Captured> captured = new ArrayList<>();
+
+    StatementCapture(DataSource target) {
+        super(target);
+    }
+
+    /** Statements prepared since the last call, then forget them. */
+    synchronized List<Captured> drain() {
+        List<Captured> out = new ArrayList<>(captured);
+        captured.clear();
+        return out;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement && "prepareStatement".equals(method.getName())) {
+                        Captured c = new Captured((String) args[0]);
+                        synchronized (this) {
+                            captured.add(c);
+                        }
+                        return recording((PreparedStatement) result, c);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, Captured c) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        c.params.put((Integer) args[0], "setNull".equals(method.getName()) ? null : args[1]);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static final class Captured {
+        final String sql;
+        final TreeMap<Integer, Object> params = new TreeMap<>();
+
+        Captured(String sql) {
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.zula.apihealth.annotation;
+
+/**
+ * How much of an exchange is stored with its call log row. The row itself (URL, status, duration) is always written.
+ *
+ * - NONE: no headers, no bodies
+ * - HEADERS: headers only
+ * - PREFIX: headers plus the first capture-prefix-bytes of text bodies
+ * - FULL: headers plus text bodies up to capture-max-bytes
+ * - DEFAULT: annotation only; use the configured level
+ *
+ * Non-text bodies (images, PDFs, octet streams...) are never stored; PREFIX and FULL record their type and size.
+ */
+public enum CaptureLevel {
+    NONE, HEADERS, PREFIX, FULL, DEFAULT;
+
+    public boolean headers() {
+        return this == HEADERS || this == PREFIX || this == FULL;
+    }
+
+    public boolean body() {
+        return this == PREFIX || this == FULL;
+    }
+}
@@ -11,6 +11,8 @@ import java.lang.annotation.Target;
  *
  * - active=true flags it for PingScheduler
  * - pingIntervalSeconds sets how often (in seconds) to allow a ping
+ * - probePath/probeMethod/expectedStatus/bodyPattern optionally describe what a ping sends and accepts
+ * - degradedThresholdMs marks slow-but-up responses as DEGRADED
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
@@ -24,4 +26,34 @@ public @interface EndpointMonitor {
      * Whether active monitoring is enabled for this endpoint.
      */
     boolean active() default false;
+
+    /**
+     * URL to probe instead of the tracked path. Absolute URL, or a path resolved against the
+     * tracked path (e.g. "/actuator/health"). Placeholders are resolved. Empty = tracked path.
+     */
+    String probePath() default "";
+
+    /**
+     * HTTP method for the probe (HEAD, GET, OPTIONS...). Empty = HEAD, falling back to GET
+     * when HEAD is rejected; the method that worked is remembered per endpoint.
+     */
+    String probeMethod() default "";
+
+    /**
+     * Statuses that count as UP for the probe, same syntax as status-ranges.properties
+     * (e.g. "200,204" or "200-299"). Empty = library-wide status ranges.
+     */
+    String expectedStatus() default "";
+
+    /**
+     * Optional regex that must be found in the first bytes of the probe response body.
+     * Implies GET when no probeMethod is given.
+     */
+    String bodyPattern() default "";
+
+    /**
+     * Latency (ms) above which a successful check is reported as DEGRADED instead of UP.
+     * 0 = use the learned latency baseline for this endpoint.
+     */
+    int degradedThresholdMs() default 0;
 }
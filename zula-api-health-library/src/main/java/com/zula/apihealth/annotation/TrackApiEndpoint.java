@@ -10,6 +10,8 @@ import java.lang.annotation.Target;
  * in the endpoint registry and have its calls logged.
  *
  * Required: {@code path}; defaults: method=GET, name="", description="".
+ * The path may contain {@code {name}} placeholders (e.g. {@code /customers/{id}/accounts}), each matching one URL segment.
+ * The capture attributes override the configured {@link CaptureLevel}s for calls to this endpoint.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
@@ -18,4 +20,16 @@ public @interface TrackApiEndpoint {
     String method() default "GET";
     String name() default "";
     String description() default "";
+
+    /** What to store for successful calls that are not slow; DEFAULT uses zula.apihealth.capture-success-level. */
+    CaptureLevel capture() default CaptureLevel.DEFAULT;
+
+    /** What to store for failed or slow calls; DEFAULT uses zula.apihealth.capture-failure-level. */
+    CaptureLevel captureOnFailure() default CaptureLevel.DEFAULT;
+
+    /**
+     * Calls at least this slow (ms) are captured like failures. 0 = the endpoint's
+     * {@link EndpointMonitor#degradedThresholdMs()} when set, else zula.apihealth.capture-slow-ms.
+     */
+    int captureSlowMs() default 0;
 }
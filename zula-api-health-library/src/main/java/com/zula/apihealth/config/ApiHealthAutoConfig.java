@@ -2,22 +2,43 @@ package com.zula.apihealth.config;
 
 import com.zula.apihealth.controller.ApiCallLogController;
 import com.zula.apihealth.controller.ApiHealthController;
+import com.zula.apihealth.health.ApiDependenciesHealthIndicator;
+import com.zula.apihealth.interceptor.ApiCallLoggingAsyncExecChainHandler;
+import com.zula.apihealth.interceptor.ApiCallLoggingExchangeFilter;
+import com.zula.apihealth.interceptor.ApiCallLoggingExecChainHandler;
 import com.zula.apihealth.interceptor.ApiCallLoggingInterceptor;
+import com.zula.apihealth.interceptor.ApiCallRecorder;
+import com.zula.apihealth.interceptor.CapturePolicy;
+import com.zula.apihealth.interceptor.InboundRequestFilter;
+import com.zula.apihealth.metrics.EndpointMeters;
+import com.zula.apihealth.metrics.InternalMeters;
+import com.zula.apihealth.metrics.InternalStats;
 import com.zula.apihealth.repository.ApiHealthRepository;
 import com.zula.apihealth.scanner.ApiEndpointScanner;
 import com.zula.apihealth.scanner.ApiEndpointRescan;
 import com.zula.apihealth.service.ApiHealthService;
 import com.zula.apihealth.service.PingScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 
@@ -29,7 +50,9 @@ import javax.sql.DataSource;
  *  - service + controllers
  *  - endpoint scanner/rescan
  *  - RestTemplate interceptor/customizer
+ *  - WebClient exchange filter/customizer (if WebFlux is on the classpath)
  *  - ping scheduler (if scheduling is available)
+ *  - actuator health indicator for critical dependencies (if actuator is present)
  */
 @AutoConfiguration
 @EnableConfigurationProperties(ApiHealthProperties.class)
@@ -52,12 +75,36 @@ public class ApiHealthAutoConfig {
         return new ApiHealthRepository(jdbcTemplate, properties);
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    /** Counters for the library's own overhead (capture, scheduler, startup scan). */
+    public InternalStats apiHealthInternalStats() {
+        return new InternalStats();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    /** Capture levels and limits; @TrackApiEndpoint overrides are added by the scanner. */
+    public CapturePolicy apiHealthCapturePolicy(ApiHealthProperties properties) {
+        return ApiHealthService.capturePolicy(properties);
+    }
+
     @Bean
     @ConditionalOnMissingBean
     /** Service layer orchestrating queries/persistence. */
     public ApiHealthService apiHealthService(ApiHealthRepository repository,
-                                             ApiHealthProperties properties) {
-        return new ApiHealthService(repository, properties);
+                                             ApiHealthProperties properties,
+                                             InternalStats internalStats,
+                                             CapturePolicy capturePolicy) {
+        return new ApiHealthService(repository, properties, internalStats, capturePolicy);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "zula.apihealth", name = "meters-enabled", havingValue = "true", matchIfMissing = true)
+    /** Internal overhead meters (zula.apihealth.*), bound by Spring Boot to every MeterRegistry. */
+    public InternalMeters apiHealthInternalMeters(ApiHealthService service) {
+        return new InternalMeters(service);
     }
 
     @Bean
@@ -77,8 +124,9 @@ public class ApiHealthAutoConfig {
     @Bean
     @ConditionalOnMissingBean
     /** Bean post-processor that registers @TrackApiEndpoint methods. */
-    public ApiEndpointScanner apiEndpointScanner(ApiHealthRepository repository, Environment environment) {
-        return new ApiEndpointScanner(repository, environment);
+    public ApiEndpointScanner apiEndpointScanner(ApiHealthRepository repository, Environment environment,
+                                                 InternalStats internalStats, CapturePolicy capturePolicy) {
+        return new ApiEndpointScanner(repository, environment, internalStats, capturePolicy);
     }
 
     @Bean
@@ -90,9 +138,26 @@ public class ApiHealthAutoConfig {
 
     @Bean
     @ConditionalOnMissingBean
-    /** Interceptor to capture outbound calls. */
-    public ApiCallLoggingInterceptor apiCallLoggingInterceptor(ApiHealthService service) {
-        return new ApiCallLoggingInterceptor(service);
+    /** Interceptor to capture outbound calls (publishes Micrometer meters when a MeterRegistry is present). */
+    public ApiCallLoggingInterceptor apiCallLoggingInterceptor(ApiHealthService service,
+                                                               ApiHealthProperties properties,
+                                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ApiCallLoggingInterceptor(service, endpointMeters(properties, meterRegistry), properties.isTracePropagation());
+    }
+
+    /** Outbound call meters, or null when disabled or no MeterRegistry is available. */
+    static EndpointMeters endpointMeters(ApiHealthProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = properties.isMetersEnabled() ? meterRegistry.getIfAvailable() : null;
+        return registry != null ? new EndpointMeters(registry, properties.isMetersPercentileHistogram()) : null;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    /** Shared capture path for the streaming clients (WebClient, JDK HttpClient, Apache HttpClient 5). */
+    public ApiCallRecorder apiCallRecorder(ApiHealthService service,
+                                           ApiHealthProperties properties,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ApiCallRecorder(service, endpointMeters(properties, meterRegistry), properties.isTracePropagation());
     }
 
     @Bean
@@ -101,14 +166,80 @@ public class ApiHealthAutoConfig {
         return restTemplate -> restTemplate.getInterceptors().add(interceptor);
     }
 
+    @Configuration
+    @ConditionalOnClass(WebClient.class)
+    static class WebClientConfig {
+        @Bean
+        @ConditionalOnMissingBean
+        /** ExchangeFilterFunction capturing WebClient calls into the same logging pipeline. */
+        public ApiCallLoggingExchangeFilter apiCallLoggingExchangeFilter(ApiCallRecorder recorder) {
+            return new ApiCallLoggingExchangeFilter(recorder);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(name = "apiHealthWebClientCustomizer")
+        public WebClientCustomizer apiHealthWebClientCustomizer(ApiCallLoggingExchangeFilter filter) {
+            return builder -> builder.filter(filter);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(ExecChainHandler.class)
+    static class HttpClient5Config {
+        @Bean
+        @ConditionalOnMissingBean
+        /** Classic exec-chain handler; add with HttpClientBuilder.addExecInterceptorFirst. */
+        public ApiCallLoggingExecChainHandler apiCallLoggingExecChainHandler(ApiCallRecorder recorder) {
+            return new ApiCallLoggingExecChainHandler(recorder);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        /** Async exec-chain handler; add with HttpAsyncClientBuilder.addExecInterceptorFirst. */
+        public ApiCallLoggingAsyncExecChainHandler apiCallLoggingAsyncExecChainHandler(ApiCallRecorder recorder) {
+            return new ApiCallLoggingAsyncExecChainHandler(recorder);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "zula.apihealth", name = "inbound-capture-enabled", havingValue = "true")
+    static class InboundConfig {
+        @Bean
+        @ConditionalOnMissingBean(name = "apiHealthInboundFilter")
+        /** Records inbound requests and tags their outbound calls; runs early so it times the whole request. */
+        public FilterRegistrationBean<InboundRequestFilter> apiHealthInboundFilter(ApiHealthService service,
+                                                                                  ApiHealthProperties properties) {
+            FilterRegistrationBean<InboundRequestFilter> registration = new FilterRegistrationBean<>(
+                    new InboundRequestFilter(service, properties.getInboundExcludePatterns(), properties.getInboundRequestIdHeader()));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+            return registration;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(HealthIndicator.class)
+    static class HealthConfig {
+        @Bean
+        @ConditionalOnMissingBean(name = "apiDependenciesHealthIndicator")
+        @ConditionalOnEnabledHealthIndicator("apiDependencies")
+        /** In-memory health of critical tracked dependencies (/actuator/health/apiDependencies). */
+        public ApiDependenciesHealthIndicator apiDependenciesHealthIndicator(ApiHealthService service,
+                                                                             ApiHealthProperties properties) {
+            return new ApiDependenciesHealthIndicator(service, properties.getCriticalEndpoints(),
+                    properties.getCriticalMaxCheckAgeSeconds());
+        }
+    }
+
     @Configuration
     @EnableScheduling
     static class SchedulingConfig {
         @Bean
         @ConditionalOnMissingBean
-        public PingScheduler pingScheduler(ApiHealthService service, RestTemplateBuilder builder) {
+        public PingScheduler pingScheduler(ApiHealthService service, RestTemplateBuilder builder,
+                                           ApiHealthProperties properties) {
             RestTemplate rt = builder.build();
-            return new PingScheduler(service, rt);
+            return new PingScheduler(service, rt, properties.getProbeMaxBytes());
         }
     }
 }
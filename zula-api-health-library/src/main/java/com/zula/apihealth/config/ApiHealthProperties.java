@@ -1,7 +1,11 @@
 package com.zula.apihealth.config;
 
+import com.zula.apihealth.annotation.CaptureLevel;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Externalized configuration for the API health module.
  * Prefix: zula.apihealth
@@ -23,6 +27,274 @@ public class ApiHealthProperties {
      */
     private int recentLimit = 50;
 
+    /**
+     * Days of ping history (api_ping_results) to keep. Independent of call log retention; 0 keeps everything.
+     */
+    private int pingRetentionDays = 30;
+
+    /**
+     * Skip an active ping when real traffic within the interval already gives a confident verdict.
+     */
+    private boolean passiveSuppression = true;
+
+    /**
+     * Minimum number of real calls within the ping interval before their outcome replaces a probe.
+     */
+    private int passiveMinCalls = 5;
+
+    /**
+     * Failure ratio at or below which passive traffic counts as confidently UP
+     * (and at or above 1 - ratio as confidently DOWN). Anything in between is probed.
+     */
+    private double passiveMaxFailureRatio = 0.1;
+
+    /**
+     * How often (seconds) the in-memory copy of the endpoint registry is reloaded.
+     */
+    private int registryRefreshSeconds = 60;
+
+    /**
+     * Maximum number of response body bytes a ping reads (GET probes and body patterns).
+     */
+    private int probeMaxBytes = 4000;
+
+    /**
+     * Without an explicit degradedThresholdMs, a check slower than factor x learned baseline is DEGRADED.
+     */
+    private double degradedBaselineFactor = 3.0;
+
+    /**
+     * Latencies below this (ms) are never reported as DEGRADED by the learned baseline.
+     */
+    private int degradedMinLatencyMs = 1000;
+
+    /**
+     * Healthy samples needed before the learned baseline is used.
+     */
+    private int degradedBaselineMinSamples = 20;
+
+    /**
+     * Minutes an endpoint must stay DEGRADED against its learned baseline before the slow latency is learned
+     * as the new baseline (<=0 never).
+     */
+    private int degradedRebaselineMinutes = 30;
+
+    /**
+     * Number of time slots kept by the in-memory latency histograms (recent windows up to slots x slot length).
+     */
+    private int histogramSlots = 15;
+
+    /**
+     * Length (seconds) of one latency histogram time slot.
+     */
+    private int histogramSlotSeconds = 60;
+
+    /**
+     * Number of time slots kept by the live call counters (default 360 x 10s = 1h).
+     */
+    private int liveStatsSlots = 360;
+
+    /**
+     * Length (seconds) of one live counter time slot.
+     */
+    private int liveStatsSlotSeconds = 10;
+
+    /**
+     * Publish Micrometer meters for outbound calls when a MeterRegistry is available.
+     */
+    private boolean metersEnabled = true;
+
+    /**
+     * Max number of URL -> template resolutions cached in memory.
+     */
+    private int urlTemplateCacheSize = 10000;
+
+    /**
+     * Endpoint names or paths whose state drives the apiDependencies actuator health indicator.
+     */
+    private List<String> criticalEndpoints = new ArrayList<>();
+
+    /**
+     * Report a critical endpoint as UNKNOWN when its last check is older than this (0 = never stale).
+     */
+    private long criticalMaxCheckAgeSeconds = 0;
+
+    /**
+     * Actuator health group that includes the apiDependencies indicator (blank = do not contribute a group).
+     */
+    private String healthGroup = "dependencies";
+
+    /**
+     * TTL (seconds) of cached admin read results; any write invalidates earlier entries sooner (0 = no caching).
+     */
+    private int readCacheTtlSeconds = 5;
+
+    /**
+     * Max number of cached admin read results.
+     */
+    private int readCacheMaxEntries = 256;
+
+    /**
+     * Size of the in-memory ring feeding live tail subscribers (rounded up to a power of two).
+     */
+    private int liveTailBufferSize = 1024;
+
+    /**
+     * Max events a live tail subscriber may lag behind before older ones are dropped for it.
+     */
+    private int liveTailSubscriberBuffer = 256;
+
+    /**
+     * Max concurrent live tail subscribers; further requests get 503.
+     */
+    private int liveTailMaxSubscribers = 10;
+
+    /**
+     * Live tail stream timeout (seconds); clients reconnect after it.
+     */
+    private int liveTailTimeoutSeconds = 1800;
+
+    /**
+     * Max call logs waiting for the background writer; further calls are dropped (and counted) instead of blocking.
+     */
+    private int logQueueCapacity = 10000;
+
+    /**
+     * Max call logs inserted per JDBC batch by the background writer.
+     */
+    private int logBatchSize = 200;
+
+    /**
+     * How long (ms) the background writer waits for the first entry of a batch.
+     */
+    private int logFlushMillis = 200;
+
+    /**
+     * Publish client-side percentile histogram buckets on the call timer (e.g. for Prometheus histogram_quantile).
+     */
+    private boolean metersPercentileHistogram = true;
+
+    /**
+     * Record inbound servlet requests and tag the outbound calls they make with the inbound request id.
+     */
+    private boolean inboundCaptureEnabled = false;
+
+    /**
+     * Ant-style paths the inbound filter ignores.
+     */
+    private List<String> inboundExcludePatterns = new ArrayList<>(List.of("/admin/**", "/actuator/**"));
+
+    /**
+     * Header carrying an upstream request id; reused when present, generated otherwise and echoed on the response.
+     */
+    private String inboundRequestIdHeader = "X-Request-Id";
+
+    /**
+     * Add a W3C traceparent continuing the current trace to captured outbound requests that carry none.
+     */
+    private boolean tracePropagation = true;
+
+    /**
+     * What to store for successful calls that are not slow (NONE, HEADERS, PREFIX, FULL).
+     */
+    private CaptureLevel captureSuccessLevel = CaptureLevel.PREFIX;
+
+    /**
+     * What to store for failed or slow calls.
+     */
+    private CaptureLevel captureFailureLevel = CaptureLevel.FULL;
+
+    /**
+     * Calls at least this slow (ms) are captured as failures unless the endpoint sets its own threshold; 0 disables.
+     */
+    private int captureSlowMs = 2000;
+
+    /**
+     * Bytes of each text body kept at PREFIX.
+     */
+    private int capturePrefixBytes = 1024;
+
+    /**
+     * Bytes of each text body kept at FULL; also bounds what streaming clients buffer per call.
+     */
+    private int captureMaxBytes = 16384;
+
+    /**
+     * Mask secrets in stored headers and JSON bodies; applied by the background log writer.
+     */
+    private boolean redactionEnabled = true;
+
+    /**
+     * Header names (case-insensitive) whose values are stored as ***.
+     */
+    private List<String> redactHeaders = new ArrayList<>(List.of("Authorization", "Proxy-Authorization", "Cookie",
+            "Set-Cookie", "X-Api-Key"));
+
+    /**
+     * Header names left out of stored headers entirely.
+     */
+    private List<String> dropHeaders = new ArrayList<>();
+
+    /**
+     * JSON fields whose values are stored as "***": a name matches at any depth, "$.a.b" only that path
+     * (arrays are transparent).
+     */
+    private List<String> redactJsonFields = new ArrayList<>(List.of("password", "secret", "client_secret",
+            "access_token", "refresh_token"));
+
+    /**
+     * Store each distinct set of stable headers once (api_header_sets) and reference it from log rows.
+     */
+    private boolean headerDictionaryEnabled = true;
+
+    /**
+     * Header set hashes (with their ids) kept in memory so known sets skip the dictionary lookup.
+     */
+    private int headerSetCacheSize = 10000;
+
+    /**
+     * Header names (case-insensitive) that change per call; they stay on the log row instead of in the shared set.
+     */
+    private List<String> volatileHeaders = new ArrayList<>(List.of("Date", "Expires", "Last-Modified", "ETag", "Age",
+            "Content-Length", "X-Request-Id", "X-Correlation-Id", "traceparent", "tracestate", "X-B3-TraceId",
+            "X-B3-SpanId", "X-Amzn-Trace-Id"));
+
+    /**
+     * Store each distinct response body once (api_bodies, reference counted) and point log rows at it.
+     */
+    private boolean bodyDedupEnabled = true;
+
+    /**
+     * Response bodies shorter than this many chars stay on the log row.
+     */
+    private int bodyDedupMinChars = 64;
+
+    /**
+     * Hashes of recently stored bodies (with their ids) kept in memory so repeats skip the lookup.
+     */
+    private int bodyCacheSize = 5000;
+
+    /**
+     * Days of call logs to keep; older rows and the bodies only they referenced are purged hourly. 0 keeps everything.
+     */
+    private int logRetentionDays = 0;
+
+    /**
+     * Serialize queued call logs into a preallocated direct buffer instead of keeping the entry objects on the heap
+     * until the writer flushes them. Counts against -XX:MaxDirectMemorySize.
+     */
+    private boolean logStagingOffHeap = false;
+
+    /**
+     * Size of the off-heap staging buffer; entries that do not fit in the free space are dropped like a full queue.
+     */
+    private long logStagingBytes = 32L * 1024 * 1024;
+
+    /**
+     * Segment size of the staging buffer; an entry takes as many whole segments as its encoded size needs.
+     */
+    private int logStagingSegmentBytes = 4096;
+
     public String getSchemaName() {
         return schemaName;
     }
@@ -46,4 +318,420 @@ public class ApiHealthProperties {
     public void setRecentLimit(int recentLimit) {
         this.recentLimit = recentLimit;
     }
+
+    public int getPingRetentionDays() {
+        return pingRetentionDays;
+    }
+
+    public void setPingRetentionDays(int pingRetentionDays) {
+        this.pingRetentionDays = pingRetentionDays;
+    }
+
+    public boolean isPassiveSuppression() {
+        return passiveSuppression;
+    }
+
+    public void setPassiveSuppression(boolean passiveSuppression) {
+        this.passiveSuppression = passiveSuppression;
+    }
+
+    public int getPassiveMinCalls() {
+        return passiveMinCalls;
+    }
+
+    public void setPassiveMinCalls(int passiveMinCalls) {
+        this.passiveMinCalls = passiveMinCalls;
+    }
+
+    public double getPassiveMaxFailureRatio() {
+        return passiveMaxFailureRatio;
+    }
+
+    public void setPassiveMaxFailureRatio(double passiveMaxFailureRatio) {
+        this.passiveMaxFailureRatio = passiveMaxFailureRatio;
+    }
+
+    public int getRegistryRefreshSeconds() {
+        return registryRefreshSeconds;
+    }
+
+    public void setRegistryRefreshSeconds(int registryRefreshSeconds) {
+        this.registryRefreshSeconds = registryRefreshSeconds;
+    }
+
+    public int getProbeMaxBytes() {
+        return probeMaxBytes;
+    }
+
+    public void setProbeMaxBytes(int probeMaxBytes) {
+        this.probeMaxBytes = probeMaxBytes;
+    }
+
+    public double getDegradedBaselineFactor() {
+        return degradedBaselineFactor;
+    }
+
+    public void setDegradedBaselineFactor(double degradedBaselineFactor) {
+        this.degradedBaselineFactor = degradedBaselineFactor;
+    }
+
+    public int getDegradedMinLatencyMs() {
+        return degradedMinLatencyMs;
+    }
+
+    public void setDegradedMinLatencyMs(int degradedMinLatencyMs) {
+        this.degradedMinLatencyMs = degradedMinLatencyMs;
+    }
+
+    public int getDegradedBaselineMinSamples() {
+        return degradedBaselineMinSamples;
+    }
+
+    public void setDegradedBaselineMinSamples(int degradedBaselineMinSamples) {
+        this.degradedBaselineMinSamples = degradedBaselineMinSamples;
+    }
+
+    public int getDegradedRebaselineMinutes() {
+        return degradedRebaselineMinutes;
+    }
+
+    public void setDegradedRebaselineMinutes(int degradedRebaselineMinutes) {
+        this.degradedRebaselineMinutes = degradedRebaselineMinutes;
+    }
+
+    public int getHistogramSlots() {
+        return histogramSlots;
+    }
+
+    public void setHistogramSlots(int histogramSlots) {
+        this.histogramSlots = histogramSlots;
+    }
+
+    public int getHistogramSlotSeconds() {
+        return histogramSlotSeconds;
+    }
+
+    public void setHistogramSlotSeconds(int histogramSlotSeconds) {
+        this.histogramSlotSeconds = histogramSlotSeconds;
+    }
+
+    public int getLiveStatsSlots() {
+        return liveStatsSlots;
+    }
+
+    public void setLiveStatsSlots(int liveStatsSlots) {
+        this.liveStatsSlots = liveStatsSlots;
+    }
+
+    public int getLiveStatsSlotSeconds() {
+        return liveStatsSlotSeconds;
+    }
+
+    public void setLiveStatsSlotSeconds(int liveStatsSlotSeconds) {
+        this.liveStatsSlotSeconds = liveStatsSlotSeconds;
+    }
+
+    public boolean isMetersEnabled() {
+        return metersEnabled;
+    }
+
+    public void setMetersEnabled(boolean metersEnabled) {
+        this.metersEnabled = metersEnabled;
+    }
+
+    public boolean isMetersPercentileHistogram() {
+        return metersPercentileHistogram;
+    }
+
+    public void setMetersPercentileHistogram(boolean metersPercentileHistogram) {
+        this.metersPercentileHistogram = metersPercentileHistogram;
+    }
+
+    public int getUrlTemplateCacheSize() {
+        return urlTemplateCacheSize;
+    }
+
+    public void setUrlTemplateCacheSize(int urlTemplateCacheSize) {
+        this.urlTemplateCacheSize = urlTemplateCacheSize;
+    }
+
+    public List<String> getCriticalEndpoints() {
+        return criticalEndpoints;
+    }
+
+    public void setCriticalEndpoints(List<String> criticalEndpoints) {
+        this.criticalEndpoints = criticalEndpoints;
+    }
+
+    public long getCriticalMaxCheckAgeSeconds() {
+        return criticalMaxCheckAgeSeconds;
+    }
+
+    public void setCriticalMaxCheckAgeSeconds(long criticalMaxCheckAgeSeconds) {
+        this.criticalMaxCheckAgeSeconds = criticalMaxCheckAgeSeconds;
+    }
+
+    public String getHealthGroup() {
+        return healthGroup;
+    }
+
+    public void setHealthGroup(String healthGroup) {
+        this.healthGroup = healthGroup;
+    }
+
+    public int getReadCacheTtlSeconds() {
+        return readCacheTtlSeconds;
+    }
+
+    public void setReadCacheTtlSeconds(int readCacheTtlSeconds) {
+        this.readCacheTtlSeconds = readCacheTtlSeconds;
+    }
+
+    public int getReadCacheMaxEntries() {
+        return readCacheMaxEntries;
+    }
+
+    public void setReadCacheMaxEntries(int readCacheMaxEntries) {
+        this.readCacheMaxEntries = readCacheMaxEntries;
+    }
+
+    public int getLiveTailBufferSize() {
+        return liveTailBufferSize;
+    }
+
+    public void setLiveTailBufferSize(int liveTailBufferSize) {
+        this.liveTailBufferSize = liveTailBufferSize;
+    }
+
+    public int getLiveTailSubscriberBuffer() {
+        return liveTailSubscriberBuffer;
+    }
+
+    public void setLiveTailSubscriberBuffer(int liveTailSubscriberBuffer) {
+        this.liveTailSubscriberBuffer = liveTailSubscriberBuffer;
+    }
+
+    public int getLiveTailMaxSubscribers() {
+        return liveTailMaxSubscribers;
+    }
+
+    public void setLiveTailMaxSubscribers(int liveTailMaxSubscribers) {
+        this.liveTailMaxSubscribers = liveTailMaxSubscribers;
+    }
+
+    public int getLiveTailTimeoutSeconds() {
+        return liveTailTimeoutSeconds;
+    }
+
+    public void setLiveTailTimeoutSeconds(int liveTailTimeoutSeconds) {
+        this.liveTailTimeoutSeconds = liveTailTimeoutSeconds;
+    }
+
+    public int getLogQueueCapacity() {
+        return logQueueCapacity;
+    }
+
+    public void setLogQueueCapacity(int logQueueCapacity) {
+        this.logQueueCapacity = logQueueCapacity;
+    }
+
+    public int getLogBatchSize() {
+        return logBatchSize;
+    }
+
+    public void setLogBatchSize(int logBatchSize) {
+        this.logBatchSize = logBatchSize;
+    }
+
+    public int getLogFlushMillis() {
+        return logFlushMillis;
+    }
+
+    public void setLogFlushMillis(int logFlushMillis) {
+        this.logFlushMillis = logFlushMillis;
+    }
+
+    public boolean isInboundCaptureEnabled() {
+        return inboundCaptureEnabled;
+    }
+
+    public void setInboundCaptureEnabled(boolean inboundCaptureEnabled) {
+        this.inboundCaptureEnabled = inboundCaptureEnabled;
+    }
+
+    public List<String> getInboundExcludePatterns() {
+        return inboundExcludePatterns;
+    }
+
+    public void setInboundExcludePatterns(List<String> inboundExcludePatterns) {
+        this.inboundExcludePatterns = inboundExcludePatterns;
+    }
+
+    public String getInboundRequestIdHeader() {
+        return inboundRequestIdHeader;
+    }
+
+    public void setInboundRequestIdHeader(String inboundRequestIdHeader) {
+        this.inboundRequestIdHeader = inboundRequestIdHeader;
+    }
+
+    public boolean isTracePropagation() {
+        return tracePropagation;
+    }
+
+    public void setTracePropagation(boolean tracePropagation) {
+        this.tracePropagation = tracePropagation;
+    }
+
+    public CaptureLevel getCaptureSuccessLevel() {
+        return captureSuccessLevel;
+    }
+
+    public void setCaptureSuccessLevel(CaptureLevel captureSuccessLevel) {
+        this.captureSuccessLevel = captureSuccessLevel;
+    }
+
+    public CaptureLevel getCaptureFailureLevel() {
+        return captureFailureLevel;
+    }
+
+    public void setCaptureFailureLevel(CaptureLevel captureFailureLevel) {
+        this.captureFailureLevel = captureFailureLevel;
+    }
+
+    public int getCaptureSlowMs() {
+        return captureSlowMs;
+    }
+
+    public void setCaptureSlowMs(int captureSlowMs) {
+        this.captureSlowMs = captureSlowMs;
+    }
+
+    public int getCapturePrefixBytes() {
+        return capturePrefixBytes;
+    }
+
+    public void setCapturePrefixBytes(int capturePrefixBytes) {
+        this.capturePrefixBytes = capturePrefixBytes;
+    }
+
+    public int getCaptureMaxBytes() {
+        return captureMaxBytes;
+    }
+
+    public void setCaptureMaxBytes(int captureMaxBytes) {
+        this.captureMaxBytes = captureMaxBytes;
+    }
+
+    public boolean isRedactionEnabled() {
+        return redactionEnabled;
+    }
+
+    public void setRedactionEnabled(boolean redactionEnabled) {
+        this.redactionEnabled = redactionEnabled;
+    }
+
+    public List<String> getRedactHeaders() {
+        return redactHeaders;
+    }
+
+    public void setRedactHeaders(List<String> redactHeaders) {
+        this.redactHeaders = redactHeaders;
+    }
+
+    public List<String> getDropHeaders() {
+        return dropHeaders;
+    }
+
+    public void setDropHeaders(List<String> dropHeaders) {
+        this.dropHeaders = dropHeaders;
+    }
+
+    public List<String> getRedactJsonFields() {
+        return redactJsonFields;
+    }
+
+    public void setRedactJsonFields(List<String> redactJsonFields) {
+        this.redactJsonFields = redactJsonFields;
+    }
+
+    public boolean isHeaderDictionaryEnabled() {
+        return headerDictionaryEnabled;
+    }
+
+    public void setHeaderDictionaryEnabled(boolean headerDictionaryEnabled) {
+        this.headerDictionaryEnabled = headerDictionaryEnabled;
+    }
+
+    public int getHeaderSetCacheSize() {
+        return headerSetCacheSize;
+    }
+
+    public void setHeaderSetCacheSize(int headerSetCacheSize) {
+        this.headerSetCacheSize = headerSetCacheSize;
+    }
+
+    public List<String> getVolatileHeaders() {
+        return volatileHeaders;
+    }
+
+    public void setVolatileHeaders(List<String> volatileHeaders) {
+        this.volatileHeaders = volatileHeaders;
+    }
+
+    public boolean isBodyDedupEnabled() {
+        return bodyDedupEnabled;
+    }
+
+    public void setBodyDedupEnabled(boolean bodyDedupEnabled) {
+        this.bodyDedupEnabled = bodyDedupEnabled;
+    }
+
+    public int getBodyDedupMinChars() {
+        return bodyDedupMinChars;
+    }
+
+    public void setBodyDedupMinChars(int bodyDedupMinChars) {
+        this.bodyDedupMinChars = bodyDedupMinChars;
+    }
+
+    public int getBodyCacheSize() {
+        return bodyCacheSize;
+    }
+
+    public void setBodyCacheSize(int bodyCacheSize) {
+        this.bodyCacheSize = bodyCacheSize;
+    }
+
+    public int getLogRetentionDays() {
+        return logRetentionDays;
+    }
+
+    public void setLogRetentionDays(int logRetentionDays) {
+        this.logRetentionDays = logRetentionDays;
+    }
+
+    public boolean isLogStagingOffHeap() {
+        return logStagingOffHeap;
+    }
+
+    public void setLogStagingOffHeap(boolean logStagingOffHeap) {
+        this.logStagingOffHeap = logStagingOffHeap;
+    }
+
+    public long getLogStagingBytes() {
+        return logStagingBytes;
+    }
+
+    public void setLogStagingBytes(long logStagingBytes) {
+        this.logStagingBytes = logStagingBytes;
+    }
+
+    public int getLogStagingSegmentBytes() {
+        return logStagingSegmentBytes;
+    }
+
+    public void setLogStagingSegmentBytes(int logStagingSegmentBytes) {
+        this.logStagingSegmentBytes = logStagingSegmentBytes;
+    }
 }
@@ -5,6 +5,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.sql.Connection;
+
 /**
  * Ensures the API health tables exist at startup (JDBC-based, Boot 2.7 compatible).
  * Respects the auto-create flag; safe for MySQL and Postgres.
@@ -49,7 +51,13 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
                     "duration_ms INTEGER NOT NULL," +
                     "trace_id VARCHAR(64) NOT NULL," +
                     "success BOOLEAN NOT NULL," +
-                    "error_message TEXT" +
+                    "error_message TEXT," +
+                    "url_template VARCHAR(512) NULL," +
+                    "direction VARCHAR(8) NULL," +
+                    "inbound_request_id VARCHAR(64) NULL," +
+                    "request_header_set_id BIGINT NULL," +
+                    "response_header_set_id BIGINT NULL," +
+                    "response_body_id BIGINT NULL" +
                     ")");
         } else {
             jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_call_logs (" +
@@ -65,7 +73,17 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
                     "duration_ms INTEGER NOT NULL," +
                     "trace_id VARCHAR(64) NOT NULL," +
                     "success BOOLEAN NOT NULL," +
-                    "error_message TEXT" +
+                    "error_message TEXT," +
+                    "url_template VARCHAR(512) NULL," +
+                    "direction VARCHAR(8) NULL," +
+                    "inbound_request_id VARCHAR(64) NULL," +
+                    "request_header_set_id BIGINT NULL," +
+                    "response_header_set_id BIGINT NULL," +
+                    "response_body_id BIGINT NULL," +
+                    "INDEX idx_api_call_logs_template_time (url_template, `timestamp` DESC)," +
+                    "INDEX idx_api_call_logs_inbound (inbound_request_id)," +
+                    "INDEX idx_api_call_logs_trace (trace_id)," +
+                    "INDEX idx_api_call_logs_time (`timestamp` DESC)" +
                     ")");
         }
 
@@ -82,6 +100,13 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
                     "last_check_status INT NULL," +
                     "last_check_success BOOLEAN NULL," +
                     "last_check_body TEXT NULL," +
+                    "probe_path TEXT NULL," +
+                    "probe_method VARCHAR(10) NULL," +
+                    "probe_expected_status VARCHAR(200) NULL," +
+                    "probe_body_pattern TEXT NULL," +
+                    "degraded_threshold_ms INT NULL," +
+                    "last_check_latency_ms INT NULL," +
+                    "last_check_degraded BOOLEAN NULL," +
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                     "UNIQUE(path, http_method)" +
                     ")");
@@ -98,11 +123,87 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
                     "last_check_status INT NULL," +
                     "last_check_success BOOLEAN NULL," +
                     "last_check_body TEXT NULL," +
+                    "probe_path TEXT NULL," +
+                    "probe_method VARCHAR(10) NULL," +
+                    "probe_expected_status VARCHAR(200) NULL," +
+                    "probe_body_pattern TEXT NULL," +
+                    "degraded_threshold_ms INT NULL," +
+                    "last_check_latency_ms INT NULL," +
+                    "last_check_degraded BOOLEAN NULL," +
                     "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
                     "UNIQUE(path(255), http_method)" +
                     ")");
         }
 
+        // Ping history: compact time series, body kept only for failed checks
+        if (postgres) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_ping_results (" +
+                    "id BIGSERIAL PRIMARY KEY," +
+                    "endpoint_id BIGINT NOT NULL," +
+                    "checked_at TIMESTAMP NOT NULL," +
+                    "http_status SMALLINT NOT NULL," +
+                    "success BOOLEAN NOT NULL," +
+                    "latency_ms INTEGER NULL," +
+                    "probe_method VARCHAR(8) NULL," +
+                    "failure_body VARCHAR(1000) NULL" +
+                    ")");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_api_ping_results_endpoint_time ON " + schema + ".api_ping_results (endpoint_id, checked_at)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_api_ping_results_time ON " + schema + ".api_ping_results (checked_at)");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_ping_results (" +
+                    "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                    "endpoint_id BIGINT NOT NULL," +
+                    "checked_at DATETIME NOT NULL," +
+                    "http_status SMALLINT NOT NULL," +
+                    "success BOOLEAN NOT NULL," +
+                    "latency_ms INTEGER NULL," +
+                    "probe_method VARCHAR(8) NULL," +
+                    "failure_body VARCHAR(1000) NULL," +
+                    "INDEX idx_api_ping_results_endpoint_time (endpoint_id, checked_at)," +
+                    "INDEX idx_api_ping_results_time (checked_at)" +
+                    ")");
+        }
+
+        // Header sets shared by log rows (stable headers stored once, keyed by their hash)
+        if (postgres) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_header_sets (" +
+                    "id BIGSERIAL PRIMARY KEY," +
+                    "set_hash CHAR(64) NOT NULL UNIQUE," +
+                    "headers TEXT NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_header_sets (" +
+                    "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                    "set_hash CHAR(64) NOT NULL," +
+                    "headers TEXT NOT NULL," +
+                    "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "UNIQUE(set_hash)" +
+                    ")");
+        }
+
+        // Response bodies stored once per distinct content; ref_count tracks the log rows pointing at each
+        if (postgres) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_bodies (" +
+                    "id BIGSERIAL PRIMARY KEY," +
+                    "body_hash CHAR(64) NOT NULL UNIQUE," +
+                    "body TEXT NOT NULL," +
+                    "ref_count BIGINT NOT NULL DEFAULT 0," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "last_used TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_bodies (" +
+                    "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                    "body_hash CHAR(64) NOT NULL," +
+                    "body TEXT NOT NULL," +
+                    "ref_count BIGINT NOT NULL DEFAULT 0," +
+                    "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "last_used DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "UNIQUE(body_hash)" +
+                    ")");
+        }
+
         // Best-effort schema evolution for existing installs that predate new columns
         addColumnIfMissing(schema, "api_endpoint_registry", "ping_interval_sec INT DEFAULT 0");
         addColumnIfMissing(schema, "api_endpoint_registry", "active_monitor BOOLEAN DEFAULT FALSE");
@@ -110,6 +211,36 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
         addColumnIfMissing(schema, "api_endpoint_registry", "last_check_status INT NULL");
         addColumnIfMissing(schema, "api_endpoint_registry", "last_check_success BOOLEAN NULL");
         addColumnIfMissing(schema, "api_endpoint_registry", "last_check_body TEXT NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "probe_path TEXT NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "probe_method VARCHAR(10) NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "probe_expected_status VARCHAR(200) NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "probe_body_pattern TEXT NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "degraded_threshold_ms INT NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "last_check_latency_ms INT NULL");
+        addColumnIfMissing(schema, "api_endpoint_registry", "last_check_degraded BOOLEAN NULL");
+        addColumnIfMissing(schema, "api_call_logs", "url_template VARCHAR(512) NULL");
+        createIndexIfMissing(schema, "api_call_logs", "idx_api_call_logs_template_time",
+                postgres ? "url_template, \"timestamp\" DESC" : "url_template, `timestamp` DESC");
+        addColumnIfMissing(schema, "api_call_logs", "direction VARCHAR(8) NULL");
+        addColumnIfMissing(schema, "api_call_logs", "inbound_request_id VARCHAR(64) NULL");
+        addColumnIfMissing(schema, "api_call_logs", "request_header_set_id BIGINT NULL");
+        addColumnIfMissing(schema, "api_call_logs", "response_header_set_id BIGINT NULL");
+        addColumnIfMissing(schema, "api_call_logs", "response_body_id BIGINT NULL");
+        createIndexIfMissing(schema, "api_call_logs", "idx_api_call_logs_inbound", "inbound_request_id");
+        createIndexIfMissing(schema, "api_call_logs", "idx_api_call_logs_trace", "trace_id");
+        createIndexIfMissing(schema, "api_call_logs", "idx_api_call_logs_time", postgres ? "\"timestamp\" DESC" : "`timestamp` DESC");
+    }
+
+    private void createIndexIfMissing(String schema, String table, String index, String columns) {
+        String sql = postgres
+                ? "CREATE INDEX IF NOT EXISTS " + index + " ON " + schema + "." + table + " (" + columns + ")"
+                : "CREATE INDEX " + index + " ON " + schema + "." + table + " (" + columns + ")";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (Exception e) {
+            // Index likely exists (MySQL has no IF NOT EXISTS); swallow to stay non-breaking
+            log.debug("Index create skipped for {}.{} -> {} : {}", schema, table, index, e.getMessage());
+        }
     }
 
     private void addColumnIfMissing(String schema, String table, String columnDef) {
@@ -138,10 +269,9 @@ public class ApiHealthSchemaInitializer implements InitializingBean {
     }
 
     private boolean detectPostgres(JdbcTemplate jdbcTemplate) {
-        try {
-            String product = jdbcTemplate.getDataSource() != null
-                    ? jdbcTemplate.getDataSource().getConnection().getMetaData().getDatabaseProductName()
-                    : "";
+        if (jdbcTemplate.getDataSource() == null) return false;
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
             return product != null && product.toLowerCase().contains("postgres");
         } catch (Exception e) {
             return false;
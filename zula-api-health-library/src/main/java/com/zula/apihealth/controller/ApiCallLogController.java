@@ -1,13 +1,22 @@
 package com.zula.apihealth.controller;
 
+import com.zula.apihealth.model.ApiInboundRequestView;
+import com.zula.apihealth.model.ApiInboundStatsView;
 import com.zula.apihealth.model.ApiLogDetailView;
 import com.zula.apihealth.model.ApiLogView;
+import com.zula.apihealth.model.ApiTemplateStatsView;
 import com.zula.apihealth.service.ApiHealthService;
+import com.zula.apihealth.service.ReadCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -27,8 +36,9 @@ public class ApiCallLogController {
 
     @GetMapping("/recent")
     /** Recent logs with configurable limit. */
-    public List<ApiLogView> getRecent(@RequestParam(name = "limit", defaultValue = "50") int limit) {
-        return service.recentLogs(limit);
+    public List<ApiLogView> getRecent(@RequestParam(name = "limit", defaultValue = "50") int limit, WebRequest request) {
+        return ApiHealthController.notModifiedOr(request,
+                service.cachedRead(ReadCache.key("recent", limit), () -> service.recentLogs(limit)));
     }
 
     @GetMapping("/failed")
@@ -43,6 +53,50 @@ public class ApiCallLogController {
         return service.logsByEndpoint("", 1000).stream().filter(l -> l.getDurationMs() != null && l.getDurationMs() > thresholdMs).toList();
     }
 
+    @GetMapping("/inbound/{requestId}")
+    /** One inbound request (when inbound capture is enabled) with the outbound calls it made. */
+    public ApiInboundRequestView inbound(@PathVariable String requestId) {
+        return service.inboundRequest(requestId);
+    }
+
+    @GetMapping("/inbound/fanout")
+    /** Per inbound route: duration, average downstream calls and downstream time share over a window. */
+    public List<ApiInboundStatsView> inboundFanout(@RequestParam(name = "window", defaultValue = "1h") String window,
+                                                   @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return service.inboundStats(window, limit);
+    }
+
+    @GetMapping(value = "/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    /**
+     * Server-Sent Events stream of newly captured calls ("call" events; "dropped" carries the number of
+     * events skipped because this client fell behind). Filters: endpointId, failures=true, slowMs.
+     */
+    public ResponseEntity<SseEmitter> tail(@RequestParam(name = "endpointId", required = false) Long endpointId,
+                                           @RequestParam(name = "failures", defaultValue = "false") boolean failuresOnly,
+                                           @RequestParam(name = "slowMs", required = false) Integer slowMs) {
+        SseEmitter emitter = service.liveTail().subscribe(endpointId, failuresOnly, slowMs);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/templates")
+    /** Call totals grouped by normalized URL template (covers unregistered URLs too). */
+    public List<ApiTemplateStatsView> getTemplates(@RequestParam(name = "window", defaultValue = "24h") String window,
+                                                   @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return service.templateStats(window, limit);
+    }
+
+    @GetMapping("/by-template")
+    /** Logs for one URL template; pass either the template or a concrete URL to normalize. */
+    public List<ApiLogView> getByTemplate(@RequestParam(name = "template", required = false) String template,
+                                          @RequestParam(name = "url", required = false) String url,
+                                          @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        String t = template != null && !template.isBlank() ? template : service.urlTemplate(url);
+        return t == null ? List.of() : service.logsByTemplate(t, limit);
+    }
+
     @GetMapping("/trace/{traceId}")
     /** Detailed logs matching a specific traceId (includes request/response headers and bodies). */
     public List<ApiLogDetailView> getByTraceId(@PathVariable String traceId) {
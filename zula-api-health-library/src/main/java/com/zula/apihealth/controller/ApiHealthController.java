@@ -3,11 +3,18 @@ package com.zula.apihealth.controller;
 import com.zula.apihealth.model.ApiEndpointView;
 import com.zula.apihealth.model.ApiEndpointStatsResponse;
 import com.zula.apihealth.model.ApiHealthResponse;
+import com.zula.apihealth.model.ApiInternalStatsView;
 import com.zula.apihealth.model.ApiLogView;
+import com.zula.apihealth.model.ApiPingResultView;
+import com.zula.apihealth.model.ApiUptimeView;
+import com.zula.apihealth.model.LatencyHistogramView;
+import com.zula.apihealth.metrics.LatencyHistogram;
 import com.zula.apihealth.service.ApiHealthService;
+import com.zula.apihealth.service.ReadCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,16 +31,42 @@ public class ApiHealthController {
         this.service = service;
     }
 
-    /** List endpoints with aggregated stats; optional filter, date/time range, sort, and status filter. */
+    /**
+     * List endpoints with aggregated stats; optional filter, date/time range, sort, and status filter.
+     * Latency percentiles come from the in-memory histograms over latencyWindow.
+     */
     @GetMapping("/endpoints")
     public List<ApiEndpointStatsResponse> endpoints(@RequestParam(name = "filter", required = false) String filter,
                                                     @RequestParam(name = "from", required = false) String from,
                                                     @RequestParam(name = "to", required = false) String to,
                                                     @RequestParam(name = "sort", required = false) String sort,
                                                     @RequestParam(name = "desc", defaultValue = "false") boolean desc,
-                                                    @RequestParam(name = "status", required = false) String statusCsv) {
-        return service.listEndpoints(filter, from, to, sort, desc, parseStatuses(statusCsv), null)
-                .stream().map(this::toStatsDto).toList();
+                                                    @RequestParam(name = "status", required = false) String statusCsv,
+                                                    @RequestParam(name = "latencyWindow", defaultValue = "15m") String latencyWindow,
+                                                    @RequestParam(name = "window", required = false) String window,
+                                                    WebRequest request) {
+        List<Integer> statuses = parseStatuses(statusCsv);
+        String key = ReadCache.key("endpoints", filter, from, to, sort, desc, statuses, latencyWindow, window);
+        return notModifiedOr(request, service.cachedRead(key, () -> {
+            // Recent windows (e.g. 1m, 5m, 1h) come from live in-memory counters; explicit ranges query the DB.
+            List<ApiEndpointView> list = window != null && isBlank(from) && isBlank(to)
+                    ? service.listEndpointsLive(filter, sort, desc, statuses, null, window)
+                    : service.listEndpoints(filter, from, to, sort, desc, statuses, null);
+            return list.stream().map(v -> toStatsDto(v, latencyWindow)).toList();
+        }));
+    }
+
+    /** The library's own overhead since startup: capture cost, log writer, ping cycles, startup scan; no DB access. */
+    @GetMapping("/internal")
+    public ApiInternalStatsView internal() {
+        return service.internalSnapshot();
+    }
+
+    /** In-memory latency histogram for one endpoint (window e.g. 1m, 5m, 15m or "all"); no DB access. */
+    @GetMapping("/endpoints/{id}/latency")
+    public LatencyHistogramView latency(@PathVariable long id,
+                                        @RequestParam(name = "window", defaultValue = "15m") String window) {
+        return service.latencyHistogram(id, window);
     }
 
     /** Get one endpoint; optionally include recent logs. */
@@ -56,8 +89,8 @@ public class ApiHealthController {
 
     /** Recent logs (global). */
     @GetMapping("/logs/recent")
-    public List<ApiLogView> recent(@RequestParam(name = "limit", required = false) Integer limit) {
-        return service.recentLogs(limit);
+    public List<ApiLogView> recent(@RequestParam(name = "limit", required = false) Integer limit, WebRequest request) {
+        return notModifiedOr(request, service.cachedRead(ReadCache.key("recent", limit), () -> service.recentLogs(limit)));
     }
 
     /** Recent logs filtered by URL prefix. */
@@ -67,7 +100,7 @@ public class ApiHealthController {
         return service.logsByEndpoint(url, limit);
     }
 
-    /** Health view for all endpoints; shows UP/DOWN/UNKNOWN and last check fields. */
+    /** Health view for all endpoints; shows UP/DEGRADED/DOWN/UNKNOWN and last check fields. */
     @GetMapping("/monitoring")
     public List<ApiHealthResponse> monitoring(@RequestParam(name = "filter", required = false) String filter,
                                               @RequestParam(name = "from", required = false) String from,
@@ -75,11 +108,40 @@ public class ApiHealthController {
                                               @RequestParam(name = "sort", required = false) String sort,
                                               @RequestParam(name = "desc", defaultValue = "false") boolean desc,
                                               @RequestParam(name = "status", required = false) String statusCsv,
-                                              @RequestParam(name = "active", required = false) Boolean onlyActive) {
+                                              @RequestParam(name = "active", required = false) Boolean onlyActive,
+                                              WebRequest request) {
         log.debug("Monitoring endpoint hit with filter={}", filter);
-        List<ApiEndpointView> list = service.listHealth(filter, from, to, sort, desc, parseStatuses(statusCsv), onlyActive);
-        log.debug("Monitoring result size={}", list.size());
-        return list.stream().map(this::toHealthDto).toList();
+        List<Integer> statuses = parseStatuses(statusCsv);
+        String key = ReadCache.key("monitoring", filter, from, to, sort, desc, statuses, onlyActive);
+        return notModifiedOr(request, service.cachedRead(key, () -> {
+            // Current state is served from memory; historical ranges still go to the DB
+            List<ApiEndpointView> list = isBlank(from) && isBlank(to)
+                    ? service.listHealthLive(filter, sort, desc, statuses, onlyActive)
+                    : service.listHealth(filter, from, to, sort, desc, statuses, onlyActive);
+            log.debug("Monitoring result size={}", list.size());
+            return list.stream().map(this::toHealthDto).toList();
+        }));
+    }
+
+    /** Uptime percentage and ping latency percentiles per endpoint over a window (e.g. 1h, 24h, 7d). */
+    @GetMapping("/monitoring/uptime")
+    public List<ApiUptimeView> uptime(@RequestParam(name = "window", defaultValue = "24h") String window) {
+        return service.uptime(window, null);
+    }
+
+    /** Uptime roll-up plus raw ping history for one endpoint. */
+    @GetMapping("/monitoring/{id}/history")
+    public ResponseEntity<?> history(@PathVariable long id,
+                                     @RequestParam(name = "window", defaultValue = "24h") String window,
+                                     @RequestParam(name = "limit", required = false) Integer limit) {
+        List<ApiUptimeView> summary = service.uptime(window, id);
+        if (summary.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        PingHistory payload = new PingHistory();
+        payload.uptime = summary.get(0);
+        payload.checks = service.pingHistory(id, window, limit);
+        return ResponseEntity.ok(payload);
     }
 
     private List<Integer> parseStatuses(String csv) {
@@ -94,7 +156,19 @@ public class ApiHealthController {
         return out.isEmpty() ? null : out;
     }
 
-    private ApiEndpointStatsResponse toStatsDto(ApiEndpointView v) {
+    /** Null (Spring answers 304) when the client's If-None-Match equals the cached ETag, else the value. */
+    static <T> T notModifiedOr(WebRequest request, ReadCache.Cached<T> cached) {
+        if (cached.getEtag() != null && request.checkNotModified(cached.getEtag())) {
+            return null;
+        }
+        return cached.getValue();
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private ApiEndpointStatsResponse toStatsDto(ApiEndpointView v, String latencyWindow) {
         ApiEndpointStatsResponse dto = new ApiEndpointStatsResponse();
         dto.id = v.getId();
         dto.name = v.getName();
@@ -106,6 +180,14 @@ public class ApiHealthController {
         dto.failureCalls = v.getFailureCalls();
         dto.avgDurationMs = v.getAvgDurationMs();
         dto.lastCalled = v.getLastCalled();
+        LatencyHistogram.Snapshot latency = service.latencySnapshot(v.getId(), latencyWindow);
+        if (latency != null && latency.getCount() > 0) {
+            dto.p50Ms = latency.percentile(0.50);
+            dto.p90Ms = latency.percentile(0.90);
+            dto.p99Ms = latency.percentile(0.99);
+            dto.p999Ms = latency.percentile(0.999);
+            dto.maxMs = latency.getMax();
+        }
         return dto;
     }
 
@@ -122,11 +204,18 @@ public class ApiHealthController {
         dto.lastCheckStatus = v.getLastCheckStatus();
         dto.lastCheckSuccess = v.getLastCheckSuccess();
         dto.lastCheckBody = v.getLastCheckBody();
+        dto.lastCheckLatencyMs = v.getLastCheckLatencyMs();
+        dto.degradedThresholdMs = v.getDegradedThresholdMs();
         dto.pingIntervalSec = v.getPingIntervalSec();
         dto.activeMonitor = v.getActiveMonitor();
         return dto;
     }
 
+    static class PingHistory {
+        public ApiUptimeView uptime;
+        public List<ApiPingResultView> checks;
+    }
+
     static class EndpointWithLogs {
         public ApiEndpointView endpoint;
         public List<ApiLogView> logs;
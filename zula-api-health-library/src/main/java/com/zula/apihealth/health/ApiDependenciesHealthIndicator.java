@@ -0,0 +1,111 @@
+package com.zula.apihealth.health;
+
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.service.ApiHealthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Actuator health of the tracked outbound dependencies, computed from the in-memory state kept by the
+ * ping scheduler and the call interceptor (no DB access). Only endpoints listed as critical (by name or
+ * path) affect the status: any critical DOWN -> DOWN, otherwise any critical never checked (or stale) ->
+ * UNKNOWN, otherwise UP. Degraded critical endpoints stay UP and are listed under {@code degraded}. A critical
+ * entry matching no registered endpoint (a typo, or before the scan ran) is listed as UNKNOWN and logged once.
+ */
+public class ApiDependenciesHealthIndicator extends AbstractHealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(ApiDependenciesHealthIndicator.class);
+
+    private final ApiHealthService service;
+    private final List<String> critical;
+    private final long maxCheckAgeSeconds;
+    private final Set<String> warnedUnmatched = ConcurrentHashMap.newKeySet();
+
+    public ApiDependenciesHealthIndicator(ApiHealthService service, List<String> critical, long maxCheckAgeSeconds) {
+        super("API dependency health check failed");
+        this.service = service;
+        this.critical = critical != null ? List.copyOf(critical) : List.of();
+        this.maxCheckAgeSeconds = maxCheckAgeSeconds;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        OffsetDateTime staleBefore = maxCheckAgeSeconds > 0 ? OffsetDateTime.now().minusSeconds(maxCheckAgeSeconds) : null;
+        Map<String, Object> dependencies = new LinkedHashMap<>();
+        int down = 0;
+        int unknown = 0;
+        int degraded = 0;
+        Set<String> matched = new HashSet<>();
+        List<ApiEndpointView> endpoints = service.healthSnapshot();
+        for (ApiEndpointView e : endpoints) {
+            if (!isCritical(e, matched)) continue;
+            String status = e.getHealthStatus();
+            if (staleBefore != null && (e.getLastCheckTime() == null || e.getLastCheckTime().isBefore(staleBefore))) {
+                status = "UNKNOWN";
+            }
+            switch (status) {
+                case "DOWN": down++; break;
+                case "DEGRADED": degraded++; break;
+                case "UNKNOWN": unknown++; break;
+                default: break;
+            }
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("status", status);
+            detail.put("path", e.getPath());
+            if (e.getLastCheckStatus() != null) detail.put("httpStatus", e.getLastCheckStatus());
+            if (e.getLastCheckTime() != null) detail.put("lastCheck", e.getLastCheckTime().toString());
+            if (e.getLastCheckLatencyMs() != null) detail.put("latencyMs", e.getLastCheckLatencyMs());
+            dependencies.put(label(e), detail);
+        }
+        for (String c : critical) {
+            if (matched.contains(c)) continue;
+            unknown++;
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("status", "UNKNOWN");
+            detail.put("error", "no registered endpoint with this name or path");
+            dependencies.put(c, detail);
+            if (warnedUnmatched.add(c)) {
+                log.warn("ApiHealth critical endpoint '{}' matches no registered endpoint (name or path)", c);
+            }
+        }
+        if (down > 0) {
+            builder.down();
+        } else if (unknown > 0) {
+            builder.status(Status.UNKNOWN);
+        } else {
+            builder.up();
+        }
+        builder.withDetail("tracked", endpoints.size())
+                .withDetail("critical", dependencies.size())
+                .withDetail("down", down)
+                .withDetail("degraded", degraded)
+                .withDetail("dependencies", dependencies);
+    }
+
+    /** Whether any critical entry names {@code e}; every entry that does is added to {@code matched}. */
+    private boolean isCritical(ApiEndpointView e, Set<String> matched) {
+        boolean any = false;
+        for (String c : critical) {
+            if (c.equals(e.getPath()) || (e.getName() != null && c.equalsIgnoreCase(e.getName()))) {
+                matched.add(c);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private static String label(ApiEndpointView e) {
+        String name = e.getName() != null && !e.getName().isBlank() ? e.getName() : e.getPath();
+        return name + " " + e.getMethod();
+    }
+}
@@ -0,0 +1,30 @@
+package com.zula.apihealth.health;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Contributes a default actuator health group ({@code zula.apihealth.health-group}, default "dependencies")
+ * containing the {@code apiDependencies} indicator, exposed at /actuator/health/{group}.
+ * Added as the lowest-priority property source, so any explicit group configuration wins; a blank group disables it.
+ */
+public class ApiHealthGroupDefaults implements EnvironmentPostProcessor {
+    static final String SOURCE_NAME = "zulaApiHealthGroupDefaults";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String group = environment.getProperty("zula.apihealth.health-group", "dependencies");
+        if (group.isBlank() || environment.getPropertySources().contains(SOURCE_NAME)) {
+            return;
+        }
+        String key = "management.endpoint.health.group." + group + ".include";
+        if (environment.containsProperty(key)) {
+            return;
+        }
+        environment.getPropertySources().addLast(new MapPropertySource(SOURCE_NAME, Map.of(key, "apiDependencies")));
+    }
+}
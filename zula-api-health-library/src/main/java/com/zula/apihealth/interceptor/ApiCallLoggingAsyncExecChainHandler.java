@@ -0,0 +1,159 @@
+package com.zula.apihealth.interceptor;
+
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Apache HttpClient 5 (async) exec-chain handler feeding calls into the call-log pipeline
+ * ({@code HttpAsyncClients.custom().addExecInterceptorFirst("apiHealth", handler)}). Bytes are copied from the
+ * producer and consumer as they stream through the I/O reactor (bounded prefix only) and the call is completed
+ * from the exec callback once the response body has been consumed or the exchange failed.
+ */
+public class ApiCallLoggingAsyncExecChainHandler implements AsyncExecChainHandler {
+    private final ApiCallRecorder recorder;
+
+    public ApiCallLoggingAsyncExecChainHandler(ApiCallRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void execute(HttpRequest request, AsyncEntityProducer entityProducer, AsyncExecChain.Scope scope,
+                        AsyncExecChain chain, AsyncExecCallback callback) throws HttpException, IOException {
+        if (request.containsHeader(ProbeMarker.HEADER)) {
+            request.removeHeaders(ProbeMarker.HEADER);
+            chain.proceed(request, entityProducer, scope, callback);
+            return;
+        }
+        String traceId = ApiCallLoggingExecChainHandler.traced(request, recorder);
+        ApiCallRecorder.Call call = recorder.start(ApiCallLoggingExecChainHandler.uri(request), request.getMethod(),
+                Arrays.toString(request.getHeaders()), traceId);
+        if (entityProducer != null) call.requestContentType(entityProducer.getContentType());
+        AsyncEntityProducer producer = entityProducer != null ? new CapturingProducer(entityProducer, call) : null;
+        try {
+            chain.proceed(request, producer, scope, new AsyncExecCallback() {
+                @Override
+                public AsyncDataConsumer handleResponse(HttpResponse response, EntityDetails entityDetails)
+                        throws HttpException, IOException {
+                    call.response(response.getCode(), Arrays.toString(response.getHeaders()),
+                            entityDetails != null ? entityDetails.getContentType() : null);
+                    AsyncDataConsumer consumer = callback.handleResponse(response, entityDetails);
+                    return consumer != null ? new CapturingConsumer(consumer, call) : null;
+                }
+
+                @Override
+                public void handleInformationResponse(HttpResponse response) throws HttpException, IOException {
+                    callback.handleInformationResponse(response);
+                }
+
+                @Override
+                public void completed() {
+                    call.complete(null);
+                    callback.completed();
+                }
+
+                @Override
+                public void failed(Exception cause) {
+                    call.complete(cause);
+                    callback.failed(cause);
+                }
+            });
+        } catch (HttpException | IOException | RuntimeException ex) {
+            call.complete(ex);
+            throw ex;
+        }
+    }
+
+    /** Copies the bytes the delegate actually writes to the channel. */
+    private static final class CapturingProducer implements AsyncEntityProducer {
+        private final AsyncEntityProducer delegate;
+        private final ApiCallRecorder.Call call;
+
+        CapturingProducer(AsyncEntityProducer delegate, ApiCallRecorder.Call call) {
+            this.delegate = delegate;
+            this.call = call;
+        }
+
+        @Override
+        public void produce(DataStreamChannel channel) throws IOException {
+            delegate.produce(new DataStreamChannel() {
+                @Override
+                public void requestOutput() { channel.requestOutput(); }
+
+                @Override
+                public int write(ByteBuffer src) throws IOException {
+                    ByteBuffer view = src.duplicate();
+                    int n = channel.write(src);
+                    if (n > 0) {
+                        view.limit(view.position() + n);
+                        call.requestBody.append(view);
+                    }
+                    return n;
+                }
+
+                @Override
+                public void endStream() throws IOException { channel.endStream(); }
+
+                @Override
+                public void endStream(List<? extends Header> trailers) throws IOException { channel.endStream(trailers); }
+            });
+        }
+
+        @Override public boolean isRepeatable() { return delegate.isRepeatable(); }
+        @Override public void failed(Exception cause) { delegate.failed(cause); }
+        @Override public long getContentLength() { return delegate.getContentLength(); }
+        @Override public String getContentType() { return delegate.getContentType(); }
+        @Override public String getContentEncoding() { return delegate.getContentEncoding(); }
+        @Override public boolean isChunked() { return delegate.isChunked(); }
+        @Override public Set<String> getTrailerNames() { return delegate.getTrailerNames(); }
+        @Override public int available() { return delegate.available(); }
+        @Override public void releaseResources() { delegate.releaseResources(); }
+    }
+
+    /** Copies each consumed buffer before handing it to the delegate. */
+    private static final class CapturingConsumer implements AsyncDataConsumer {
+        private final AsyncDataConsumer delegate;
+        private final ApiCallRecorder.Call call;
+
+        CapturingConsumer(AsyncDataConsumer delegate, ApiCallRecorder.Call call) {
+            this.delegate = delegate;
+            this.call = call;
+        }
+
+        @Override
+        public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+            delegate.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public void consume(ByteBuffer src) throws IOException {
+            call.responseBody.append(src);
+            delegate.consume(src);
+        }
+
+        @Override
+        public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+            delegate.streamEnd(trailers);
+        }
+
+        @Override
+        public void releaseResources() {
+            delegate.releaseResources();
+        }
+    }
+}
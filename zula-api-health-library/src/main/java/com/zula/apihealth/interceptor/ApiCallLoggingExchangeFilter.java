@@ -0,0 +1,68 @@
+package com.zula.apihealth.interceptor;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient counterpart of {@link ApiCallLoggingInterceptor}. Bodies are observed as they stream
+ * (only a bounded prefix is copied, nothing is aggregated) and the entry is completed when the response
+ * body finishes, errors or is cancelled. Everything on the event loop is in-memory: the endpoint is matched
+ * against the loaded registry snapshot and persistence is left to the background log writer.
+ */
+public class ApiCallLoggingExchangeFilter implements ExchangeFilterFunction {
+    private final ApiCallRecorder recorder;
+
+    public ApiCallLoggingExchangeFilter(ApiCallRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.attribute(ProbeMarker.ATTRIBUTE).isPresent() || request.headers().containsKey(ProbeMarker.HEADER)) {
+            return next.exchange(ClientRequest.from(request).headers(ProbeMarker::strip).build());
+        }
+        String existing = request.headers().getFirst(TraceContext.TRACEPARENT);
+        String traceId = TraceContext.resolve(existing);
+        String traceparent = recorder.propagateTrace() && existing == null ? TraceContext.traceparent(traceId) : null;
+        ClientRequest traced = traceparent == null ? request
+                : ClientRequest.from(request).header(TraceContext.TRACEPARENT, traceparent).build();
+        ApiCallRecorder.Call call = recorder.start(traced.url().toString(), traced.method().name(), traced.headers().toString(), traceId);
+        request.attribute(InboundRequestFilter.REQUEST_ID_ATTRIBUTE).map(Object::toString).ifPresent(call::inboundRequestId);
+        ClientRequest captured = ClientRequest.from(traced)
+                .body((outputMessage, context) -> traced.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        // The body inserter has set Content-Type on the outgoing message by now
+                        call.requestContentType(getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+                        return super.writeWith(Flux.from(body).doOnNext(call.requestBody::append));
+                    }
+
+                    @Override
+                    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                        call.requestContentType(getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+                        return super.writeAndFlushWith(Flux.from(body)
+                                .map(part -> Flux.from(part).doOnNext(call.requestBody::append)));
+                    }
+                }, context))
+                .build();
+        return next.exchange(captured)
+                .map(response -> {
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    call.response(response.rawStatusCode(), headers.toString(), headers.getFirst(HttpHeaders.CONTENT_TYPE));
+                    return response.mutate()
+                            .body(body -> body.doOnNext(call.responseBody::append)
+                                    .doFinally(signal -> call.complete(null)))
+                            .build();
+                })
+                .doOnError(call::complete)
+                .doOnCancel(() -> call.complete(null));
+    }
+}
@@ -0,0 +1,183 @@
+package com.zula.apihealth.interceptor;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Apache HttpClient 5 (classic) exec-chain handler feeding calls into the call-log pipeline. Register it first
+ * in the chain ({@code HttpClients.custom().addExecInterceptorFirst("apiHealth", handler)}) so it sees the final
+ * response after retries and redirects. Entities are wrapped rather than buffered: bytes are teed into a bounded
+ * capture as the caller writes or reads them, and the call completes when the response stream hits EOF, fails or
+ * the response is closed.
+ */
+public class ApiCallLoggingExecChainHandler implements ExecChainHandler {
+    private final ApiCallRecorder recorder;
+
+    public ApiCallLoggingExecChainHandler(ApiCallRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        if (request.containsHeader(ProbeMarker.HEADER)) {
+            request.removeHeaders(ProbeMarker.HEADER);
+            return chain.proceed(request, scope);
+        }
+        String traceId = traced(request, recorder);
+        ApiCallRecorder.Call call = recorder.start(uri(request), request.getMethod(), Arrays.toString(request.getHeaders()), traceId);
+        HttpEntity requestEntity = request.getEntity();
+        if (requestEntity != null) {
+            call.requestContentType(requestEntity.getContentType());
+            request.setEntity(new HttpEntityWrapper(requestEntity) {
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    super.writeTo(new TeeOutputStream(out, call.requestBody));
+                }
+            });
+        }
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException ex) {
+            call.complete(ex);
+            throw ex;
+        } finally {
+            request.setEntity(requestEntity);
+        }
+        Header contentType = response.getFirstHeader("Content-Type");
+        call.response(response.getCode(), Arrays.toString(response.getHeaders()), contentType != null ? contentType.getValue() : null);
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            call.complete(null);
+            return response;
+        }
+        response.setEntity(new HttpEntityWrapper(entity) {
+            @Override
+            public InputStream getContent() throws IOException {
+                return new CompletingInputStream(super.getContent(), call);
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                try {
+                    super.writeTo(new TeeOutputStream(out, call.responseBody));
+                    call.complete(null);
+                } catch (IOException | RuntimeException ex) {
+                    call.complete(ex);
+                    throw ex;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                call.complete(null);
+                super.close();
+            }
+        });
+        return response;
+    }
+
+    /** Trace id of the request; adds a traceparent when propagation is on and none is set. */
+    static String traced(HttpRequest request, ApiCallRecorder recorder) {
+        Header existing = request.getFirstHeader(TraceContext.TRACEPARENT);
+        String traceId = TraceContext.resolve(existing != null ? existing.getValue() : null);
+        if (existing == null && recorder.propagateTrace()) {
+            String traceparent = TraceContext.traceparent(traceId);
+            if (traceparent != null) request.setHeader(TraceContext.TRACEPARENT, traceparent);
+        }
+        return traceId;
+    }
+
+    static String uri(HttpRequest request) {
+        try {
+            return request.getUri().toString();
+        } catch (Exception ex) {
+            return request.getRequestUri();
+        }
+    }
+
+    /** Passes writes through and copies them into the capture. */
+    static final class TeeOutputStream extends FilterOutputStream {
+        private final BoundedCapture capture;
+
+        TeeOutputStream(OutputStream out, BoundedCapture capture) {
+            super(out);
+            this.capture = capture;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture.append(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture.append(b, off, len);
+        }
+    }
+
+    /** Copies what the caller reads and completes the call on EOF, error or close. */
+    private static final class CompletingInputStream extends FilterInputStream {
+        private final ApiCallRecorder.Call call;
+
+        CompletingInputStream(InputStream in, ApiCallRecorder.Call call) {
+            super(in);
+            this.call = call;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = in.read();
+                if (b == -1) {
+                    call.complete(null);
+                } else {
+                    call.responseBody.append(b);
+                }
+                return b;
+            } catch (IOException ex) {
+                call.complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int n = in.read(b, off, len);
+                if (n == -1) {
+                    call.complete(null);
+                } else {
+                    call.responseBody.append(b, off, n);
+                }
+                return n;
+            } catch (IOException ex) {
+                call.complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            call.complete(null);
+            super.close();
+        }
+    }
+}
@@ -1,18 +1,20 @@
 package com.zula.apihealth.interceptor;
 
+import com.zula.apihealth.annotation.CaptureLevel;
+import com.zula.apihealth.metrics.EndpointMeters;
+import com.zula.apihealth.metrics.InternalStats;
 import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.model.ApiEndpointView;
 import com.zula.apihealth.service.ApiHealthService;
-import com.zula.apihealth.interceptor.BufferingClientHttpResponseWrapper;
-import com.zula.apihealth.interceptor.PingContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.UUID;
@@ -20,75 +22,115 @@ import java.util.UUID;
 /**
  * Intercepts outbound RestTemplate calls, captures request/response, and hands off to persistence.
  * Keeps network latency on the main thread minimal; DB write is delegated to the async service.
+ * Only text responses are buffered; what is stored follows the service's {@link CapturePolicy}.
  */
 public class ApiCallLoggingInterceptor implements ClientHttpRequestInterceptor {
     private static final Logger log = LoggerFactory.getLogger(ApiCallLoggingInterceptor.class);
     private static final ZoneId ZONE_NAIROBI = ZoneId.of("Africa/Nairobi");
     private final ApiHealthService apiHealthService;
-    private final int maxBodyLength = 8000;
+    private final EndpointMeters meters;
+    private final boolean propagateTrace;
 
     public ApiCallLoggingInterceptor(ApiHealthService apiHealthService) {
+        this(apiHealthService, null);
+    }
+
+    /** @param meters optional Micrometer meters (null when no MeterRegistry is available) */
+    public ApiCallLoggingInterceptor(ApiHealthService apiHealthService, EndpointMeters meters) {
+        this(apiHealthService, meters, true);
+    }
+
+    /** @param propagateTrace add a W3C traceparent to outbound requests that do not carry one */
+    public ApiCallLoggingInterceptor(ApiHealthService apiHealthService, EndpointMeters meters, boolean propagateTrace) {
         this.apiHealthService = apiHealthService;
+        this.meters = meters;
+        this.propagateTrace = propagateTrace;
     }
 
     /** Capture and log a single outbound HTTP exchange. */
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        // Internal probe: strip the marker and pass straight through so the prober can read a bounded prefix
+        if (ProbeMarker.strip(request.getHeaders())) {
+            return execution.execute(request, body);
+        }
+        long captureStart = System.nanoTime();
         OffsetDateTime start = OffsetDateTime.now(ZONE_NAIROBI);
         String url = request.getURI().toString();
         String method = request.getMethod() != null ? request.getMethod().name() : "UNKNOWN";
-        String reqHeaders = request.getHeaders().toString();
-        String reqBody = truncate(new String(body, StandardCharsets.UTF_8));
+        String traceId = TraceContext.resolve(request.getHeaders().getFirst(TraceContext.TRACEPARENT));
+        if (propagateTrace && !request.getHeaders().containsKey(TraceContext.TRACEPARENT)) {
+            String traceparent = TraceContext.traceparent(traceId);
+            if (traceparent != null) request.getHeaders().set(TraceContext.TRACEPARENT, traceparent);
+        }
+        String inboundRequestId = InboundRequestFilter.currentRequestId();
+        CapturePolicy policy = apiHealthService.capturePolicy();
 
         boolean success = false;
         int status = 0;
-        String respHeaders = null;
-        String respBody = null;
+        HttpHeaders respHeaders = null;
+        byte[] respBody = null;
+        long responseBytes = 0;
         String errorMessage = null;
         int durationMs = 0;
+        // Exchange time (send, wait, read the body into the buffer) is the caller's own cost, not capture overhead
+        long exchangeStart = System.nanoTime();
+        long exchangeNanos = 0;
 
         try {
             ClientHttpResponse response = execution.execute(request, body);
-            BufferingClientHttpResponseWrapper buffered = new BufferingClientHttpResponseWrapper(response);
+            status = response.getRawStatusCode();
+            respHeaders = response.getHeaders();
+            ClientHttpResponse result = response;
+            // Only text bodies are buffered; others stream straight to the caller and are sized from Content-Length
+            if (CapturePolicy.isText(respHeaders.getFirst(HttpHeaders.CONTENT_TYPE))) {
+                BufferingClientHttpResponseWrapper buffered = new BufferingClientHttpResponseWrapper(response);
+                respBody = buffered.getBodyBytes();
+                responseBytes = respBody.length;
+                result = buffered;
+            } else {
+                responseBytes = respHeaders.getContentLength();
+            }
+            exchangeNanos = System.nanoTime() - exchangeStart;
             durationMs = (int) (OffsetDateTime.now(ZONE_NAIROBI).toInstant().toEpochMilli() - start.toInstant().toEpochMilli());
-            status = buffered.getRawStatusCode();
-            respHeaders = buffered.getHeaders().toString();
-            respBody = truncate(buffered.getBodyAsString());
             success = status >= 200 && status < 400;
-            return buffered;
+            return result;
         } catch (Exception ex) {
+            if (exchangeNanos == 0) exchangeNanos = System.nanoTime() - exchangeStart;
             durationMs = (int) (OffsetDateTime.now(ZONE_NAIROBI).toInstant().toEpochMilli() - start.toInstant().toEpochMilli());
             errorMessage = ex.getMessage();
             throw ex;
         } finally {
-            // Skip logging for internal ping requests
-            if (PingContext.isPing()) {
-                PingContext.clear();
-            } else {
+            // Snapshot only; the ping scheduler reloads the registry
+            ApiEndpointView endpoint = apiHealthService.matchEndpointCached(url, method);
+            CaptureLevel level = policy.level(endpoint, success, durationMs);
             ApiCallLogEntry entry = new ApiCallLogEntry();
             entry.setId(UUID.randomUUID());
             entry.setTimestamp(start);
             entry.setUrl(url);
             entry.setHttpMethod(method);
-            entry.setRequestHeaders(reqHeaders);
-            entry.setRequestBody(reqBody);
-            entry.setResponseHeaders(respHeaders);
-            entry.setResponseBody(respBody);
+            entry.setRequestHeaders(level.headers() ? request.getHeaders().toString() : null);
+            entry.setRequestBody(policy.body(body, body.length, body.length, request.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE), level));
+            entry.setResponseHeaders(level.headers() && respHeaders != null ? respHeaders.toString() : null);
+            entry.setResponseBody(respHeaders == null ? null : policy.body(respBody, respBody != null ? respBody.length : 0,
+                    responseBytes, respHeaders.getFirst(HttpHeaders.CONTENT_TYPE), level));
             entry.setHttpStatus(status);
             entry.setDurationMs(durationMs);
-            entry.setTraceId(UUID.randomUUID().toString());
+            entry.setTraceId(traceId);
             entry.setSuccess(success);
             entry.setErrorMessage(errorMessage);
-            apiHealthService.logCall(entry);
+            entry.setInboundRequestId(inboundRequestId);
+            if (meters != null) {
+                try {
+                    meters.record(endpoint, method, status, success, durationMs, body.length, responseBytes);
+                } catch (Exception ex) {
+                    log.debug("Meter recording failed for {} : {}", url, ex.getMessage());
+                }
             }
+            apiHealthService.logCall(entry, endpoint);
+            InternalStats stats = apiHealthService.internalStats();
+            stats.recordCopied(respBody != null ? respBody.length : 0);
+            stats.recordCapture(System.nanoTime() - captureStart - exchangeNanos);
         }
     }
-
-    private String truncate(String body) {
-        if (body == null) return null;
-        if (body.length() > maxBodyLength) {
-            return body.substring(0, maxBodyLength) + "[TRUNCATED]";
-        }
-        return body;
-    }
 }
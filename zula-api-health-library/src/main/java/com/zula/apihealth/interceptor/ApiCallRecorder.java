@@ -0,0 +1,145 @@
+package com.zula.apihealth.interceptor;
+
+import com.zula.apihealth.annotation.CaptureLevel;
+import com.zula.apihealth.metrics.EndpointMeters;
+import com.zula.apihealth.metrics.InternalStats;
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.service.ApiHealthService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Shared capture path for the streaming client integrations (WebClient, JDK HttpClient, Apache HttpClient 5).
+ * {@link #start} opens a {@link Call}; the integration feeds body bytes as they stream and completes it
+ * exactly once. What is stored follows the service's {@link CapturePolicy}; non-text bodies are counted but
+ * not copied once their content type is known. Completion only does in-memory work (snapshot match, meters) and hands the entry to the
+ * background log writer, so it is safe on event-loop and I/O threads.
+ */
+public class ApiCallRecorder {
+    private static final Logger log = LoggerFactory.getLogger(ApiCallRecorder.class);
+    private static final ZoneId ZONE_NAIROBI = ZoneId.of("Africa/Nairobi");
+    private final ApiHealthService apiHealthService;
+    private final EndpointMeters meters;
+    private final boolean propagateTrace;
+
+    public ApiCallRecorder(ApiHealthService apiHealthService, EndpointMeters meters) {
+        this(apiHealthService, meters, true);
+    }
+
+    /** @param propagateTrace add a W3C traceparent to outbound requests that do not carry one */
+    public ApiCallRecorder(ApiHealthService apiHealthService, EndpointMeters meters, boolean propagateTrace) {
+        this.apiHealthService = apiHealthService;
+        this.meters = meters;
+        this.propagateTrace = propagateTrace;
+    }
+
+    public boolean propagateTrace() {
+        return propagateTrace;
+    }
+
+    /** Begin timing one outbound exchange in the current trace. */
+    public Call start(String url, String method, String requestHeaders) {
+        return start(url, method, requestHeaders, TraceContext.resolve(null));
+    }
+
+    /** Begin timing one outbound exchange belonging to {@code traceId}. */
+    public Call start(String url, String method, String requestHeaders, String traceId) {
+        return new Call(url, method, requestHeaders, traceId);
+    }
+
+    /** One in-flight exchange. */
+    public final class Call {
+        private final OffsetDateTime start = OffsetDateTime.now(ZONE_NAIROBI);
+        private final long startNanos = System.nanoTime();
+        private final String url;
+        private final String method;
+        private final String requestHeaders;
+        private final String traceId;
+        private final CapturePolicy policy = apiHealthService.capturePolicy();
+        final BoundedCapture requestBody = new BoundedCapture(policy.maxBytes());
+        final BoundedCapture responseBody = new BoundedCapture(policy.maxBytes());
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile int status;
+        private volatile String responseHeaders;
+        private volatile String requestContentType;
+        private volatile String responseContentType;
+        private volatile String inboundRequestId = InboundRequestFilter.currentRequestId();
+
+        // Caller-thread time spent opening the call (everything before the constructor ends)
+        private final long openNanos;
+
+        private Call(String url, String method, String requestHeaders, String traceId) {
+            this.traceId = traceId;
+            this.url = url;
+            this.method = method != null ? method : "UNKNOWN";
+            this.requestHeaders = requestHeaders;
+            this.openNanos = System.nanoTime() - startNanos;
+        }
+
+        /** Tag the call with the enclosing inbound request when it was not visible on the starting thread. */
+        public void inboundRequestId(String inboundRequestId) {
+            if (inboundRequestId != null) this.inboundRequestId = inboundRequestId;
+        }
+
+        /** Content type of the request body; call before the body streams so non-text bodies are not copied. */
+        public void requestContentType(String contentType) {
+            this.requestContentType = contentType;
+            if (!CapturePolicy.isText(contentType)) requestBody.countOnly();
+        }
+
+        /** Status line and headers arrived. */
+        public void response(int status, String responseHeaders) {
+            response(status, responseHeaders, null);
+        }
+
+        /** Status line and headers arrived; {@code contentType} is the response Content-Type (null when absent). */
+        public void response(int status, String responseHeaders, String contentType) {
+            this.status = status;
+            this.responseHeaders = responseHeaders;
+            this.responseContentType = contentType;
+            if (!CapturePolicy.isText(contentType)) responseBody.countOnly();
+        }
+
+        /** Finish the exchange (error null on success); later calls are ignored. */
+        public void complete(Throwable error) {
+            if (!done.compareAndSet(false, true)) return;
+            long completeStart = System.nanoTime();
+            try {
+                int durationMs = (int) ((completeStart - startNanos) / 1_000_000);
+                boolean success = error == null && status >= 200 && status < 400;
+                ApiEndpointView endpoint = apiHealthService.matchEndpointCached(url, method);
+                CaptureLevel level = policy.level(endpoint, success, durationMs);
+                ApiCallLogEntry entry = new ApiCallLogEntry();
+                entry.setId(UUID.randomUUID());
+                entry.setTimestamp(start);
+                entry.setUrl(url);
+                entry.setHttpMethod(method);
+                entry.setRequestHeaders(level.headers() ? requestHeaders : null);
+                entry.setRequestBody(requestBody.render(policy, requestContentType, level));
+                entry.setResponseHeaders(level.headers() ? responseHeaders : null);
+                entry.setResponseBody(responseBody.render(policy, responseContentType, level));
+                entry.setHttpStatus(status);
+                entry.setDurationMs(durationMs);
+                entry.setTraceId(traceId);
+                entry.setSuccess(success);
+                entry.setErrorMessage(error != null ? error.getMessage() : null);
+                entry.setInboundRequestId(inboundRequestId);
+                if (meters != null) {
+                    meters.record(endpoint, method, status, success, durationMs, requestBody.total(), responseBody.total());
+                }
+                apiHealthService.logCall(entry, endpoint);
+                InternalStats stats = apiHealthService.internalStats();
+                stats.recordCopied(requestBody.copied() + responseBody.copied());
+                stats.recordCapture(openNanos + System.nanoTime() - completeStart);
+            } catch (Exception ex) {
+                log.debug("Call capture failed for {} : {}", url, ex.getMessage());
+            }
+        }
+    }
+}
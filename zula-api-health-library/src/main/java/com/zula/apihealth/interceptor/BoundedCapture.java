@@ -0,0 +1,92 @@
+package com.zula.apihealth.interceptor;
+
+import com.zula.apihealth.annotation.CaptureLevel;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Copies at most {@code max} bytes of a streamed body without consuming it; the rest is only counted.
+ * The buffer grows as bytes arrive, so small bodies do not pay for {@code max} up front.
+ */
+final class BoundedCapture {
+    private static final int INITIAL = 256;
+    private final int max;
+    private byte[] buf = new byte[0];
+    private int len;
+    private long total;
+    private boolean countOnly;
+
+    BoundedCapture(int max) {
+        this.max = Math.max(0, max);
+    }
+
+    /** Stop copying (e.g. a non-text body); bytes are still counted. */
+    synchronized void countOnly() {
+        countOnly = true;
+        buf = new byte[0];
+        len = 0;
+    }
+
+    synchronized void append(byte[] b, int off, int n) {
+        total += n;
+        int take = room(n);
+        if (take > 0) {
+            System.arraycopy(b, off, buf, len, take);
+            len += take;
+        }
+    }
+
+    /** One byte, for single-byte readers and writers (no array per byte). */
+    synchronized void append(int b) {
+        total++;
+        if (room(1) > 0) {
+            buf[len++] = (byte) b;
+        }
+    }
+
+    /** Reads the buffer's remaining bytes by absolute index; its position is left untouched. */
+    synchronized void append(ByteBuffer b) {
+        int n = b.remaining();
+        total += n;
+        int take = room(n);
+        int pos = b.position();
+        for (int i = 0; i < take; i++) {
+            buf[len++] = b.get(pos + i);
+        }
+    }
+
+    synchronized void append(DataBuffer b) {
+        int n = b.readableByteCount();
+        total += n;
+        int take = room(n);
+        int pos = b.readPosition();
+        for (int i = 0; i < take; i++) {
+            buf[len++] = b.getByte(pos + i);
+        }
+    }
+
+    synchronized long total() {
+        return total;
+    }
+
+    /** Bytes actually copied into the buffer (at most {@code max}). */
+    synchronized int copied() {
+        return len;
+    }
+
+    /** What {@code policy} stores of this body at {@code level}. */
+    synchronized String render(CapturePolicy policy, String contentType, CaptureLevel level) {
+        return policy.body(buf, len, total, contentType, level);
+    }
+
+    /** Bytes of the next {@code n} that fit, growing the buffer to hold them. */
+    private int room(int n) {
+        int take = countOnly ? 0 : Math.min(n, max - len);
+        if (take > 0 && len + take > buf.length) {
+            buf = Arrays.copyOf(buf, Math.min(max, Math.max(len + take, Math.max(INITIAL, buf.length * 2))));
+        }
+        return take;
+    }
+}
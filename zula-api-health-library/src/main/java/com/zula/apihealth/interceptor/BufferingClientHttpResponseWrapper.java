@@ -52,6 +52,15 @@ public class BufferingClientHttpResponseWrapper implements ClientHttpResponse {
         return response.getHeaders();
     }
 
+    public int getBodyLength() {
+        return body.length;
+    }
+
+    /** The buffered body itself (not a copy); do not modify. */
+    public byte[] getBodyBytes() {
+        return body;
+    }
+
     public String getBodyAsString() {
         return new String(body, StandardCharsets.UTF_8);
     }
@@ -0,0 +1,117 @@
+package com.zula.apihealth.interceptor;
+
+import com.zula.apihealth.annotation.CaptureLevel;
+import com.zula.apihealth.model.ApiEndpointView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides per exchange how much of it is stored: {@link CaptureLevel} by outcome (failed or slow vs. the rest)
+ * with per-endpoint overrides from {@code @TrackApiEndpoint}, then a body cut by content type and size.
+ * Non-text bodies are never decoded; only their type and size are recorded.
+ */
+public class CapturePolicy {
+    private final CaptureLevel successLevel;
+    private final CaptureLevel failureLevel;
+    private final int slowMs;
+    private final int prefixBytes;
+    private final int maxBytes;
+    private final Map<String, Rule> rules = new ConcurrentHashMap<>();
+
+    public CapturePolicy(CaptureLevel successLevel, CaptureLevel failureLevel, int slowMs, int prefixBytes, int maxBytes) {
+        this.successLevel = concrete(successLevel, CaptureLevel.PREFIX);
+        this.failureLevel = concrete(failureLevel, CaptureLevel.FULL);
+        this.slowMs = Math.max(0, slowMs);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.prefixBytes = Math.min(Math.max(0, prefixBytes), this.maxBytes);
+    }
+
+    /** Override the levels for one registered endpoint (DEFAULT / 0 keep the configured value). */
+    public void register(String method, String path, CaptureLevel success, CaptureLevel failure, int slowMs) {
+        if (success == CaptureLevel.DEFAULT && failure == CaptureLevel.DEFAULT && slowMs <= 0) {
+            rules.remove(key(method, path));
+            return;
+        }
+        rules.put(key(method, path), new Rule(success, failure, slowMs));
+    }
+
+    /** Level for one finished exchange; {@code endpoint} is null for unregistered URLs. */
+    public CaptureLevel level(ApiEndpointView endpoint, boolean success, long durationMs) {
+        Rule rule = endpoint != null && !rules.isEmpty() ? rules.get(key(endpoint.getMethod(), endpoint.getPath())) : null;
+        long slow = slowMs;
+        if (rule != null && rule.slowMs > 0) {
+            slow = rule.slowMs;
+        } else if (endpoint != null && endpoint.getDegradedThresholdMs() != null && endpoint.getDegradedThresholdMs() > 0) {
+            slow = endpoint.getDegradedThresholdMs();
+        }
+        if (!success || (slow > 0 && durationMs >= slow)) {
+            return rule != null ? concrete(rule.failure, failureLevel) : failureLevel;
+        }
+        return rule != null ? concrete(rule.success, successLevel) : successLevel;
+    }
+
+    /** Upper bound of what any level keeps of one body; streaming captures buffer at most this much. */
+    public int maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Body to store at {@code level}: decoded text cut at the level's limit (on a UTF-8 boundary, suffixed with
+     * [TRUNCATED]), a {@code [type, N bytes]} marker for non-text bodies, or null.
+     *
+     * @param length bytes available in {@code bytes}
+     * @param total  full body size, -1 when unknown
+     */
+    public String body(byte[] bytes, int length, long total, String contentType, CaptureLevel level) {
+        if (!level.body() || total == 0) return null;
+        if (!isText(contentType)) {
+            return "[" + mediaType(contentType) + (total > 0 ? ", " + total + " bytes]" : "]");
+        }
+        if (bytes == null || length <= 0) return null;
+        int take = Math.min(length, level == CaptureLevel.FULL ? maxBytes : prefixBytes);
+        if (take < length) {
+            // Do not split a multi-byte character
+            while (take > 0 && (bytes[take] & 0xC0) == 0x80) take--;
+        }
+        String s = new String(bytes, 0, take, StandardCharsets.UTF_8);
+        return take < Math.max(length, total) ? s + "[TRUNCATED]" : s;
+    }
+
+    /** Textual media types (text/*, JSON, XML, YAML, forms, JavaScript); a missing type counts as text. */
+    public static boolean isText(String contentType) {
+        if (contentType == null || contentType.isBlank()) return true;
+        String t = mediaType(contentType);
+        return t.startsWith("text/") || t.endsWith("json") || t.endsWith("xml") || t.endsWith("yaml")
+                || t.equals("application/x-www-form-urlencoded") || t.equals("application/javascript")
+                || t.equals("application/graphql");
+    }
+
+    private static String mediaType(String contentType) {
+        if (contentType == null) return "unknown";
+        int semi = contentType.indexOf(';');
+        return (semi >= 0 ? contentType.substring(0, semi) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static CaptureLevel concrete(CaptureLevel level, CaptureLevel fallback) {
+        return level == null || level == CaptureLevel.DEFAULT ? fallback : level;
+    }
+
+    private static String key(String method, String path) {
+        return (method != null ? method.toUpperCase(Locale.ROOT) : "") + ' ' + path;
+    }
+
+    private static final class Rule {
+        final CaptureLevel success;
+        final CaptureLevel failure;
+        final int slowMs;
+
+        Rule(CaptureLevel success, CaptureLevel failure, int slowMs) {
+            this.success = success;
+            this.failure = failure;
+            this.slowMs = slowMs;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.zula.apihealth.interceptor;
+
+import com.zula.apihealth.annotation.CaptureLevel;
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.service.ApiHealthService;
+import com.zula.apihealth.service.UrlTemplateNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opt-in servlet filter recording inbound requests through the same log pipeline as outbound calls
+ * ({@code direction = IN}). Each request gets an id (reused from the configured header when present, echoed on
+ * the response) that is exposed as a request attribute; outbound calls made while handling the request are
+ * tagged with it, so fan-out and downstream time per request are one indexed lookup. Bodies are teed into a
+ * bounded prefix as the application reads and writes them; nothing is buffered in full.
+ */
+public class InboundRequestFilter extends OncePerRequestFilter {
+    /** Request attribute holding the inbound request id. */
+    public static final String REQUEST_ID_ATTRIBUTE = InboundRequestFilter.class.getName() + ".REQUEST_ID";
+    private static final Logger log = LoggerFactory.getLogger(InboundRequestFilter.class);
+    private static final ZoneId ZONE_NAIROBI = ZoneId.of("Africa/Nairobi");
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final ApiHealthService apiHealthService;
+    private final List<String> excludePatterns;
+    private final String requestIdHeader;
+
+    public InboundRequestFilter(ApiHealthService apiHealthService, List<String> excludePatterns, String requestIdHeader) {
+        this.apiHealthService = apiHealthService;
+        this.excludePatterns = excludePatterns != null ? List.copyOf(excludePatterns) : List.of();
+        this.requestIdHeader = requestIdHeader != null && !requestIdHeader.isBlank() ? requestIdHeader : "X-Request-Id";
+    }
+
+    /** Id of the inbound request being handled on this thread, or null outside a tracked request. */
+    public static String currentRequestId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object id = attributes != null ? attributes.getAttribute(REQUEST_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        return id != null ? id.toString() : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : excludePatterns) {
+            if (PATHS.match(pattern, path)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String incoming = request.getHeader(requestIdHeader);
+        String requestId = incoming != null && !incoming.isBlank() && incoming.length() <= 64 ? incoming : UUID.randomUUID().toString();
+        request.setAttribute(REQUEST_ID_ATTRIBUTE, requestId);
+        response.setHeader(requestIdHeader, requestId);
+        // A tracer filter that ran earlier has populated the MDC; otherwise continue the caller's traceparent
+        String traceId = TraceContext.currentTraceId();
+        if (traceId == null) traceId = TraceContext.traceIdOf(request.getHeader(TraceContext.TRACEPARENT));
+        if (traceId == null) traceId = TraceContext.newTraceId();
+        request.setAttribute(TraceContext.TRACE_ID_ATTRIBUTE, traceId);
+        boolean ownMdc = MDC.get("traceId") == null;
+        if (ownMdc) MDC.put("traceId", traceId);
+
+        Capture capture = new Capture(request, requestId, traceId);
+        CapturingRequest req = new CapturingRequest(request, capture.requestBody);
+        CapturingResponse resp = new CapturingResponse(response, capture.responseBody);
+        Throwable error = null;
+        try {
+            chain.doFilter(req, resp);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            if (ownMdc) MDC.remove("traceId");
+            if (error == null && req.isAsyncStarted()) {
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override public void onComplete(AsyncEvent event) { capture.complete(request, response, null); }
+                    @Override public void onTimeout(AsyncEvent event) { capture.complete(request, response, event.getThrowable()); }
+                    @Override public void onError(AsyncEvent event) { capture.complete(request, response, event.getThrowable()); }
+                    @Override public void onStartAsync(AsyncEvent event) { }
+                });
+            } else {
+                capture.complete(request, response, error);
+            }
+        }
+    }
+
+    /** State of one inbound request; completed exactly once. */
+    private final class Capture {
+        final OffsetDateTime start = OffsetDateTime.now(ZONE_NAIROBI);
+        final long startNanos = System.nanoTime();
+        final String requestId;
+        final String traceId;
+        final String url;
+        final String method;
+        final String requestHeaders;
+        final CapturePolicy policy = apiHealthService.capturePolicy();
+        final BoundedCapture requestBody = new BoundedCapture(policy.maxBytes());
+        final BoundedCapture responseBody = new BoundedCapture(policy.maxBytes());
+        final AtomicBoolean done = new AtomicBoolean(false);
+
+        Capture(HttpServletRequest request, String requestId, String traceId) {
+            this.requestId = requestId;
+            this.traceId = traceId;
+            String query = request.getQueryString();
+            this.url = request.getRequestURL() + (query != null ? "?" + query : "");
+            this.method = request.getMethod();
+            this.requestHeaders = new ServletServerHttpRequest(request).getHeaders().toString();
+        }
+
+        void complete(HttpServletRequest request, HttpServletResponse response, Throwable error) {
+            if (!done.compareAndSet(false, true)) return;
+            try {
+                int durationMs = (int) ((System.nanoTime() - startNanos) / 1_000_000);
+                int status = error != null && response.getStatus() < 400 ? 500 : response.getStatus();
+                boolean success = error == null && status < 400;
+                CaptureLevel level = policy.level(null, success, durationMs);
+                ApiCallLogEntry entry = new ApiCallLogEntry();
+                entry.setId(UUID.randomUUID());
+                entry.setTimestamp(start);
+                entry.setUrl(url);
+                entry.setHttpMethod(method);
+                entry.setRequestHeaders(level.headers() ? requestHeaders : null);
+                entry.setRequestBody(requestBody.render(policy, request.getContentType(), level));
+                entry.setResponseHeaders(level.headers() ? responseHeaders(response) : null);
+                entry.setResponseBody(responseBody.render(policy, response.getContentType(), level));
+                entry.setHttpStatus(status);
+                entry.setDurationMs(durationMs);
+                entry.setTraceId(traceId);
+                entry.setSuccess(success);
+                entry.setErrorMessage(error != null ? error.getMessage() : null);
+                entry.setInboundRequestId(requestId);
+                // Prefer the handler's route pattern ("/orders/{id}") as the template when MVC resolved one
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                if (pattern != null) {
+                    entry.setUrlTemplate(UrlTemplateNormalizer.cap(pattern.toString()));
+                }
+                apiHealthService.logInbound(entry);
+            } catch (Exception ex) {
+                log.debug("Inbound capture failed for {} : {}", url, ex.getMessage());
+            }
+        }
+    }
+
+    private static String responseHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            headers.put(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        return headers.toString();
+    }
+
+    private static Charset charset(String encoding) {
+        try {
+            return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        } catch (Exception ex) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /** Tees what the application reads from the body. */
+    private static final class CapturingRequest extends HttpServletRequestWrapper {
+        private final BoundedCapture capture;
+        private ServletInputStream stream;
+        private BufferedReader reader;
+
+        CapturingRequest(HttpServletRequest request, BoundedCapture capture) {
+            super(request);
+            this.capture = capture;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) throw new IllegalStateException("getReader() has already been called for this request");
+            return capturingStream();
+        }
+
+        /** One reader for the request, as the container gives: a second one would lose what the first buffered. */
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                if (stream != null) throw new IllegalStateException("getInputStream() has already been called for this request");
+                reader = new BufferedReader(new InputStreamReader(capturingStream(), charset(getCharacterEncoding())));
+            }
+            return reader;
+        }
+
+        private ServletInputStream capturingStream() throws IOException {
+            if (stream == null) {
+                ServletInputStream in = super.getInputStream();
+                stream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = in.read();
+                        if (b != -1) capture.append(b);
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int n = in.read(b, off, len);
+                        if (n > 0) capture.append(b, off, n);
+                        return n;
+                    }
+
+                    @Override public boolean isFinished() { return in.isFinished(); }
+                    @Override public boolean isReady() { return in.isReady(); }
+                    @Override public void setReadListener(ReadListener listener) { in.setReadListener(listener); }
+                };
+            }
+            return stream;
+        }
+    }
+
+    /** Tees what the application writes to the body. */
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+        private final BoundedCapture capture;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, BoundedCapture capture) {
+            super(response);
+            this.capture = capture;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream out = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        capture.append(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        capture.append(b, off, len);
+                    }
+
+                    @Override public void flush() throws IOException { out.flush(); }
+                    @Override public void close() throws IOException { out.close(); }
+                    @Override public boolean isReady() { return out.isReady(); }
+                    @Override public void setWriteListener(WriteListener listener) { out.setWriteListener(listener); }
+                };
+            }
+            return stream;
+        }
+
+        /** Container's own writer with the written chars copied; adds no buffering of its own. */
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter out = super.getWriter();
+                Charset charset = charset(getCharacterEncoding());
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) {
+                        out.write(cbuf, off, len);
+                        byte[] bytes = new String(cbuf, off, len).getBytes(charset);
+                        capture.append(bytes, 0, bytes.length);
+                    }
+
+                    @Override public void flush() { out.flush(); }
+                    @Override public void close() { out.close(); }
+                });
+            }
+            return writer;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.zula.apihealth.interceptor;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Marks outbound calls that are internal health probes so the capture integrations pass them through
+ * unlogged. The mark travels with the request itself (a header, or a WebClient request attribute), not with
+ * the executing thread, so probes may run concurrently on any thread, virtual thread or reactive pipeline.
+ * Every integration removes the header before the request is sent; it never reaches the target.
+ */
+public final class ProbeMarker {
+    /** Marker header; stripped by the interceptors before sending. */
+    public static final String HEADER = "X-Zula-Health-Probe";
+    /** WebClient request attribute alternative to the header. */
+    public static final String ATTRIBUTE = ProbeMarker.class.getName() + ".PROBE";
+
+    private ProbeMarker() {}
+
+    /** Mark the request carrying these headers as a probe. */
+    public static void mark(HttpHeaders headers) {
+        headers.set(HEADER, "1");
+    }
+
+    /** @return true if the headers were marked; the marker is removed either way. */
+    public static boolean strip(HttpHeaders headers) {
+        return headers.remove(HEADER) != null;
+    }
+}
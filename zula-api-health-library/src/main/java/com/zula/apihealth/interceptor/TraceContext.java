@@ -0,0 +1,78 @@
+package com.zula.apihealth.interceptor;
+
+import org.slf4j.MDC;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resolves the trace id a captured call belongs to, so every call of one distributed transaction shares it.
+ * Order: an outbound {@code traceparent} already set (e.g. by a tracer's own instrumentation), the SLF4J MDC
+ * ({@code traceId} as populated by Sleuth and Micrometer Tracing, {@code trace_id}, {@code X-B3-TraceId}), the
+ * trace of the enclosing inbound request, and finally a fresh W3C-compatible id.
+ */
+public final class TraceContext {
+    /** W3C trace context header. */
+    public static final String TRACEPARENT = "traceparent";
+    /** Request attribute holding the inbound request's trace id (set by {@link InboundRequestFilter}). */
+    public static final String TRACE_ID_ATTRIBUTE = TraceContext.class.getName() + ".TRACE_ID";
+    private static final String[] MDC_KEYS = {"traceId", "trace_id", "X-B3-TraceId"};
+
+    private TraceContext() {}
+
+    /** Trace id for a call whose request carries {@code traceparent} (may be null). */
+    public static String resolve(String traceparent) {
+        String id = traceIdOf(traceparent);
+        if (id == null) id = currentTraceId();
+        return id != null ? id : newTraceId();
+    }
+
+    /** Trace id of the current context (MDC, then inbound request), or null. */
+    public static String currentTraceId() {
+        for (String key : MDC_KEYS) {
+            String v = MDC.get(key);
+            if (v != null && !v.isBlank()) return v;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object id = attributes != null ? attributes.getAttribute(TRACE_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+        return id != null ? id.toString() : null;
+    }
+
+    /** Trace-id field of a {@code traceparent} value, or null when absent or malformed. */
+    public static String traceIdOf(String traceparent) {
+        if (traceparent == null) return null;
+        String[] parts = traceparent.trim().split("-");
+        if (parts.length < 4 || parts[1].length() != 32 || !isHex(parts[1]) || parts[1].chars().allMatch(c -> c == '0')) {
+            return null;
+        }
+        return parts[1].toLowerCase();
+    }
+
+    /** A {@code traceparent} continuing this trace with a new span id, or null when the id is not hex (16 or 32). */
+    public static String traceparent(String traceId) {
+        if (traceId == null || !isHex(traceId) || (traceId.length() != 32 && traceId.length() != 16)) {
+            return null;
+        }
+        String id = traceId.length() == 16 ? "0000000000000000" + traceId : traceId;
+        return "00-" + id.toLowerCase() + "-" + hex(ThreadLocalRandom.current().nextLong() | 1L) + "-01";
+    }
+
+    /** Random 128-bit trace id as 32 lowercase hex chars. */
+    public static String newTraceId() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return hex(r.nextLong()) + hex(r.nextLong() | 1L);
+    }
+
+    private static String hex(long v) {
+        String s = Long.toHexString(v);
+        return "0000000000000000".substring(s.length()) + s;
+    }
+
+    private static boolean isHex(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) return false;
+        }
+        return !s.isEmpty();
+    }
+}
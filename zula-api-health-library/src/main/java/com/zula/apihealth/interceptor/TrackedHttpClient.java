@@ -0,0 +1,221 @@
+package com.zula.apihealth.interceptor;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * {@link HttpClient} decorator feeding JDK client calls into the call-log pipeline. Request and response
+ * bodies are observed as their buffers stream past (only a bounded prefix is copied). A call is completed when
+ * the response body subscriber completes or fails, so {@code sendAsync} is timed to the end of the body rather
+ * than to the moment the future was returned, and streaming handlers ({@code ofInputStream}, {@code ofLines})
+ * are timed until the caller has drained the body. Failures before a response arrives complete the call from
+ * the returned future.
+ */
+public class TrackedHttpClient extends HttpClient {
+    private final HttpClient delegate;
+    private final ApiCallRecorder recorder;
+
+    public TrackedHttpClient(HttpClient delegate, ApiCallRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        if (isProbe(request)) {
+            return delegate.send(unmarked(request), handler);
+        }
+        request = traced(request);
+        ApiCallRecorder.Call call = start(request);
+        try {
+            return delegate.send(capturing(request, call), capturing(handler, call));
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            call.complete(ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        if (isProbe(request)) {
+            return delegate.sendAsync(unmarked(request), handler);
+        }
+        request = traced(request);
+        ApiCallRecorder.Call call = start(request);
+        return completeOnFailure(delegate.sendAsync(capturing(request, call), capturing(handler, call)), call);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        if (isProbe(request)) {
+            return delegate.sendAsync(unmarked(request), handler, pushPromiseHandler);
+        }
+        request = traced(request);
+        ApiCallRecorder.Call call = start(request);
+        return completeOnFailure(delegate.sendAsync(capturing(request, call), capturing(handler, call), pushPromiseHandler), call);
+    }
+
+    private static boolean isProbe(HttpRequest request) {
+        return request.headers().firstValue(ProbeMarker.HEADER).isPresent();
+    }
+
+    /** Copy of the request without the probe marker header. */
+    private static HttpRequest unmarked(HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> !ProbeMarker.HEADER.equalsIgnoreCase(name)).build();
+    }
+
+    /** Same request with a traceparent continuing the current trace, when propagation is on and none is set. */
+    private HttpRequest traced(HttpRequest request) {
+        if (!recorder.propagateTrace() || request.headers().firstValue(TraceContext.TRACEPARENT).isPresent()) {
+            return request;
+        }
+        String traceparent = TraceContext.traceparent(TraceContext.resolve(null));
+        return traceparent == null ? request
+                : HttpRequest.newBuilder(request, (name, value) -> true).header(TraceContext.TRACEPARENT, traceparent).build();
+    }
+
+    private ApiCallRecorder.Call start(HttpRequest request) {
+        return recorder.start(request.uri().toString(), request.method(), request.headers().map().toString(),
+                TraceContext.resolve(request.headers().firstValue(TraceContext.TRACEPARENT).orElse(null)));
+    }
+
+    private static <T> CompletableFuture<T> completeOnFailure(CompletableFuture<T> future, ApiCallRecorder.Call call) {
+        future.whenComplete((r, ex) -> {
+            if (ex != null) call.complete(ex);
+        });
+        return future;
+    }
+
+    /** Same request with its body publisher wrapped; bodiless requests are passed through unchanged. */
+    private static HttpRequest capturing(HttpRequest request, ApiCallRecorder.Call call) {
+        Optional<HttpRequest.BodyPublisher> body = request.bodyPublisher();
+        if (body.isEmpty() || body.get().contentLength() == 0) {
+            return request;
+        }
+        HttpRequest.BodyPublisher publisher = body.get();
+        call.requestContentType(request.headers().firstValue("Content-Type").orElse(null));
+        HttpRequest.BodyPublisher tee = new HttpRequest.BodyPublisher() {
+            @Override
+            public long contentLength() {
+                return publisher.contentLength();
+            }
+
+            @Override
+            public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+                publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) { subscriber.onSubscribe(subscription); }
+
+                    @Override
+                    public void onNext(ByteBuffer item) {
+                        call.requestBody.append(item);
+                        subscriber.onNext(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) { subscriber.onError(throwable); }
+
+                    @Override
+                    public void onComplete() { subscriber.onComplete(); }
+                });
+            }
+        };
+        return HttpRequest.newBuilder(request, (name, value) -> true).method(request.method(), tee).build();
+    }
+
+    private static <T> HttpResponse.BodyHandler<T> capturing(HttpResponse.BodyHandler<T> handler, ApiCallRecorder.Call call) {
+        return info -> {
+            call.response(info.statusCode(), info.headers().map().toString(), info.headers().firstValue("Content-Type").orElse(null));
+            return new CapturingSubscriber<>(handler.apply(info), call);
+        };
+    }
+
+    /** Tees the response buffers into the capture and completes the call with the body. */
+    private static final class CapturingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final ApiCallRecorder.Call call;
+
+        CapturingSubscriber(HttpResponse.BodySubscriber<T> delegate, ApiCallRecorder.Call call) {
+            this.delegate = delegate;
+            this.call = call;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            for (ByteBuffer b : item) {
+                call.responseBody.append(b);
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            call.complete(throwable);
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            call.complete(null);
+            delegate.onComplete();
+        }
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() { return delegate.cookieHandler(); }
+
+    @Override
+    public Optional<Duration> connectTimeout() { return delegate.connectTimeout(); }
+
+    @Override
+    public Redirect followRedirects() { return delegate.followRedirects(); }
+
+    @Override
+    public Optional<ProxySelector> proxy() { return delegate.proxy(); }
+
+    @Override
+    public SSLContext sslContext() { return delegate.sslContext(); }
+
+    @Override
+    public SSLParameters sslParameters() { return delegate.sslParameters(); }
+
+    @Override
+    public Optional<Authenticator> authenticator() { return delegate.authenticator(); }
+
+    @Override
+    public Version version() { return delegate.version(); }
+
+    @Override
+    public Optional<Executor> executor() { return delegate.executor(); }
+
+    @Override
+    public WebSocket.Builder newWebSocketBuilder() { return delegate.newWebSocketBuilder(); }
+}
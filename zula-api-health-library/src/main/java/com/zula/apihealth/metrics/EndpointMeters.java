@@ -0,0 +1,122 @@
+package com.zula.apihealth.metrics;
+
+import com.zula.apihealth.model.ApiEndpointView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for outbound calls, tagged by the registry endpoint (name, else path) instead of
+ * the raw URL so series count is bounded by the registry size. Calls to unregistered URLs share the
+ * {@code endpoint=other} series. Meters are cached per endpoint to keep the hot path to a map lookup.
+ *
+ * <ul>
+ *   <li>{@code zula.api.client.requests} timer – endpoint, method, outcome, status (class, e.g. 2xx)</li>
+ *   <li>{@code zula.api.client.failures} counter – endpoint, method, status (class; NONE = no response)</li>
+ *   <li>{@code zula.api.client.request.size} / {@code zula.api.client.response.size} summaries (bytes) – endpoint, method</li>
+ * </ul>
+ */
+public class EndpointMeters {
+    public static final String REQUESTS = "zula.api.client.requests";
+    public static final String FAILURES = "zula.api.client.failures";
+    public static final String REQUEST_SIZE = "zula.api.client.request.size";
+    public static final String RESPONSE_SIZE = "zula.api.client.response.size";
+    private static final String UNMATCHED = "other";
+    // Index by status / 100: 0 = no response (I/O error), 1xx..5xx
+    private static final String[] STATUS_CLASSES = {"NONE", "1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final String[] OUTCOMES = {"UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistogram;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public EndpointMeters(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Record one outbound exchange; {@code endpoint} may be null when the URL is not registered.
+     * @param responseBytes response body size, negative when unknown (streamed without Content-Length; not recorded)
+     */
+    public void record(ApiEndpointView endpoint, String method, int status, boolean success, long durationMs,
+                       long requestBytes, long responseBytes) {
+        String name = endpointTag(endpoint);
+        String m = method != null ? method : "UNKNOWN";
+        Meters set = meters.computeIfAbsent(name + ' ' + m, k -> new Meters(name, m));
+        int cls = status >= 100 && status < 600 ? status / 100 : 0;
+        set.timer(cls).record(Math.max(0, durationMs), TimeUnit.MILLISECONDS);
+        if (!success) {
+            set.failures(cls).increment();
+        }
+        set.requestSize.record(Math.max(0, requestBytes));
+        if (cls != 0 && responseBytes >= 0) {
+            set.responseSize.record(responseBytes);
+        }
+    }
+
+    private static String endpointTag(ApiEndpointView endpoint) {
+        if (endpoint == null) return UNMATCHED;
+        String name = endpoint.getName();
+        return name != null && !name.isBlank() ? name : endpoint.getPath();
+    }
+
+    private final class Meters {
+        final String endpoint;
+        final String method;
+        final Timer[] timers = new Timer[STATUS_CLASSES.length];
+        final Counter[] failures = new Counter[STATUS_CLASSES.length];
+        final DistributionSummary requestSize;
+        final DistributionSummary responseSize;
+
+        Meters(String endpoint, String method) {
+            this.endpoint = endpoint;
+            this.method = method;
+            this.requestSize = DistributionSummary.builder(REQUEST_SIZE)
+                    .description("Outbound request body size")
+                    .baseUnit("bytes")
+                    .tags("endpoint", endpoint, "method", method)
+                    .register(registry);
+            this.responseSize = DistributionSummary.builder(RESPONSE_SIZE)
+                    .description("Outbound response body size")
+                    .baseUnit("bytes")
+                    .tags("endpoint", endpoint, "method", method)
+                    .register(registry);
+        }
+
+        Timer timer(int cls) {
+            Timer t = timers[cls];
+            if (t == null) {
+                // Benign race: registry returns the same meter for identical id/tags
+                t = Timer.builder(REQUESTS)
+                        .description("Outbound API call latency")
+                        .tags("endpoint", endpoint, "method", method,
+                                "outcome", OUTCOMES[cls], "status", STATUS_CLASSES[cls])
+                        .publishPercentileHistogram(percentileHistogram)
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(60))
+                        .register(registry);
+                timers[cls] = t;
+            }
+            return t;
+        }
+
+        Counter failures(int cls) {
+            Counter c = failures[cls];
+            if (c == null) {
+                c = Counter.builder(FAILURES)
+                        .description("Outbound API calls that failed (non 2xx/3xx or no response)")
+                        .tags("endpoint", endpoint, "method", method, "status", STATUS_CLASSES[cls])
+                        .register(registry);
+                failures[cls] = c;
+            }
+            return c;
+        }
+    }
+}
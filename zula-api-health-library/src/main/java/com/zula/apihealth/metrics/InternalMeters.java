@@ -0,0 +1,99 @@
+package com.zula.apihealth.metrics;
+
+import com.zula.apihealth.service.ApiHealthService;
+import com.zula.apihealth.service.AsyncLogWriter;
+import com.zula.apihealth.service.BodyDictionary;
+import com.zula.apihealth.service.HeaderDictionary;
+import com.zula.apihealth.service.OffHeapStaging;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer view of the library's own overhead. Every meter is function-based and reads the counters in
+ * {@link InternalStats} and {@link AsyncLogWriter} at scrape time, so the hot path pays nothing extra.
+ *
+ * <ul>
+ *   <li>{@code zula.apihealth.capture} timer – time capture adds on the caller's thread</li>
+ *   <li>{@code zula.apihealth.capture.bytes.copied} counter – body bytes copied into capture buffers</li>
+ *   <li>{@code zula.apihealth.queue.depth} / {@code zula.apihealth.queue.capacity} gauges</li>
+ *   <li>{@code zula.apihealth.flush} timer and {@code zula.apihealth.flush.entries} counter – entries / flushes is the mean batch</li>
+ *   <li>{@code zula.apihealth.logs} counter – outcome=written|dropped|failed</li>
+ *   <li>{@code zula.apihealth.db.errors} counter – failed insert batches, header set and body lookups, monitor updates</li>
+ *   <li>{@code zula.apihealth.header.sets} counter – result=cached|lookup, header sets of written rows</li>
+ *   <li>{@code zula.apihealth.bodies} counter – result=cached|lookup, stored response bodies of written rows</li>
+ *   <li>{@code zula.apihealth.staging.used} / {@code zula.apihealth.staging.capacity} gauges – off-heap staging bytes</li>
+ *   <li>{@code zula.apihealth.ping.cycle} timer – one scheduler pass over the due endpoints</li>
+ *   <li>{@code zula.apihealth.startup.scan} time gauge and {@code zula.apihealth.startup.registrations} gauge</li>
+ * </ul>
+ */
+public class InternalMeters implements MeterBinder {
+    private final ApiHealthService service;
+
+    public InternalMeters(ApiHealthService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        InternalStats stats = service.internalStats();
+        AsyncLogWriter writer = service.logWriter();
+
+        FunctionTimer.builder("zula.apihealth.capture", stats, InternalStats::captureCount,
+                        InternalStats::captureNanos, TimeUnit.NANOSECONDS)
+                .description("Time call capture adds on the caller's thread").register(registry);
+        FunctionCounter.builder("zula.apihealth.capture.bytes.copied", stats, InternalStats::bytesCopied)
+                .baseUnit("bytes").description("Body bytes copied into capture buffers").register(registry);
+
+        Gauge.builder("zula.apihealth.queue.depth", writer, AsyncLogWriter::queueDepth)
+                .description("Call logs waiting for the background writer").register(registry);
+        Gauge.builder("zula.apihealth.queue.capacity", writer, AsyncLogWriter::capacity).register(registry);
+        FunctionTimer.builder("zula.apihealth.flush", writer, AsyncLogWriter::flushCount,
+                        AsyncLogWriter::flushNanos, TimeUnit.NANOSECONDS)
+                .description("Background writer flushes (batch insert plus monitor updates)").register(registry);
+        FunctionCounter.builder("zula.apihealth.flush.entries", writer, AsyncLogWriter::flushedEntries)
+                .description("Entries handed to flushes").register(registry);
+        FunctionCounter.builder("zula.apihealth.logs", writer, AsyncLogWriter::writtenCount)
+                .tag("outcome", "written").register(registry);
+        FunctionCounter.builder("zula.apihealth.logs", writer, AsyncLogWriter::droppedCount)
+                .tag("outcome", "dropped").register(registry);
+        FunctionCounter.builder("zula.apihealth.logs", writer, AsyncLogWriter::failedCount)
+                .tag("outcome", "failed").register(registry);
+        FunctionCounter.builder("zula.apihealth.db.errors", writer, AsyncLogWriter::dbErrorCount)
+                .description("Failed log inserts, header set and body lookups, monitor updates").register(registry);
+        HeaderDictionary headers = service.headerDictionary();
+        if (headers != null) {
+            FunctionCounter.builder("zula.apihealth.header.sets", headers, HeaderDictionary::cacheHits)
+                    .tag("result", "cached").register(registry);
+            FunctionCounter.builder("zula.apihealth.header.sets", headers, HeaderDictionary::lookups)
+                    .tag("result", "lookup").register(registry);
+        }
+        BodyDictionary bodies = service.bodyDictionary();
+        if (bodies != null) {
+            FunctionCounter.builder("zula.apihealth.bodies", bodies, BodyDictionary::cacheHits)
+                    .tag("result", "cached").register(registry);
+            FunctionCounter.builder("zula.apihealth.bodies", bodies, BodyDictionary::lookups)
+                    .tag("result", "lookup").register(registry);
+        }
+        OffHeapStaging staging = writer.staging();
+        if (staging != null) {
+            Gauge.builder("zula.apihealth.staging.used", staging, OffHeapStaging::usedBytes)
+                    .baseUnit("bytes").description("Off-heap staging held by queued call logs").register(registry);
+            Gauge.builder("zula.apihealth.staging.capacity", staging, OffHeapStaging::capacityBytes)
+                    .baseUnit("bytes").register(registry);
+        }
+
+        FunctionTimer.builder("zula.apihealth.ping.cycle", stats, InternalStats::pingCycleCount,
+                        InternalStats::pingCycleNanos, TimeUnit.NANOSECONDS)
+                .description("Ping scheduler passes").register(registry);
+        TimeGauge.builder("zula.apihealth.startup.scan", stats, TimeUnit.NANOSECONDS, InternalStats::scanNanos)
+                .description("Time spent scanning beans for @TrackApiEndpoint").register(registry);
+        Gauge.builder("zula.apihealth.startup.registrations", stats, InternalStats::registrations)
+                .description("Endpoints registered by the scanner").register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.zula.apihealth.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the library itself costs: time spent capturing on the caller's thread, bytes copied to buffer bodies,
+ * ping cycle durations and the startup registration scan. Writes are a couple of {@link LongAdder} increments;
+ * {@link InternalMeters} and {@code /admin/health/internal} read them on demand.
+ */
+public class InternalStats {
+    private final LongAdder captures = new LongAdder();
+    private final LongAdder captureNanos = new LongAdder();
+    private final AtomicLong maxCaptureNanos = new AtomicLong();
+    private final LongAdder bytesCopied = new LongAdder();
+    private final LongAdder pingCycles = new LongAdder();
+    private final LongAdder pingCycleNanos = new LongAdder();
+    private volatile long lastPingCycleNanos;
+    private final LongAdder scanNanos = new LongAdder();
+    private final LongAdder scannedBeans = new LongAdder();
+    private final LongAdder registrations = new LongAdder();
+
+    /** One call captured; {@code nanos} is the time the capture added on the caller's thread. */
+    public void recordCapture(long nanos) {
+        long n = Math.max(0, nanos);
+        captures.increment();
+        captureNanos.add(n);
+        maxCaptureNanos.accumulateAndGet(n, Math::max);
+    }
+
+    /** Body bytes copied into capture buffers. */
+    public void recordCopied(long bytes) {
+        if (bytes > 0) bytesCopied.add(bytes);
+    }
+
+    public void recordPingCycle(long nanos) {
+        pingCycles.increment();
+        pingCycleNanos.add(nanos);
+        lastPingCycleNanos = nanos;
+    }
+
+    /** One bean scanned for @TrackApiEndpoint, registering {@code registered} endpoints. */
+    public void recordScan(long nanos, int registered) {
+        scannedBeans.increment();
+        scanNanos.add(nanos);
+        registrations.add(registered);
+    }
+
+    public long captureCount() { return captures.sum(); }
+    public long captureNanos() { return captureNanos.sum(); }
+    public long maxCaptureNanos() { return maxCaptureNanos.get(); }
+    public long bytesCopied() { return bytesCopied.sum(); }
+    public long pingCycleCount() { return pingCycles.sum(); }
+    public long pingCycleNanos() { return pingCycleNanos.sum(); }
+    public long lastPingCycleNanos() { return lastPingCycleNanos; }
+    public long scanNanos() { return scanNanos.sum(); }
+    public long scannedBeans() { return scannedBeans.sum(); }
+    public long registrations() { return registrations.sum(); }
+}
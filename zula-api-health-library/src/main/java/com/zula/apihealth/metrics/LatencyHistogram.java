@@ -0,0 +1,127 @@
+package com.zula.apihealth.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, lock-free latency histogram with log-linear (HDR-style) buckets.
+ * Values 0-15 ms get exact buckets; above that every power of two is split into 16 sub-buckets,
+ * so any recorded value is reported within ~6% of its true value. 448 buckets cover up to 2^31 ms.
+ */
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = SUB_BUCKETS + (31 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Record one latency sample in milliseconds; negative values count as 0. */
+    public void record(long valueMs) {
+        long v = Math.max(0, Math.min(valueMs, Integer.MAX_VALUE));
+        counts.incrementAndGet(indexFor(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+    }
+
+    /** Clear all counts (used when a time slot is recycled). */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /** Add this histogram's counts into an accumulating snapshot. */
+    public void addTo(Snapshot snapshot) {
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot.counts[i] += counts.get(i);
+        }
+        snapshot.total += total.get();
+        snapshot.sum += sum.get();
+        snapshot.max = Math.max(snapshot.max, max.get());
+    }
+
+    public Snapshot snapshot() {
+        Snapshot s = new Snapshot();
+        addTo(s);
+        return s;
+    }
+
+    static int indexFor(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        return lowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /** Point-in-time, mergeable copy of one or more histograms. */
+    public static class Snapshot {
+        final long[] counts = new long[BUCKETS];
+        long total;
+        long sum;
+        long max;
+
+        public long getCount() { return total; }
+        public long getMax() { return max; }
+
+        public Double getMean() {
+            return total == 0 ? null : (double) sum / total;
+        }
+
+        /** Value at quantile q (0..1), reported as the bucket's highest equivalent value capped at max. */
+        public Long percentile(double q) {
+            if (total == 0) return null;
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /** Visit non-empty buckets in ascending order. */
+        public void forEachBucket(BucketVisitor visitor) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    visitor.visit(lowerBound(i), upperBound(i), counts[i]);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BucketVisitor {
+        void visit(long fromMs, long toMs, long count);
+    }
+}
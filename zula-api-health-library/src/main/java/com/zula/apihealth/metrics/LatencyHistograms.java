@@ -0,0 +1,57 @@
+package com.zula.apihealth.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-endpoint latency histograms kept in memory: one cumulative histogram since startup plus a
+ * ring of per-slot histograms for recent windows. Memory per endpoint is fixed
+ * ((slots + 1) x ~3.5 KB) and bounded by the size of the endpoint registry.
+ */
+public class LatencyHistograms {
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final int slots;
+    private final long slotMillis;
+
+    public LatencyHistograms(int slots, Duration slotLength) {
+        this.slots = Math.max(1, slots);
+        this.slotMillis = Math.max(1000, slotLength.toMillis());
+    }
+
+    /** Record one call latency for the endpoint. */
+    public void record(long endpointId, long latencyMs) {
+        Entry e = entries.computeIfAbsent(endpointId, k -> new Entry(slots, slotMillis));
+        e.total.record(latencyMs);
+        e.window.current(System.currentTimeMillis()).record(latencyMs);
+    }
+
+    /**
+     * Merged snapshot for the endpoint over {@code window}; null window = since startup.
+     * Windows longer than the ring span are clamped to the span. Returns null when nothing was recorded.
+     */
+    public LatencyHistogram.Snapshot snapshot(long endpointId, Duration window) {
+        Entry e = entries.get(endpointId);
+        if (e == null) return null;
+        if (window == null) {
+            return e.total.snapshot();
+        }
+        LatencyHistogram.Snapshot s = new LatencyHistogram.Snapshot();
+        e.window.forEachInWindow(System.currentTimeMillis(), window.toMillis(), (h, start) -> h.addTo(s));
+        return s;
+    }
+
+    /** Longest window answerable from the ring. */
+    public Duration maxWindow() {
+        return Duration.ofMillis(slots * slotMillis);
+    }
+
+    private static final class Entry {
+        final LatencyHistogram total = new LatencyHistogram();
+        final SlidingWindow<LatencyHistogram> window;
+
+        Entry(int slots, long slotMillis) {
+            this.window = new SlidingWindow<>(slots, slotMillis, LatencyHistogram::new, LatencyHistogram::reset);
+        }
+    }
+}
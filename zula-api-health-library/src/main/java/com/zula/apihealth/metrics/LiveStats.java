@@ -0,0 +1,95 @@
+package com.zula.apihealth.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live call statistics per endpoint built from striped counters ({@link LongAdder}) in a ring of
+ * short time slots, so recent windows (1m/5m/1h) are answered from memory by summing slots.
+ * Writers never block each other; readers pay one pass over the slots in the window.
+ */
+public class LiveStats {
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final int slots;
+    private final long slotMillis;
+
+    public LiveStats(int slots, Duration slotLength) {
+        this.slots = Math.max(1, slots);
+        this.slotMillis = Math.max(1000, slotLength.toMillis());
+    }
+
+    /** Count one call for the endpoint. */
+    public void record(long endpointId, boolean success, long durationMs, long nowMillis) {
+        Entry e = entries.computeIfAbsent(endpointId, k -> new Entry(slots, slotMillis));
+        Slot s = e.window.current(nowMillis);
+        s.total.increment();
+        if (success) {
+            s.success.increment();
+        } else {
+            s.failure.increment();
+        }
+        s.durationSum.add(Math.max(0, durationMs));
+        e.lastCalled.accumulate(nowMillis);
+    }
+
+    /** Totals for the endpoint over the window (clamped to the ring span); zeroes when never called. */
+    public WindowStats window(long endpointId, Duration window) {
+        WindowStats w = new WindowStats();
+        Entry e = entries.get(endpointId);
+        if (e == null) return w;
+        e.window.forEachInWindow(System.currentTimeMillis(), window.toMillis(), (s, start) -> {
+            w.total += s.total.sum();
+            w.success += s.success.sum();
+            w.failure += s.failure.sum();
+            w.durationSumMs += s.durationSum.sum();
+        });
+        long last = e.lastCalled.get();
+        w.lastCalledMillis = last == Long.MIN_VALUE ? null : last;
+        return w;
+    }
+
+    /** Longest window answerable from memory. */
+    public Duration maxWindow() {
+        return Duration.ofMillis(slots * slotMillis);
+    }
+
+    private static final class Entry {
+        final SlidingWindow<Slot> window;
+        final LongAccumulator lastCalled = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        Entry(int slots, long slotMillis) {
+            this.window = new SlidingWindow<>(slots, slotMillis, Slot::new, Slot::reset);
+        }
+    }
+
+    private static final class Slot {
+        final LongAdder total = new LongAdder();
+        final LongAdder success = new LongAdder();
+        final LongAdder failure = new LongAdder();
+        final LongAdder durationSum = new LongAdder();
+
+        void reset() {
+            total.reset();
+            success.reset();
+            failure.reset();
+            durationSum.reset();
+        }
+    }
+
+    /** Aggregated counters for one endpoint over one window. */
+    public static final class WindowStats {
+        public long total;
+        public long success;
+        public long failure;
+        public long durationSumMs;
+        // Last call seen by this instance (any time since startup), epoch millis
+        public Long lastCalledMillis;
+
+        public double avgDurationMs() {
+            return total == 0 ? 0 : (double) durationSumMs / total;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.zula.apihealth.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ring buffer of fixed-length time slots. Writers touch only the slot for the current time;
+ * a slot left over from an older lap is reset by the first writer that claims it (CAS on the slot epoch).
+ * Readers aggregate the slots that fall inside the requested window.
+ *
+ * A sample racing with the recycle of its slot may be dropped; that is the price of staying lock-free.
+ */
+public class SlidingWindow<T> {
+    private final long slotMillis;
+    private final Object[] slots;
+    private final AtomicLongArray epochs;
+    private final Consumer<T> reset;
+
+    public SlidingWindow(int slotCount, long slotMillis, Supplier<T> factory, Consumer<T> reset) {
+        this.slotMillis = slotMillis;
+        this.slots = new Object[slotCount];
+        this.epochs = new AtomicLongArray(slotCount);
+        this.reset = reset;
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = factory.get();
+            epochs.set(i, -1);
+        }
+    }
+
+    /** Slot for the current time, recycled first if it still holds an older lap. */
+    @SuppressWarnings("unchecked")
+    public T current(long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        int i = (int) (epoch % slots.length);
+        long seen = epochs.get(i);
+        if (seen != epoch && epochs.compareAndSet(i, seen, epoch)) {
+            reset.accept((T) slots[i]);
+        }
+        return (T) slots[i];
+    }
+
+    /**
+     * Visit every slot covering the last {@code windowMillis} (current slot included).
+     * The visitor receives the slot and its start time.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachInWindow(long nowMillis, long windowMillis, BiConsumer<T, Long> visitor) {
+        long current = nowMillis / slotMillis;
+        long wanted = Math.min(slots.length, Math.max(1, (windowMillis + slotMillis - 1) / slotMillis));
+        for (long epoch = current - wanted + 1; epoch <= current; epoch++) {
+            if (epoch < 0) continue;
+            int i = (int) (epoch % slots.length);
+            if (epochs.get(i) == epoch) {
+                visitor.accept((T) slots[i], epoch * slotMillis);
+            }
+        }
+    }
+
+    /** Longest window this ring can answer. */
+    public long spanMillis() {
+        return slotMillis * slots.length;
+    }
+
+    public long slotMillis() {
+        return slotMillis;
+    }
+}
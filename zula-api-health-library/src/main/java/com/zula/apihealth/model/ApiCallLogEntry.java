@@ -17,6 +17,12 @@ public class ApiCallLogEntry {
     private String traceId;
     private Boolean success;
     private String errorMessage;
+    private String urlTemplate;
+    private String direction;
+    private String inboundRequestId;
+    private Long requestHeaderSetId;
+    private Long responseHeaderSetId;
+    private Long responseBodyId;
 
     // getters and setters
     public UUID getId() { return id; }
@@ -45,4 +51,20 @@ public class ApiCallLogEntry {
     public void setSuccess(Boolean success) { this.success = success; }
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    public String getUrlTemplate() { return urlTemplate; }
+    public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+    /** {@code OUT} for outbound calls, {@code IN} for inbound requests recorded by the servlet filter. */
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+    /** Id of the enclosing inbound request (its own id on IN rows); null outside a tracked request. */
+    public String getInboundRequestId() { return inboundRequestId; }
+    public void setInboundRequestId(String inboundRequestId) { this.inboundRequestId = inboundRequestId; }
+    /** Shared header set (api_header_sets) holding the stable request headers; requestHeaders then keeps the rest. */
+    public Long getRequestHeaderSetId() { return requestHeaderSetId; }
+    public void setRequestHeaderSetId(Long requestHeaderSetId) { this.requestHeaderSetId = requestHeaderSetId; }
+    public Long getResponseHeaderSetId() { return responseHeaderSetId; }
+    public void setResponseHeaderSetId(Long responseHeaderSetId) { this.responseHeaderSetId = responseHeaderSetId; }
+    /** Stored body (api_bodies) the row points to instead of holding responseBody itself. */
+    public Long getResponseBodyId() { return responseBodyId; }
+    public void setResponseBodyId(Long responseBodyId) { this.responseBodyId = responseBodyId; }
 }
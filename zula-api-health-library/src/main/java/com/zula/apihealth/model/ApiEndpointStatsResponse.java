@@ -14,5 +14,11 @@ public class ApiEndpointStatsResponse {
     public Long successCalls;
     public Long failureCalls;
     public Double avgDurationMs;
+    // Latency percentiles from the in-memory histogram (window = latencyWindow request param)
+    public Long p50Ms;
+    public Long p90Ms;
+    public Long p99Ms;
+    public Long p999Ms;
+    public Long maxMs;
     public java.time.OffsetDateTime lastCalled;
 }
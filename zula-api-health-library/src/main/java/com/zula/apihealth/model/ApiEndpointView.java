@@ -19,9 +19,16 @@ public class ApiEndpointView {
     private Integer lastCheckStatus;
     private Boolean lastCheckSuccess;
     private String lastCheckBody;
+    private String probePath;
+    private String probeMethod;
+    private String probeExpectedStatus;
+    private String probeBodyPattern;
+    private Integer degradedThresholdMs;
+    private Integer lastCheckLatencyMs;
+    private Boolean lastCheckDegraded;
     // Derived convenience flag: true=up, false=down, null=unknown/not yet checked
     private Boolean up;
-    // Human friendly status text ("UP", "DOWN", "UNKNOWN") derived from last check
+    // Human friendly status text ("UP", "DEGRADED", "DOWN", "UNKNOWN") derived from last check
     private String healthStatus;
 
     // getters and setters
@@ -73,6 +80,27 @@ public class ApiEndpointView {
     public String getLastCheckBody() { return lastCheckBody; }
     public void setLastCheckBody(String lastCheckBody) { this.lastCheckBody = lastCheckBody; }
 
+    public String getProbePath() { return probePath; }
+    public void setProbePath(String probePath) { this.probePath = probePath; }
+
+    public String getProbeMethod() { return probeMethod; }
+    public void setProbeMethod(String probeMethod) { this.probeMethod = probeMethod; }
+
+    public String getProbeExpectedStatus() { return probeExpectedStatus; }
+    public void setProbeExpectedStatus(String probeExpectedStatus) { this.probeExpectedStatus = probeExpectedStatus; }
+
+    public String getProbeBodyPattern() { return probeBodyPattern; }
+    public void setProbeBodyPattern(String probeBodyPattern) { this.probeBodyPattern = probeBodyPattern; }
+
+    public Integer getDegradedThresholdMs() { return degradedThresholdMs; }
+    public void setDegradedThresholdMs(Integer degradedThresholdMs) { this.degradedThresholdMs = degradedThresholdMs; }
+
+    public Integer getLastCheckLatencyMs() { return lastCheckLatencyMs; }
+    public void setLastCheckLatencyMs(Integer lastCheckLatencyMs) { this.lastCheckLatencyMs = lastCheckLatencyMs; }
+
+    public Boolean getLastCheckDegraded() { return lastCheckDegraded; }
+    public void setLastCheckDegraded(Boolean lastCheckDegraded) { this.lastCheckDegraded = lastCheckDegraded; }
+
     public Boolean getUp() { return up; }
     public void setUp(Boolean up) { this.up = up; }
 
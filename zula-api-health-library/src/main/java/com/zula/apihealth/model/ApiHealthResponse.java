@@ -2,7 +2,7 @@ package com.zula.apihealth.model;
 
 /**
  * DTO for health view (/api/health/monitoring).
- * Focuses on status/up/down and last check metadata, not traffic totals.
+ * Focuses on status (UP/DEGRADED/DOWN/UNKNOWN) and last check metadata, not traffic totals.
  */
 public class ApiHealthResponse {
     public Long id;
@@ -16,6 +16,8 @@ public class ApiHealthResponse {
     public Integer lastCheckStatus;
     public Boolean lastCheckSuccess;
     public String lastCheckBody;
+    public Integer lastCheckLatencyMs;
+    public Integer degradedThresholdMs;
     public Integer pingIntervalSec;
     public Boolean activeMonitor;
 }
@@ -0,0 +1,34 @@
+package com.zula.apihealth.model;
+
+import java.util.List;
+
+/**
+ * One inbound request with the outbound calls it made (/admin/logs/inbound/{requestId}).
+ */
+public class ApiInboundRequestView {
+    private String requestId;
+    private ApiLogView request;
+    private List<ApiLogView> downstream;
+    private Integer downstreamCalls;
+    private Long downstreamMs;
+    private Double downstreamShare;
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    /** The inbound row; null when it is not (yet) written or was not captured. */
+    public ApiLogView getRequest() { return request; }
+    public void setRequest(ApiLogView request) { this.request = request; }
+
+    public List<ApiLogView> getDownstream() { return downstream; }
+    public void setDownstream(List<ApiLogView> downstream) { this.downstream = downstream; }
+
+    public Integer getDownstreamCalls() { return downstreamCalls; }
+    public void setDownstreamCalls(Integer downstreamCalls) { this.downstreamCalls = downstreamCalls; }
+
+    public Long getDownstreamMs() { return downstreamMs; }
+    public void setDownstreamMs(Long downstreamMs) { this.downstreamMs = downstreamMs; }
+
+    public Double getDownstreamShare() { return downstreamShare; }
+    public void setDownstreamShare(Double downstreamShare) { this.downstreamShare = downstreamShare; }
+}
@@ -0,0 +1,41 @@
+package com.zula.apihealth.model;
+
+/**
+ * Fan-out of one inbound route over a time window (/admin/logs/inbound/fanout): how long the route takes and
+ * how many downstream calls, and how much downstream time, each request spends on average.
+ */
+public class ApiInboundStatsView {
+    private String urlTemplate;
+    private String httpMethod;
+    private Long requests;
+    private Long failures;
+    private Double avgDurationMs;
+    private Double avgDownstreamCalls;
+    private Double avgDownstreamMs;
+    private Double downstreamShare;
+
+    public String getUrlTemplate() { return urlTemplate; }
+    public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+
+    public String getHttpMethod() { return httpMethod; }
+    public void setHttpMethod(String httpMethod) { this.httpMethod = httpMethod; }
+
+    public Long getRequests() { return requests; }
+    public void setRequests(Long requests) { this.requests = requests; }
+
+    public Long getFailures() { return failures; }
+    public void setFailures(Long failures) { this.failures = failures; }
+
+    public Double getAvgDurationMs() { return avgDurationMs; }
+    public void setAvgDurationMs(Double avgDurationMs) { this.avgDurationMs = avgDurationMs; }
+
+    public Double getAvgDownstreamCalls() { return avgDownstreamCalls; }
+    public void setAvgDownstreamCalls(Double avgDownstreamCalls) { this.avgDownstreamCalls = avgDownstreamCalls; }
+
+    public Double getAvgDownstreamMs() { return avgDownstreamMs; }
+    public void setAvgDownstreamMs(Double avgDownstreamMs) { this.avgDownstreamMs = avgDownstreamMs; }
+
+    /** Downstream time / inbound time; above 1 when downstream calls ran in parallel. */
+    public Double getDownstreamShare() { return downstreamShare; }
+    public void setDownstreamShare(Double downstreamShare) { this.downstreamShare = downstreamShare; }
+}
@@ -0,0 +1,127 @@
+package com.zula.apihealth.model;
+
+/**
+ * The library's own overhead since startup (/admin/health/internal): capture cost on caller threads, the
+ * background log writer, the ping scheduler and the startup registration scan.
+ */
+public class ApiInternalStatsView {
+    private long captures;
+    private Double avgCaptureMicros;
+    private Double maxCaptureMicros;
+    private long bytesCopied;
+    private int queueDepth;
+    private int queueCapacity;
+    private long flushes;
+    private Double avgFlushMs;
+    private Double avgBatchSize;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private long written;
+    private long dropped;
+    private long failed;
+    private long dbErrors;
+    private long headerSetCacheHits;
+    private long headerSetLookups;
+    private long bodyCacheHits;
+    private long bodyLookups;
+    private long stagingUsedBytes;
+    private long stagingCapacityBytes;
+    private long pingCycles;
+    private Double avgPingCycleMs;
+    private Double lastPingCycleMs;
+    private double startupScanMs;
+    private long scannedBeans;
+    private long registrations;
+
+    public long getCaptures() { return captures; }
+    public void setCaptures(long captures) { this.captures = captures; }
+
+    /** Time capture adds on the calling thread, excluding the network exchange itself. */
+    public Double getAvgCaptureMicros() { return avgCaptureMicros; }
+    public void setAvgCaptureMicros(Double avgCaptureMicros) { this.avgCaptureMicros = avgCaptureMicros; }
+
+    public Double getMaxCaptureMicros() { return maxCaptureMicros; }
+    public void setMaxCaptureMicros(Double maxCaptureMicros) { this.maxCaptureMicros = maxCaptureMicros; }
+
+    /** Body bytes copied into capture buffers (RestTemplate response buffering and streaming prefixes). */
+    public long getBytesCopied() { return bytesCopied; }
+    public void setBytesCopied(long bytesCopied) { this.bytesCopied = bytesCopied; }
+
+    public int getQueueDepth() { return queueDepth; }
+    public void setQueueDepth(int queueDepth) { this.queueDepth = queueDepth; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public long getFlushes() { return flushes; }
+    public void setFlushes(long flushes) { this.flushes = flushes; }
+
+    public Double getAvgFlushMs() { return avgFlushMs; }
+    public void setAvgFlushMs(Double avgFlushMs) { this.avgFlushMs = avgFlushMs; }
+
+    public Double getAvgBatchSize() { return avgBatchSize; }
+    public void setAvgBatchSize(Double avgBatchSize) { this.avgBatchSize = avgBatchSize; }
+
+    public int getLastBatchSize() { return lastBatchSize; }
+    public void setLastBatchSize(int lastBatchSize) { this.lastBatchSize = lastBatchSize; }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+    public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+
+    public long getWritten() { return written; }
+    public void setWritten(long written) { this.written = written; }
+
+    /** Entries dropped because the queue was full. */
+    public long getDropped() { return dropped; }
+    public void setDropped(long dropped) { this.dropped = dropped; }
+
+    /** Entries lost to failed batch inserts. */
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    /** Failed statements (batch inserts, header set and body lookups, passive monitor updates). */
+    public long getDbErrors() { return dbErrors; }
+    public void setDbErrors(long dbErrors) { this.dbErrors = dbErrors; }
+
+    /** Header sets of written rows found in the in-memory hash cache. */
+    public long getHeaderSetCacheHits() { return headerSetCacheHits; }
+    public void setHeaderSetCacheHits(long headerSetCacheHits) { this.headerSetCacheHits = headerSetCacheHits; }
+
+    /** Distinct header sets resolved against api_header_sets (inserted when new). */
+    public long getHeaderSetLookups() { return headerSetLookups; }
+    public void setHeaderSetLookups(long headerSetLookups) { this.headerSetLookups = headerSetLookups; }
+
+    /** Response bodies of written rows found in the hot-hash cache. */
+    public long getBodyCacheHits() { return bodyCacheHits; }
+    public void setBodyCacheHits(long bodyCacheHits) { this.bodyCacheHits = bodyCacheHits; }
+
+    /** Distinct response bodies resolved against api_bodies (inserted when new). */
+    public long getBodyLookups() { return bodyLookups; }
+    public void setBodyLookups(long bodyLookups) { this.bodyLookups = bodyLookups; }
+
+    /** Off-heap staging bytes held by queued call logs (0 when staging is off). */
+    public long getStagingUsedBytes() { return stagingUsedBytes; }
+    public void setStagingUsedBytes(long stagingUsedBytes) { this.stagingUsedBytes = stagingUsedBytes; }
+
+    public long getStagingCapacityBytes() { return stagingCapacityBytes; }
+    public void setStagingCapacityBytes(long stagingCapacityBytes) { this.stagingCapacityBytes = stagingCapacityBytes; }
+
+    public long getPingCycles() { return pingCycles; }
+    public void setPingCycles(long pingCycles) { this.pingCycles = pingCycles; }
+
+    public Double getAvgPingCycleMs() { return avgPingCycleMs; }
+    public void setAvgPingCycleMs(Double avgPingCycleMs) { this.avgPingCycleMs = avgPingCycleMs; }
+
+    public Double getLastPingCycleMs() { return lastPingCycleMs; }
+    public void setLastPingCycleMs(Double lastPingCycleMs) { this.lastPingCycleMs = lastPingCycleMs; }
+
+    /** Total time the @TrackApiEndpoint scanner spent on beans, including registry writes. */
+    public double getStartupScanMs() { return startupScanMs; }
+    public void setStartupScanMs(double startupScanMs) { this.startupScanMs = startupScanMs; }
+
+    public long getScannedBeans() { return scannedBeans; }
+    public void setScannedBeans(long scannedBeans) { this.scannedBeans = scannedBeans; }
+
+    public long getRegistrations() { return registrations; }
+    public void setRegistrations(long registrations) { this.registrations = registrations; }
+}
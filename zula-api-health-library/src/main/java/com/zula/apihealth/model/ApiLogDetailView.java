@@ -16,6 +16,8 @@ public class ApiLogDetailView {
     private Integer durationMs;
     private Boolean success;
     private String traceId;
+    private String direction;
+    private String inboundRequestId;
 
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -52,4 +54,10 @@ public class ApiLogDetailView {
 
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
+
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+
+    public String getInboundRequestId() { return inboundRequestId; }
+    public void setInboundRequestId(String inboundRequestId) { this.inboundRequestId = inboundRequestId; }
 }
@@ -7,11 +7,14 @@ public class ApiLogView {
     private UUID id;
     private OffsetDateTime timestamp;
     private String url;
+    private String urlTemplate;
     private String httpMethod;
     private Integer httpStatus;
     private Integer durationMs;
     private Boolean success;
     private String traceId;
+    private String direction;
+    private String inboundRequestId;
 
     // getters and setters
     public UUID getId() { return id; }
@@ -23,6 +26,9 @@ public class ApiLogView {
     public String getUrl() { return url; }
     public void setUrl(String url) { this.url = url; }
 
+    public String getUrlTemplate() { return urlTemplate; }
+    public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+
     public String getHttpMethod() { return httpMethod; }
     public void setHttpMethod(String httpMethod) { this.httpMethod = httpMethod; }
 
@@ -37,4 +43,10 @@ public class ApiLogView {
 
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
+
+    public String getDirection() { return direction; }
+    public void setDirection(String direction) { this.direction = direction; }
+
+    public String getInboundRequestId() { return inboundRequestId; }
+    public void setInboundRequestId(String inboundRequestId) { this.inboundRequestId = inboundRequestId; }
 }
@@ -0,0 +1,42 @@
+package com.zula.apihealth.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One row of the ping history time series (api_ping_results).
+ * failureBody is only populated for failed checks.
+ */
+public class ApiPingResultView {
+    private Long id;
+    private Long endpointId;
+    private OffsetDateTime checkedAt;
+    private Integer httpStatus;
+    private Boolean success;
+    private Integer latencyMs;
+    private String probeMethod;
+    private String failureBody;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getEndpointId() { return endpointId; }
+    public void setEndpointId(Long endpointId) { this.endpointId = endpointId; }
+
+    public OffsetDateTime getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(OffsetDateTime checkedAt) { this.checkedAt = checkedAt; }
+
+    public Integer getHttpStatus() { return httpStatus; }
+    public void setHttpStatus(Integer httpStatus) { this.httpStatus = httpStatus; }
+
+    public Boolean getSuccess() { return success; }
+    public void setSuccess(Boolean success) { this.success = success; }
+
+    public Integer getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(Integer latencyMs) { this.latencyMs = latencyMs; }
+
+    public String getProbeMethod() { return probeMethod; }
+    public void setProbeMethod(String probeMethod) { this.probeMethod = probeMethod; }
+
+    public String getFailureBody() { return failureBody; }
+    public void setFailureBody(String failureBody) { this.failureBody = failureBody; }
+}
@@ -0,0 +1,37 @@
+package com.zula.apihealth.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Call totals for one normalized URL template over a time window (/admin/logs/templates).
+ */
+public class ApiTemplateStatsView {
+    private String urlTemplate;
+    private String httpMethod;
+    private Long totalCalls;
+    private Long failureCalls;
+    private Double avgDurationMs;
+    private Integer maxDurationMs;
+    private OffsetDateTime lastCalled;
+
+    public String getUrlTemplate() { return urlTemplate; }
+    public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+
+    public String getHttpMethod() { return httpMethod; }
+    public void setHttpMethod(String httpMethod) { this.httpMethod = httpMethod; }
+
+    public Long getTotalCalls() { return totalCalls; }
+    public void setTotalCalls(Long totalCalls) { this.totalCalls = totalCalls; }
+
+    public Long getFailureCalls() { return failureCalls; }
+    public void setFailureCalls(Long failureCalls) { this.failureCalls = failureCalls; }
+
+    public Double getAvgDurationMs() { return avgDurationMs; }
+    public void setAvgDurationMs(Double avgDurationMs) { this.avgDurationMs = avgDurationMs; }
+
+    public Integer getMaxDurationMs() { return maxDurationMs; }
+    public void setMaxDurationMs(Integer maxDurationMs) { this.maxDurationMs = maxDurationMs; }
+
+    public OffsetDateTime getLastCalled() { return lastCalled; }
+    public void setLastCalled(OffsetDateTime lastCalled) { this.lastCalled = lastCalled; }
+}
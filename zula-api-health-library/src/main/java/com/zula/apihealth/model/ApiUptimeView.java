@@ -0,0 +1,65 @@
+package com.zula.apihealth.model;
+
+/**
+ * Uptime roll-up for one endpoint over a time window (/admin/health/monitoring/uptime).
+ * Latency percentiles are approximated from fixed latency buckets (upper bound of the bucket).
+ */
+public class ApiUptimeView {
+    private Long id;
+    private String name;
+    private String path;
+    private String method;
+    private String window;
+    private Long totalChecks;
+    private Long successChecks;
+    private Long failureChecks;
+    // null when no checks fell into the window
+    private Double uptimePercent;
+    private Double avgLatencyMs;
+    private Integer p50LatencyMs;
+    private Integer p95LatencyMs;
+    private Integer p99LatencyMs;
+    private Integer maxLatencyMs;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public String getWindow() { return window; }
+    public void setWindow(String window) { this.window = window; }
+
+    public Long getTotalChecks() { return totalChecks; }
+    public void setTotalChecks(Long totalChecks) { this.totalChecks = totalChecks; }
+
+    public Long getSuccessChecks() { return successChecks; }
+    public void setSuccessChecks(Long successChecks) { this.successChecks = successChecks; }
+
+    public Long getFailureChecks() { return failureChecks; }
+    public void setFailureChecks(Long failureChecks) { this.failureChecks = failureChecks; }
+
+    public Double getUptimePercent() { return uptimePercent; }
+    public void setUptimePercent(Double uptimePercent) { this.uptimePercent = uptimePercent; }
+
+    public Double getAvgLatencyMs() { return avgLatencyMs; }
+    public void setAvgLatencyMs(Double avgLatencyMs) { this.avgLatencyMs = avgLatencyMs; }
+
+    public Integer getP50LatencyMs() { return p50LatencyMs; }
+    public void setP50LatencyMs(Integer p50LatencyMs) { this.p50LatencyMs = p50LatencyMs; }
+
+    public Integer getP95LatencyMs() { return p95LatencyMs; }
+    public void setP95LatencyMs(Integer p95LatencyMs) { this.p95LatencyMs = p95LatencyMs; }
+
+    public Integer getP99LatencyMs() { return p99LatencyMs; }
+    public void setP99LatencyMs(Integer p99LatencyMs) { this.p99LatencyMs = p99LatencyMs; }
+
+    public Integer getMaxLatencyMs() { return maxLatencyMs; }
+    public void setMaxLatencyMs(Integer maxLatencyMs) { this.maxLatencyMs = maxLatencyMs; }
+}
@@ -0,0 +1,33 @@
+package com.zula.apihealth.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the in-memory latency histogram of one endpoint (/admin/health/endpoints/{id}/latency).
+ * Only non-empty buckets are listed; bounds are inclusive milliseconds.
+ */
+public class LatencyHistogramView {
+    public Long endpointId;
+    public String window;
+    public Long count;
+    public Double meanMs;
+    public Long p50Ms;
+    public Long p90Ms;
+    public Long p99Ms;
+    public Long p999Ms;
+    public Long maxMs;
+    public List<Bucket> buckets = new ArrayList<>();
+
+    public static class Bucket {
+        public long fromMs;
+        public long toMs;
+        public long count;
+
+        public Bucket(long fromMs, long toMs, long count) {
+            this.fromMs = fromMs;
+            this.toMs = toMs;
+            this.count = count;
+        }
+    }
+}
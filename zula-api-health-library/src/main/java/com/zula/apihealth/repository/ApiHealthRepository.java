@@ -3,19 +3,29 @@ package com.zula.apihealth.repository;
 import com.zula.apihealth.config.ApiHealthProperties;
 import com.zula.apihealth.model.ApiCallLogEntry;
 import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.model.ApiInboundStatsView;
 import com.zula.apihealth.model.ApiLogDetailView;
 import com.zula.apihealth.model.ApiLogView;
+import com.zula.apihealth.model.ApiPingResultView;
+import com.zula.apihealth.model.ApiTemplateStatsView;
+import com.zula.apihealth.model.ApiUptimeView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -24,6 +34,14 @@ import java.util.UUID;
  */
 public class ApiHealthRepository {
     private static final Logger log = LoggerFactory.getLogger(ApiHealthRepository.class);
+    /** Upper bounds (ms) of the latency buckets used for ping percentiles; last bucket is open-ended. */
+    private static final int[] LATENCY_BUCKETS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 20000, 30000};
+    private static final String REGISTRY_MONITOR_COLUMNS = "r.probe_path, r.probe_method, r.probe_expected_status, r.probe_body_pattern, " +
+            "r.degraded_threshold_ms, r.last_check_latency_ms, r.last_check_degraded, ";
+    /** Outbound call rows (rows written before direction existed have it null). */
+    private static final String OUTBOUND = "(direction IS NULL OR direction <> 'IN')";
+    /** Templates under one endpoint read one by one through the template index; more share one range read. */
+    private static final int MAX_TEMPLATE_BRANCHES = 20;
     private final JdbcTemplate jdbcTemplate;
     private final ApiHealthProperties properties;
     private final String schema;
@@ -50,24 +68,45 @@ public class ApiHealthRepository {
 
     /**
      * Upsert an endpoint definition; if tables/columns are missing they are created and the insert retried.
+     * An existing row keeps its probe definition and degraded threshold.
      */
     public void registerEndpointIfAbsent(String name, String path, String method, String description,
                                          Integer pingIntervalSec, Boolean activeMonitor) {
-        String sql = insertSql();
+        register(insertSql(false), name, path, method, description, pingIntervalSec, activeMonitor, null, null, null, null, null);
+    }
+
+    /**
+     * Upsert an endpoint definition including its probe definition and degraded threshold. The definition
+     * replaces the stored one as a whole, so a field removed from the annotation (null) is cleared.
+     */
+    public void registerEndpointIfAbsent(String name, String path, String method, String description,
+                                         Integer pingIntervalSec, Boolean activeMonitor,
+                                         String probePath, String probeMethod, String probeExpectedStatus, String probeBodyPattern,
+                                         Integer degradedThresholdMs) {
+        register(insertSql(true), name, path, method, description, pingIntervalSec, activeMonitor,
+                probePath, probeMethod, probeExpectedStatus, probeBodyPattern, degradedThresholdMs);
+    }
+
+    private void register(String sql, String name, String path, String method, String description,
+                          Integer pingIntervalSec, Boolean activeMonitor,
+                          String probePath, String probeMethod, String probeExpectedStatus, String probeBodyPattern,
+                          Integer degradedThresholdMs) {
+        Object[] args = {name, path, method, description, pingIntervalSec, activeMonitor,
+                probePath, probeMethod, probeExpectedStatus, probeBodyPattern, degradedThresholdMs};
         try {
-            jdbcTemplate.update(sql, name, path, method, description, pingIntervalSec, activeMonitor);
+            jdbcTemplate.update(sql, args);
             return;
         } catch (org.springframework.jdbc.BadSqlGrammarException ex) {
             addMonitorColumns();
-            jdbcTemplate.update(sql, name, path, method, description, pingIntervalSec, activeMonitor);
+            jdbcTemplate.update(sql, args);
             return;
         } catch (org.springframework.dao.DataAccessException ex) {
             if (isMissingTable(ex)) {
                 ensureTables();
-                jdbcTemplate.update(sql, name, path, method, description, pingIntervalSec, activeMonitor);
+                jdbcTemplate.update(sql, args);
             } else {
                 addMonitorColumns();
-                jdbcTemplate.update(sql, name, path, method, description, pingIntervalSec, activeMonitor);
+                jdbcTemplate.update(sql, args);
             }
         }
     }
@@ -83,18 +122,37 @@ public class ApiHealthRepository {
      * @param statuses optional list of last_check_status to include
      */
     public List<ApiEndpointView> listEndpointsWithStats(String filter, String from, String to, String sort, boolean desc, Boolean onlyActive, List<Integer> statuses) {
+        // Call totals are grouped per stored template (raw URL for rows without one) before the prefix join,
+        // so the log table is read once instead of once per registry row. Same match key as getEndpointWithStats.
+        List<Object> params = new ArrayList<>();
+        List<String> window = new ArrayList<>();
+        window.add(OUTBOUND);
+        if (from != null && !from.isBlank()) {
+            window.add("timestamp >= ?");
+            params.add(parse(from));
+        }
+        if (to != null && !to.isBlank()) {
+            window.add("timestamp <= ?");
+            params.add(parse(to));
+        }
         String base = "SELECT r.id, r.name, r.path, r.http_method, r.description, " +
                 "r.ping_interval_sec, r.active_monitor, r.last_check_time, r.last_check_status, r.last_check_success, r.last_check_body, " +
-                "COALESCE(COUNT(l.id),0) AS total_calls, " +
-                "COALESCE(SUM(CASE WHEN l.success THEN 1 ELSE 0 END),0) AS success_calls, " +
-                "COALESCE(SUM(CASE WHEN NOT l.success THEN 1 ELSE 0 END),0) AS failure_calls, " +
-                "COALESCE(AVG(l.duration_ms),0) AS avg_duration_ms, " +
-                "MAX(l.timestamp) AS last_called " +
+                REGISTRY_MONITOR_COLUMNS +
+                "COALESCE(SUM(a.calls),0) AS total_calls, " +
+                "COALESCE(SUM(a.successes),0) AS success_calls, " +
+                "COALESCE(SUM(a.failures),0) AS failure_calls, " +
+                "COALESCE(SUM(a.duration_sum) * 1.0 / SUM(a.calls),0) AS avg_duration_ms, " +
+                "MAX(a.last_called) AS last_called " +
                 "FROM " + schema + ".api_endpoint_registry r " +
-                "LEFT JOIN " + schema + ".api_call_logs l ON l.url LIKE CONCAT(r.path, '%') ";
+                "LEFT JOIN (SELECT COALESCE(url_template, url) AS match_key, COUNT(*) AS calls, " +
+                "SUM(CASE WHEN success THEN 1 ELSE 0 END) AS successes, " +
+                "SUM(CASE WHEN NOT success THEN 1 ELSE 0 END) AS failures, " +
+                "SUM(duration_ms) AS duration_sum, MAX(timestamp) AS last_called " +
+                "FROM " + schema + ".api_call_logs " +
+                "WHERE " + String.join(" AND ", window) + " " +
+                "GROUP BY COALESCE(url_template, url)) a ON a.match_key LIKE CONCAT(r.path, '%') ";
 
         StringBuilder where = new StringBuilder();
-        List<Object> params = new ArrayList<>();
         appendFilters(where, params, filter, from, to, onlyActive, statuses);
 
         String order = buildOrder(sort, desc);
@@ -102,17 +160,18 @@ public class ApiHealthRepository {
         return jdbcTemplate.query(sql, params.toArray(), endpointMapper);
     }
 
-    /** Fetch one endpoint (with stats) by id. */
+    /** Fetch one endpoint (with stats) by id; calls match like in {@link #listEndpointsWithStats}. */
     public ApiEndpointView getEndpointWithStats(long id) {
         String sql = "SELECT r.id, r.name, r.path, r.http_method, r.description, " +
                 "r.ping_interval_sec, r.active_monitor, r.last_check_time, r.last_check_status, r.last_check_success, r.last_check_body, " +
+                REGISTRY_MONITOR_COLUMNS +
                 "COALESCE(COUNT(l.id),0) AS total_calls, " +
                 "COALESCE(SUM(CASE WHEN l.success THEN 1 ELSE 0 END),0) AS success_calls, " +
                 "COALESCE(SUM(CASE WHEN NOT l.success THEN 1 ELSE 0 END),0) AS failure_calls, " +
                 "COALESCE(AVG(l.duration_ms),0) AS avg_duration_ms, " +
                 "MAX(l.timestamp) AS last_called " +
                 "FROM " + schema + ".api_endpoint_registry r " +
-                "LEFT JOIN " + schema + ".api_call_logs l ON l.url LIKE CONCAT(r.path, '%') " +
+                "LEFT JOIN " + schema + ".api_call_logs l ON COALESCE(l.url_template, l.url) LIKE CONCAT(r.path, '%') AND " + OUTBOUND + " " +
                 "WHERE r.id = ? " +
                 "GROUP BY r.id, r.name, r.path, r.http_method, r.description";
         List<ApiEndpointView> list = jdbcTemplate.query(sql, endpointMapper, id);
@@ -121,55 +180,290 @@ public class ApiHealthRepository {
 
     /** Recent logs capped by limit. */
     public List<ApiLogView> recentLogs(int limit) {
-        String sql = "SELECT id, timestamp, url, http_method, http_status, duration_ms, success, trace_id " +
+        String sql = "SELECT id, timestamp, url, url_template, http_method, http_status, duration_ms, success, trace_id, direction, inbound_request_id " +
                 "FROM " + schema + ".api_call_logs ORDER BY timestamp DESC LIMIT ?";
         return jdbcTemplate.query(sql, logMapper, limit);
     }
 
-    /** Logs filtered by URL prefix. */
+    /** Outbound logs filtered by URL prefix. */
     public List<ApiLogView> logsByEndpoint(String endpointLike, int limit) {
-        String sql = "SELECT id, timestamp, url, http_method, http_status, duration_ms, success, trace_id " +
-                "FROM " + schema + ".api_call_logs WHERE url LIKE CONCAT(?, '%') ORDER BY timestamp DESC LIMIT ?";
+        String sql = "SELECT id, timestamp, url, url_template, http_method, http_status, duration_ms, success, trace_id, direction, inbound_request_id " +
+                "FROM " + schema + ".api_call_logs WHERE url LIKE CONCAT(?, '%') AND " + OUTBOUND + " ORDER BY timestamp DESC LIMIT ?";
         return jdbcTemplate.query(sql, logMapper, endpointLike, limit);
     }
 
-    /** Detailed logs filtered by trace id (includes request/response headers and bodies). */
+    /** Logs for one normalized URL template (uses the template/time index). */
+    public List<ApiLogView> logsByTemplate(String urlTemplate, int limit) {
+        String sql = "SELECT id, timestamp, url, url_template, http_method, http_status, duration_ms, success, trace_id, direction, inbound_request_id " +
+                "FROM " + schema + ".api_call_logs WHERE url_template = ? ORDER BY timestamp DESC LIMIT ?";
+        return jdbcTemplate.query(sql, logMapper, urlTemplate, limit);
+    }
+
+    /** Call totals per URL template and method since {@code from}, busiest first. */
+    public List<ApiTemplateStatsView> templateStatsSince(OffsetDateTime from, int limit) {
+        String sql = "SELECT url_template, http_method, COUNT(*) AS total_calls, " +
+                "COALESCE(SUM(CASE WHEN NOT success THEN 1 ELSE 0 END),0) AS failure_calls, " +
+                "AVG(duration_ms) AS avg_duration_ms, MAX(duration_ms) AS max_duration_ms, MAX(timestamp) AS last_called " +
+                "FROM " + schema + ".api_call_logs WHERE timestamp >= ? AND url_template IS NOT NULL AND " + OUTBOUND + " " +
+                "GROUP BY url_template, http_method ORDER BY total_calls DESC LIMIT ?";
+        return jdbcTemplate.query(sql, templateStatsMapper, from, limit);
+    }
+
+    /** One inbound request and the outbound calls it made, oldest first (uses the inbound request index). */
+    public List<ApiLogView> logsByInboundRequest(String requestId, int limit) {
+        String sql = "SELECT id, timestamp, url, url_template, http_method, http_status, duration_ms, success, trace_id, direction, inbound_request_id " +
+                "FROM " + schema + ".api_call_logs WHERE inbound_request_id = ? ORDER BY timestamp ASC LIMIT ?";
+        return jdbcTemplate.query(sql, logMapper, requestId, limit);
+    }
+
+    /** Per inbound route since {@code from}: duration plus average downstream fan-out and time, busiest first. */
+    public List<ApiInboundStatsView> inboundStatsSince(OffsetDateTime from, int limit) {
+        String sql = "SELECT i.url_template, i.http_method, COUNT(*) AS requests, " +
+                "COALESCE(SUM(CASE WHEN NOT i.success THEN 1 ELSE 0 END),0) AS failures, " +
+                "AVG(i.duration_ms) AS avg_duration_ms, " +
+                "AVG(COALESCE(o.calls,0)) AS avg_downstream_calls, " +
+                "AVG(COALESCE(o.total_ms,0)) AS avg_downstream_ms " +
+                "FROM " + schema + ".api_call_logs i " +
+                "LEFT JOIN (SELECT inbound_request_id, COUNT(*) AS calls, SUM(duration_ms) AS total_ms " +
+                "FROM " + schema + ".api_call_logs WHERE timestamp >= ? AND direction = 'OUT' AND inbound_request_id IS NOT NULL " +
+                "GROUP BY inbound_request_id) o ON o.inbound_request_id = i.inbound_request_id " +
+                "WHERE i.timestamp >= ? AND i.direction = 'IN' " +
+                "GROUP BY i.url_template, i.http_method ORDER BY requests DESC LIMIT ?";
+        return jdbcTemplate.query(sql, inboundStatsMapper, from, from, limit);
+    }
+
+    /**
+     * Detailed logs filtered by trace id (includes request/response headers and bodies); uses the trace_id index.
+     * Shared header sets and stored bodies are joined by primary key and merged back with what the row keeps.
+     */
     public List<ApiLogDetailView> logDetailsByTraceId(String traceId, int limit) {
-        String sql = "SELECT id, timestamp, url, http_method, request_headers, request_body, response_headers, response_body, " +
-                "http_status, duration_ms, success, trace_id " +
-                "FROM " + schema + ".api_call_logs WHERE trace_id = ? ORDER BY timestamp DESC LIMIT ?";
+        String sql = "SELECT l.id, l.timestamp, l.url, l.http_method, l.request_headers, hq.headers AS request_header_set, " +
+                "l.request_body, l.response_headers, hs.headers AS response_header_set, COALESCE(l.response_body, b.body) AS response_body, " +
+                "l.http_status, l.duration_ms, l.success, l.trace_id, l.direction, l.inbound_request_id " +
+                "FROM " + schema + ".api_call_logs l " +
+                "LEFT JOIN " + schema + ".api_header_sets hq ON hq.id = l.request_header_set_id " +
+                "LEFT JOIN " + schema + ".api_header_sets hs ON hs.id = l.response_header_set_id " +
+                "LEFT JOIN " + schema + ".api_bodies b ON b.id = l.response_body_id " +
+                "WHERE l.trace_id = ? ORDER BY l.timestamp DESC LIMIT ?";
         return jdbcTemplate.query(sql, logDetailMapper, traceId, limit);
     }
 
-    /** Logs tied to an endpoint by matching URL prefix via endpoint id. */
+    /**
+     * Outbound logs of one endpoint, matched like {@link #listEndpointsWithStats}: COALESCE(url_template, url)
+     * starts with the registered path. The templates under the path are found by seeking the template index and
+     * each is read newest first through it, plus rows written before templates existed; an idle endpoint
+     * therefore reads nothing, and a busy one does not sort all of its history.
+     */
     public List<ApiLogView> logsForEndpointId(long endpointId, int limit) {
-        String sql = "SELECT l.id, l.timestamp, l.url, l.http_method, l.http_status, l.duration_ms, l.success, l.trace_id " +
-                "FROM " + schema + ".api_call_logs l " +
-                "JOIN " + schema + ".api_endpoint_registry r ON l.url LIKE CONCAT(r.path, '%') " +
-                "WHERE r.id = ? ORDER BY l.timestamp DESC LIMIT ?";
-        return jdbcTemplate.query(sql, logMapper, endpointId, limit);
+        List<String> paths = jdbcTemplate.queryForList("SELECT path FROM " + schema + ".api_endpoint_registry WHERE id = ?",
+                String.class, endpointId);
+        if (paths.isEmpty()) return List.of();
+        String prefix = paths.get(0) + "%";
+        List<String> templates = templatesUnder(paths.get(0));
+        String columns = "SELECT id, timestamp, url, url_template, http_method, http_status, duration_ms, success, trace_id, direction, inbound_request_id " +
+                "FROM " + schema + ".api_call_logs ";
+        StringBuilder sql = new StringBuilder("SELECT * FROM (");
+        List<Object> params = new ArrayList<>();
+        if (templates != null) {
+            for (String t : templates) {
+                // url_template is fixed here; naming it lets the index be read in order instead of sorted
+                sql.append('(').append(columns).append("WHERE url_template = ? AND ").append(OUTBOUND)
+                        .append(" ORDER BY url_template, timestamp DESC LIMIT ?) UNION ALL ");
+                params.add(t);
+                params.add(limit);
+            }
+        } else {
+            sql.append('(').append(columns).append("WHERE url_template LIKE ? AND ").append(OUTBOUND)
+                    .append(" ORDER BY timestamp DESC LIMIT ?) UNION ALL ");
+            params.add(prefix);
+            params.add(limit);
+        }
+        sql.append('(').append(columns).append("WHERE url_template IS NULL AND url LIKE ? AND ").append(OUTBOUND)
+                .append(" ORDER BY timestamp DESC LIMIT ?)) l ORDER BY timestamp DESC LIMIT ?");
+        params.add(prefix);
+        params.add(limit);
+        params.add(limit);
+        return jdbcTemplate.query(sql.toString(), logMapper, params.toArray());
+    }
+
+    /**
+     * Distinct url_template values starting with {@code path}, one index seek each (a loose index scan, which
+     * SELECT DISTINCT does not get); null when there are more than {@link #MAX_TEMPLATE_BRANCHES} or the path
+     * holds LIKE wildcards that a literal prefix would not honour.
+     */
+    private List<String> templatesUnder(String path) {
+        if (path.indexOf('%') >= 0 || path.indexOf('_') >= 0) return null;
+        String seek = "SELECT url_template FROM " + schema + ".api_call_logs WHERE url_template ";
+        String order = " ? ORDER BY url_template LIMIT 1";
+        List<String> templates = new ArrayList<>();
+        List<String> next = jdbcTemplate.queryForList(seek + ">=" + order, String.class, path);
+        while (!next.isEmpty() && next.get(0).startsWith(path)) {
+            if (templates.size() == MAX_TEMPLATE_BRANCHES) return null;
+            templates.add(next.get(0));
+            next = jdbcTemplate.queryForList(seek + ">" + order, String.class, next.get(0));
+        }
+        return templates;
     }
 
     /** Persist a single API call log entry. */
     public void insertLog(ApiCallLogEntry entry) {
+        insertLogs(List.of(entry));
+    }
+
+    /** Persist a batch of API call log entries in one JDBC batch. */
+    public void insertLogs(List<ApiCallLogEntry> entries) {
+        if (entries.isEmpty()) return;
         String sql = "INSERT INTO " + schema + ".api_call_logs " +
-                "(id, timestamp, url, http_method, request_headers, request_body, response_headers, response_body, http_status, duration_ms, trace_id, success, error_message) " +
-                "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?)";
-        Object idParam = postgres ? entry.getId() : entry.getId().toString();
-        jdbcTemplate.update(sql,
-                idParam,
-                entry.getTimestamp(),
-                entry.getUrl(),
-                entry.getHttpMethod(),
-                entry.getRequestHeaders(),
-                entry.getRequestBody(),
-                entry.getResponseHeaders(),
-                entry.getResponseBody(),
-                entry.getHttpStatus(),
-                entry.getDurationMs(),
-                entry.getTraceId(),
-                entry.getSuccess(),
-                entry.getErrorMessage());
+                "(id, timestamp, url, http_method, request_headers, request_body, response_headers, response_body, http_status, duration_ms, trace_id, success, error_message, url_template, direction, inbound_request_id, " +
+                "request_header_set_id, response_header_set_id, response_body_id) " +
+                "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (ApiCallLogEntry entry : entries) {
+            Object idParam = postgres ? entry.getId() : entry.getId().toString();
+            rows.add(new Object[]{
+                    idParam,
+                    entry.getTimestamp(),
+                    entry.getUrl(),
+                    entry.getHttpMethod(),
+                    entry.getRequestHeaders(),
+                    entry.getRequestBody(),
+                    entry.getResponseHeaders(),
+                    entry.getResponseBodyId() != null ? null : entry.getResponseBody(),
+                    entry.getHttpStatus(),
+                    entry.getDurationMs(),
+                    entry.getTraceId(),
+                    entry.getSuccess(),
+                    entry.getErrorMessage(),
+                    entry.getUrlTemplate(),
+                    entry.getDirection(),
+                    entry.getInboundRequestId(),
+                    entry.getRequestHeaderSetId(),
+                    entry.getResponseHeaderSetId(),
+                    entry.getResponseBodyId()});
+        }
+        try {
+            jdbcTemplate.batchUpdate(sql, rows);
+        } catch (org.springframework.jdbc.BadSqlGrammarException ex) {
+            // Log table predates url_template/direction/header sets/bodies; add them and retry once
+            addLogColumns();
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    /**
+     * Ids of the header sets stored under {@code headersByHash} (SHA-256 hex to canonical header string),
+     * inserting the ones not stored yet. A set inserted concurrently by another instance is picked up by its
+     * unique hash.
+     */
+    public Map<String, Long> resolveHeaderSets(Map<String, String> headersByHash) {
+        return resolveByHash("api_header_sets", "set_hash", "headers", headersByHash);
+    }
+
+    /** Ids of the bodies stored under {@code bodiesByHash}, inserting new ones with no references yet. */
+    public Map<String, Long> resolveBodies(Map<String, String> bodiesByHash) {
+        return resolveByHash("api_bodies", "body_hash", "body", bodiesByHash);
+    }
+
+    /**
+     * Count {@code refs} more references (body id to rows) and mark the bodies used at {@code now}.
+     * Returns the ids that no longer exist (removed by retention since they were looked up).
+     */
+    public List<Long> addBodyReferences(Map<Long, Integer> refs, OffsetDateTime now) {
+        List<Long> ids = new ArrayList<>(refs.keySet());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{refs.get(id), now, id});
+        }
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE " + schema + ".api_bodies SET ref_count = ref_count + ?, last_used = ? WHERE id = ?", rows);
+        List<Long> gone = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            // SUCCESS_NO_INFO (-2) from rewritten batches counts as found
+            if (updated[i] == 0) gone.add(ids.get(i));
+        }
+        return gone;
+    }
+
+    /** Undo {@link #addBodyReferences} for rows that were not written. */
+    public void releaseBodyReferences(Map<Long, Integer> refs) {
+        List<Object[]> rows = new ArrayList<>(refs.size());
+        for (Map.Entry<Long, Integer> e : refs.entrySet()) {
+            rows.add(new Object[]{e.getValue(), e.getKey()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE " + schema + ".api_bodies SET ref_count = ref_count - ? WHERE id = ?", rows);
+    }
+
+    /**
+     * Call log retention: delete rows older than {@code cutoff}, release their body references and drop bodies
+     * no row references any more (and unused since the cutoff). Returns log rows removed.
+     */
+    public int deleteLogsBefore(OffsetDateTime cutoff) {
+        try {
+            return deleteLogsBeforeOnce(cutoff);
+        } catch (org.springframework.jdbc.BadSqlGrammarException ex) {
+            addLogColumns();
+            return deleteLogsBeforeOnce(cutoff);
+        }
+    }
+
+    private int deleteLogsBeforeOnce(OffsetDateTime cutoff) {
+        List<Object[]> released = new ArrayList<>();
+        jdbcTemplate.query("SELECT response_body_id, COUNT(*) AS refs FROM " + schema + ".api_call_logs " +
+                "WHERE timestamp < ? AND response_body_id IS NOT NULL GROUP BY response_body_id", rs -> {
+            released.add(new Object[]{rs.getLong("refs"), rs.getLong("response_body_id")});
+        }, cutoff);
+        int removed = jdbcTemplate.update("DELETE FROM " + schema + ".api_call_logs WHERE timestamp < ?", cutoff);
+        if (!released.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + schema + ".api_bodies SET ref_count = ref_count - ? WHERE id = ?", released);
+        }
+        jdbcTemplate.update("DELETE FROM " + schema + ".api_bodies WHERE ref_count <= 0 AND last_used < ?", cutoff);
+        return removed;
+    }
+
+    private Map<String, Long> resolveByHash(String table, String hashColumn, String valueColumn, Map<String, String> valuesByHash) {
+        if (valuesByHash.isEmpty()) return new HashMap<>();
+        try {
+            return resolveByHashOnce(table, hashColumn, valueColumn, valuesByHash);
+        } catch (org.springframework.jdbc.BadSqlGrammarException ex) {
+            addLogColumns();
+            return resolveByHashOnce(table, hashColumn, valueColumn, valuesByHash);
+        }
+    }
+
+    private Map<String, Long> resolveByHashOnce(String table, String hashColumn, String valueColumn, Map<String, String> valuesByHash) {
+        Map<String, Long> ids = idsByHash(table, hashColumn, valuesByHash.keySet());
+        if (ids.size() == valuesByHash.size()) return ids;
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, String> e : valuesByHash.entrySet()) {
+            if (ids.containsKey(e.getKey())) continue;
+            missing.add(e.getKey());
+            // New values are rare once the cache is warm; a plain insert per value stays portable
+            try {
+                jdbcTemplate.update("INSERT INTO " + schema + "." + table + " (" + hashColumn + ", " + valueColumn + ") VALUES (?,?)",
+                        e.getKey(), e.getValue());
+            } catch (org.springframework.dao.DuplicateKeyException raced) {
+                log.debug("{} {} inserted concurrently", table, e.getKey());
+            }
+        }
+        ids.putAll(idsByHash(table, hashColumn, missing));
+        return ids;
+    }
+
+    private Map<String, Long> idsByHash(String table, String hashColumn, java.util.Collection<String> hashes) {
+        String placeholders = String.join(",", Collections.nCopies(hashes.size(), "?"));
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT " + hashColumn + ", id FROM " + schema + "." + table + " WHERE " + hashColumn + " IN (" + placeholders + ")",
+                rs -> {
+                    ids.put(rs.getString(hashColumn), rs.getLong("id"));
+                }, hashes.toArray());
+        return ids;
+    }
+
+    /** Shared header set and the headers kept on the row, back in one string of the format they were captured in. */
+    private static String joinHeaders(String shared, String own) {
+        if (shared == null) return own;
+        if (own == null || own.length() <= 2) return shared;
+        if (shared.length() <= 2) return own;
+        return shared.substring(0, shared.length() - 1) + ", " + own.substring(1);
     }
 
     private final RowMapper<ApiEndpointView> endpointMapper = new RowMapper<ApiEndpointView>() {
@@ -187,6 +481,13 @@ public class ApiHealthRepository {
             v.setLastCheckStatus((Integer) rs.getObject("last_check_status"));
             v.setLastCheckSuccess((Boolean) rs.getObject("last_check_success"));
             v.setLastCheckBody(rs.getString("last_check_body"));
+            v.setProbePath(rs.getString("probe_path"));
+            v.setProbeMethod(rs.getString("probe_method"));
+            v.setProbeExpectedStatus(rs.getString("probe_expected_status"));
+            v.setProbeBodyPattern(rs.getString("probe_body_pattern"));
+            v.setDegradedThresholdMs(rs.getObject("degraded_threshold_ms") == null ? null : rs.getInt("degraded_threshold_ms"));
+            v.setLastCheckLatencyMs(rs.getObject("last_check_latency_ms") == null ? null : rs.getInt("last_check_latency_ms"));
+            v.setLastCheckDegraded(rs.getObject("last_check_degraded") == null ? null : rs.getBoolean("last_check_degraded"));
             v.setTotalCalls(rs.getLong("total_calls"));
             v.setSuccessCalls(rs.getLong("success_calls"));
             v.setFailureCalls(rs.getLong("failure_calls"));
@@ -200,7 +501,13 @@ public class ApiHealthRepository {
             } else {
                 v.setUp(null);
             }
-            v.setHealthStatus(v.getUp() == null ? "UNKNOWN" : (v.getUp() ? "UP" : "DOWN"));
+            if (v.getUp() == null) {
+                v.setHealthStatus("UNKNOWN");
+            } else if (!v.getUp()) {
+                v.setHealthStatus("DOWN");
+            } else {
+                v.setHealthStatus(Boolean.TRUE.equals(v.getLastCheckDegraded()) ? "DEGRADED" : "UP");
+            }
             return v;
         }
     };
@@ -212,11 +519,14 @@ public class ApiHealthRepository {
             v.setId(UUID.fromString(rs.getString("id")));
             v.setTimestamp(rs.getTimestamp("timestamp").toInstant().atZone(zone).toOffsetDateTime());
             v.setUrl(rs.getString("url"));
+            v.setUrlTemplate(rs.getString("url_template"));
             v.setHttpMethod(rs.getString("http_method"));
             v.setHttpStatus(rs.getObject("http_status") == null ? null : rs.getInt("http_status"));
             v.setDurationMs(rs.getObject("duration_ms") == null ? null : rs.getInt("duration_ms"));
             v.setSuccess(rs.getObject("success") == null ? null : rs.getBoolean("success"));
             v.setTraceId(rs.getString("trace_id"));
+            v.setDirection(rs.getString("direction"));
+            v.setInboundRequestId(rs.getString("inbound_request_id"));
             return v;
         }
     };
@@ -229,25 +539,52 @@ public class ApiHealthRepository {
             v.setTimestamp(rs.getTimestamp("timestamp").toInstant().atZone(zone).toOffsetDateTime());
             v.setUrl(rs.getString("url"));
             v.setHttpMethod(rs.getString("http_method"));
-            v.setRequestHeaders(rs.getString("request_headers"));
+            v.setRequestHeaders(joinHeaders(rs.getString("request_header_set"), rs.getString("request_headers")));
             v.setRequestBody(rs.getString("request_body"));
-            v.setResponseHeaders(rs.getString("response_headers"));
+            v.setResponseHeaders(joinHeaders(rs.getString("response_header_set"), rs.getString("response_headers")));
             v.setResponseBody(rs.getString("response_body"));
             v.setHttpStatus(rs.getObject("http_status") == null ? null : rs.getInt("http_status"));
             v.setDurationMs(rs.getObject("duration_ms") == null ? null : rs.getInt("duration_ms"));
             v.setSuccess(rs.getObject("success") == null ? null : rs.getBoolean("success"));
             v.setTraceId(rs.getString("trace_id"));
+            v.setDirection(rs.getString("direction"));
+            v.setInboundRequestId(rs.getString("inbound_request_id"));
             return v;
         }
     };
 
+    /** Every registry row without call stats; feeds the in-memory endpoint matcher. */
+    public List<ApiEndpointView> registeredEndpoints() {
+        try {
+            return jdbcTemplate.query(registrySelect(), endpointMapper);
+        } catch (org.springframework.jdbc.BadSqlGrammarException ex) {
+            ensureTables();
+            addMonitorColumns();
+            return jdbcTemplate.query(registrySelect(), endpointMapper);
+        }
+    }
+
+    /**
+     * Current last_check_time per registry id. Refreshed by probes, passive traffic and other replicas, so the
+     * scheduler re-checks candidates against it before probing.
+     */
+    public Map<Long, OffsetDateTime> lastCheckTimes(Collection<Long> ids) {
+        Map<Long, OffsetDateTime> times = new HashMap<>();
+        if (ids.isEmpty()) {
+            return times;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, last_check_time FROM " + schema + ".api_endpoint_registry WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    Timestamp t = rs.getTimestamp("last_check_time");
+                    if (t != null) times.put(rs.getLong("id"), t.toInstant().atZone(zone).toOffsetDateTime());
+                }, ids.toArray());
+        return times;
+    }
+
     /** Active monitor endpoints with ping interval >0. */
     public List<ApiEndpointView> endpointsMarkedForPing() {
-        String sql = "SELECT r.id, r.name, r.path, r.http_method, r.description, " +
-                "r.ping_interval_sec, r.active_monitor, r.last_check_time, r.last_check_status, r.last_check_success, r.last_check_body, " +
-                "0 AS total_calls, 0 AS success_calls, 0 AS failure_calls, 0 AS avg_duration_ms, r.last_check_time AS last_called " +
-                "FROM " + schema + ".api_endpoint_registry r " +
-                "WHERE r.active_monitor = TRUE AND r.ping_interval_sec > 0";
+        String sql = registrySelect() + "WHERE r.active_monitor = TRUE AND r.ping_interval_sec > 0";
         try {
             List<ApiEndpointView> list = jdbcTemplate.query(sql, endpointMapper);
             if (log.isDebugEnabled()) {
@@ -265,20 +602,40 @@ public class ApiHealthRepository {
         }
     }
 
+    private String registrySelect() {
+        return "SELECT r.id, r.name, r.path, r.http_method, r.description, " +
+                "r.ping_interval_sec, r.active_monitor, r.last_check_time, r.last_check_status, r.last_check_success, r.last_check_body, " +
+                REGISTRY_MONITOR_COLUMNS +
+                "0 AS total_calls, 0 AS success_calls, 0 AS failure_calls, 0 AS avg_duration_ms, r.last_check_time AS last_called " +
+                "FROM " + schema + ".api_endpoint_registry r ";
+    }
+
     public void updateMonitorStatus(long id, int status, boolean success, String body, OffsetDateTime checkedAt) {
         jdbcTemplate.update("UPDATE " + schema + ".api_endpoint_registry SET " +
                         "last_check_status=?, last_check_success=?, last_check_body=?, last_check_time=? WHERE id=?",
                 status, success, body, checkedAt, id);
     }
 
+    /** Same as {@link #updateMonitorStatus(long, int, boolean, String, OffsetDateTime)} plus latency and degraded flag. */
+    public void updateMonitorStatus(long id, int status, boolean success, String body, OffsetDateTime checkedAt,
+                                    Integer latencyMs, boolean degraded) {
+        jdbcTemplate.update("UPDATE " + schema + ".api_endpoint_registry SET " +
+                        "last_check_status=?, last_check_success=?, last_check_body=?, last_check_time=?, " +
+                        "last_check_latency_ms=?, last_check_degraded=? WHERE id=?",
+                status, success, body, checkedAt, latencyMs, degraded, id);
+    }
+
     /**
      * Update monitor fields based on a live request (used even when active_monitor is false).
      * Longest matching path prefix wins.
      */
     public void updateMonitorStatusByUrl(String url, String method, int status, boolean success, String body, OffsetDateTime checkedAt) {
+        // Postgres has no UPDATE ... ORDER BY/LIMIT; MySQL cannot select from the table it updates
         String sql = "UPDATE " + schema + ".api_endpoint_registry SET " +
                 "last_check_status=?, last_check_success=?, last_check_body=?, last_check_time=? " +
-                "WHERE ? LIKE CONCAT(path, '%') AND http_method = ?" + orderByPathLength;
+                (postgres
+                        ? "WHERE id = (SELECT id FROM " + schema + ".api_endpoint_registry WHERE ? LIKE CONCAT(path, '%') AND http_method = ?" + orderByPathLength + ")"
+                        : "WHERE ? LIKE CONCAT(path, '%') AND http_method = ?" + orderByPathLength);
         try {
             int updated = jdbcTemplate.update(sql, status, success, body, checkedAt, url, method);
             if (log.isDebugEnabled()) {
@@ -289,6 +646,170 @@ public class ApiHealthRepository {
         }
     }
 
+    /** Append one check (active ping or passive verdict) to the ping history. */
+    public void insertPingResult(long endpointId, OffsetDateTime checkedAt, int status, boolean success,
+                                 Integer latencyMs, String probeMethod, String failureBody) {
+        String sql = "INSERT INTO " + schema + ".api_ping_results " +
+                "(endpoint_id, checked_at, http_status, success, latency_ms, probe_method, failure_body) " +
+                "VALUES (?,?,?,?,?,?,?)";
+        try {
+            jdbcTemplate.update(sql, endpointId, checkedAt, status, success, latencyMs, probeMethod,
+                    success ? null : truncate(failureBody, 1000));
+        } catch (Exception ex) {
+            log.debug("insertPingResult failed for endpoint {} : {}", endpointId, ex.getMessage());
+        }
+    }
+
+    /** Ping history for one endpoint since {@code from}, newest first. */
+    public List<ApiPingResultView> pingResults(long endpointId, OffsetDateTime from, int limit) {
+        String sql = "SELECT id, endpoint_id, checked_at, http_status, success, latency_ms, probe_method, failure_body " +
+                "FROM " + schema + ".api_ping_results WHERE endpoint_id = ? AND checked_at >= ? " +
+                "ORDER BY checked_at DESC LIMIT ?";
+        return jdbcTemplate.query(sql, pingResultMapper, endpointId, from, limit);
+    }
+
+    /**
+     * Uptime and latency roll-up per endpoint since {@code from}.
+     * Two grouped queries over the (endpoint_id, checked_at) index: totals, then latency bucket counts
+     * from which percentiles are derived without pulling individual rows.
+     * @param endpointId optional; null = all registered endpoints
+     */
+    public List<ApiUptimeView> uptimeSince(OffsetDateTime from, Long endpointId) {
+        String sql = "SELECT r.id, r.name, r.path, r.http_method, " +
+                "COUNT(p.id) AS total_checks, " +
+                "COALESCE(SUM(CASE WHEN p.success THEN 1 ELSE 0 END),0) AS success_checks, " +
+                "AVG(p.latency_ms) AS avg_latency_ms, " +
+                "MAX(p.latency_ms) AS max_latency_ms " +
+                "FROM " + schema + ".api_endpoint_registry r " +
+                "LEFT JOIN " + schema + ".api_ping_results p ON p.endpoint_id = r.id AND p.checked_at >= ? " +
+                (endpointId != null ? "WHERE r.id = ? " : "") +
+                "GROUP BY r.id, r.name, r.path, r.http_method ORDER BY r.id";
+        Object[] params = endpointId != null ? new Object[]{from, endpointId} : new Object[]{from};
+        List<ApiUptimeView> list = jdbcTemplate.query(sql, uptimeMapper, params);
+        if (list.isEmpty()) {
+            return list;
+        }
+
+        StringBuilder bucketExpr = new StringBuilder("CASE");
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            bucketExpr.append(" WHEN latency_ms <= ").append(LATENCY_BUCKETS_MS[i]).append(" THEN ").append(i);
+        }
+        bucketExpr.append(" ELSE ").append(LATENCY_BUCKETS_MS.length).append(" END");
+        String bucketSql = "SELECT endpoint_id, " + bucketExpr + " AS bucket, COUNT(*) AS cnt " +
+                "FROM " + schema + ".api_ping_results WHERE checked_at >= ? AND latency_ms IS NOT NULL " +
+                (endpointId != null ? "AND endpoint_id = ? " : "") +
+                "GROUP BY endpoint_id, bucket";
+        Map<Long, long[]> buckets = new HashMap<>();
+        jdbcTemplate.query(bucketSql, rs -> {
+            long[] counts = buckets.computeIfAbsent(rs.getLong("endpoint_id"), k -> new long[LATENCY_BUCKETS_MS.length + 1]);
+            counts[rs.getInt("bucket")] += rs.getLong("cnt");
+        }, params);
+        for (ApiUptimeView v : list) {
+            long[] counts = buckets.get(v.getId());
+            if (counts == null) continue;
+            v.setP50LatencyMs(bucketPercentile(counts, 0.50, v.getMaxLatencyMs()));
+            v.setP95LatencyMs(bucketPercentile(counts, 0.95, v.getMaxLatencyMs()));
+            v.setP99LatencyMs(bucketPercentile(counts, 0.99, v.getMaxLatencyMs()));
+        }
+        return list;
+    }
+
+    /** Retention for ping history; independent of call log retention. */
+    public int deletePingResultsBefore(OffsetDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + schema + ".api_ping_results WHERE checked_at < ?", cutoff);
+    }
+
+    private Integer bucketPercentile(long[] counts, double q, Integer max) {
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return null;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                int upper = i < LATENCY_BUCKETS_MS.length ? LATENCY_BUCKETS_MS[i] : Integer.MAX_VALUE;
+                return max != null ? Math.min(upper, max) : upper;
+            }
+        }
+        return max;
+    }
+
+    private String truncate(String s, int max) {
+        if (s == null || s.length() <= max) return s;
+        return s.substring(0, max);
+    }
+
+    private final RowMapper<ApiPingResultView> pingResultMapper = new RowMapper<ApiPingResultView>() {
+        @Override
+        public ApiPingResultView mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ApiPingResultView v = new ApiPingResultView();
+            v.setId(rs.getLong("id"));
+            v.setEndpointId(rs.getLong("endpoint_id"));
+            v.setCheckedAt(rs.getTimestamp("checked_at").toInstant().atZone(zone).toOffsetDateTime());
+            v.setHttpStatus(rs.getInt("http_status"));
+            v.setSuccess(rs.getBoolean("success"));
+            v.setLatencyMs(rs.getObject("latency_ms") == null ? null : rs.getInt("latency_ms"));
+            v.setProbeMethod(rs.getString("probe_method"));
+            v.setFailureBody(rs.getString("failure_body"));
+            return v;
+        }
+    };
+
+    private final RowMapper<ApiTemplateStatsView> templateStatsMapper = new RowMapper<ApiTemplateStatsView>() {
+        @Override
+        public ApiTemplateStatsView mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ApiTemplateStatsView v = new ApiTemplateStatsView();
+            v.setUrlTemplate(rs.getString("url_template"));
+            v.setHttpMethod(rs.getString("http_method"));
+            v.setTotalCalls(rs.getLong("total_calls"));
+            v.setFailureCalls(rs.getLong("failure_calls"));
+            v.setAvgDurationMs(rs.getObject("avg_duration_ms") == null ? null : rs.getDouble("avg_duration_ms"));
+            v.setMaxDurationMs(rs.getObject("max_duration_ms") == null ? null : rs.getInt("max_duration_ms"));
+            v.setLastCalled(rs.getTimestamp("last_called") == null ? null
+                    : rs.getTimestamp("last_called").toInstant().atZone(zone).toOffsetDateTime());
+            return v;
+        }
+    };
+
+    private final RowMapper<ApiInboundStatsView> inboundStatsMapper = new RowMapper<ApiInboundStatsView>() {
+        @Override
+        public ApiInboundStatsView mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ApiInboundStatsView v = new ApiInboundStatsView();
+            v.setUrlTemplate(rs.getString("url_template"));
+            v.setHttpMethod(rs.getString("http_method"));
+            v.setRequests(rs.getLong("requests"));
+            v.setFailures(rs.getLong("failures"));
+            v.setAvgDurationMs(rs.getObject("avg_duration_ms") == null ? null : rs.getDouble("avg_duration_ms"));
+            v.setAvgDownstreamCalls(rs.getDouble("avg_downstream_calls"));
+            v.setAvgDownstreamMs(rs.getDouble("avg_downstream_ms"));
+            if (v.getAvgDurationMs() != null && v.getAvgDurationMs() > 0) {
+                v.setDownstreamShare(v.getAvgDownstreamMs() / v.getAvgDurationMs());
+            }
+            return v;
+        }
+    };
+
+    private final RowMapper<ApiUptimeView> uptimeMapper = new RowMapper<ApiUptimeView>() {
+        @Override
+        public ApiUptimeView mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ApiUptimeView v = new ApiUptimeView();
+            v.setId(rs.getLong("id"));
+            v.setName(rs.getString("name"));
+            v.setPath(rs.getString("path"));
+            v.setMethod(rs.getString("http_method"));
+            long total = rs.getLong("total_checks");
+            long ok = rs.getLong("success_checks");
+            v.setTotalChecks(total);
+            v.setSuccessChecks(ok);
+            v.setFailureChecks(total - ok);
+            v.setUptimePercent(total == 0 ? null : (ok * 100.0) / total);
+            v.setAvgLatencyMs(rs.getObject("avg_latency_ms") == null ? null : rs.getDouble("avg_latency_ms"));
+            v.setMaxLatencyMs(rs.getObject("max_latency_ms") == null ? null : rs.getInt("max_latency_ms"));
+            return v;
+        }
+    };
+
     /** Build WHERE clause for filters. */
     private void appendFilters(StringBuilder where, List<Object> params, String filter, String from, String to, Boolean onlyActive, List<Integer> statuses) {
         List<String> clauses = new ArrayList<>();
@@ -302,21 +823,18 @@ public class ApiHealthRepository {
             params.add(onlyActive);
         }
         if (statuses != null && !statuses.isEmpty()) {
-            String placeholders = String.join(",", java.util.Collections.nCopies(statuses.size(), "?"));
+            String placeholders = String.join(",", Collections.nCopies(statuses.size(), "?"));
             clauses.add("r.last_check_status IN (" + placeholders + ")");
             params.addAll(statuses);
         }
+        // The call totals join ("a") is already limited to the window
         if (from != null && !from.isBlank()) {
-            clauses.add("(r.last_check_time >= ? OR l.timestamp >= ?)");
-            OffsetDateTime dt = parse(from);
-            params.add(dt);
-            params.add(dt);
+            clauses.add("(r.last_check_time >= ? OR a.match_key IS NOT NULL)");
+            params.add(parse(from));
         }
         if (to != null && !to.isBlank()) {
-            clauses.add("(r.last_check_time <= ? OR l.timestamp <= ?)");
-            OffsetDateTime dt = parse(to);
-            params.add(dt);
-            params.add(dt);
+            clauses.add("(r.last_check_time <= ? OR a.match_key IS NOT NULL)");
+            params.add(parse(to));
         }
         if (!clauses.isEmpty()) {
             where.append(" WHERE ").append(String.join(" AND ", clauses)).append(" ");
@@ -355,21 +873,31 @@ public class ApiHealthRepository {
         }
     }
 
-    private String insertSql() {
+    /** @param replaceProbe overwrite the probe columns and degraded threshold of an existing row */
+    private String insertSql(boolean replaceProbe) {
+        String table = schema + ".api_endpoint_registry";
         if (postgres) {
-            return "INSERT INTO " + schema + ".api_endpoint_registry " +
-                    "(name, path, http_method, description, ping_interval_sec, active_monitor) " +
-                    "VALUES (?,?,?,?,?,?) ON CONFLICT (path, http_method) DO UPDATE SET " +
+            return "INSERT INTO " + table + " " +
+                    "(name, path, http_method, description, ping_interval_sec, active_monitor, " +
+                    "probe_path, probe_method, probe_expected_status, probe_body_pattern, degraded_threshold_ms) " +
+                    "VALUES (?,?,?,?,?,?,?,?,?,?,?) ON CONFLICT (path, http_method) DO UPDATE SET " +
                     "name=EXCLUDED.name, description=EXCLUDED.description, " +
-                    "ping_interval_sec=GREATEST(" + schema + ".api_endpoint_registry.ping_interval_sec, EXCLUDED.ping_interval_sec), " +
-                    "active_monitor=(" + schema + ".api_endpoint_registry.active_monitor OR EXCLUDED.active_monitor)";
+                    "ping_interval_sec=GREATEST(" + table + ".ping_interval_sec, EXCLUDED.ping_interval_sec), " +
+                    "active_monitor=(" + table + ".active_monitor OR EXCLUDED.active_monitor)" +
+                    (replaceProbe ? ", probe_path=EXCLUDED.probe_path, probe_method=EXCLUDED.probe_method, " +
+                            "probe_expected_status=EXCLUDED.probe_expected_status, probe_body_pattern=EXCLUDED.probe_body_pattern, " +
+                            "degraded_threshold_ms=EXCLUDED.degraded_threshold_ms" : "");
         }
-        return "INSERT INTO " + schema + ".api_endpoint_registry " +
-                "(name, path, http_method, description, ping_interval_sec, active_monitor) " +
-                "VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE " +
+        return "INSERT INTO " + table + " " +
+                "(name, path, http_method, description, ping_interval_sec, active_monitor, " +
+                "probe_path, probe_method, probe_expected_status, probe_body_pattern, degraded_threshold_ms) " +
+                "VALUES (?,?,?,?,?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE " +
                 "name=VALUES(name), description=VALUES(description), " +
-                "ping_interval_sec=GREATEST(" + schema + ".api_endpoint_registry.ping_interval_sec, VALUES(ping_interval_sec)), " +
-                "active_monitor=(" + schema + ".api_endpoint_registry.active_monitor OR VALUES(active_monitor))";
+                "ping_interval_sec=GREATEST(" + table + ".ping_interval_sec, VALUES(ping_interval_sec)), " +
+                "active_monitor=(" + table + ".active_monitor OR VALUES(active_monitor))" +
+                (replaceProbe ? ", probe_path=VALUES(probe_path), probe_method=VALUES(probe_method), " +
+                        "probe_expected_status=VALUES(probe_expected_status), probe_body_pattern=VALUES(probe_body_pattern), " +
+                        "degraded_threshold_ms=VALUES(degraded_threshold_ms)" : "");
     }
 
     private void addMonitorColumns() {
@@ -382,6 +910,76 @@ public class ApiHealthRepository {
         try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS last_check_status INT NULL"); } catch (Exception ignored) {}
         try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS last_check_success BOOLEAN NULL"); } catch (Exception ignored) {}
         try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS last_check_body TEXT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS probe_path TEXT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS probe_method VARCHAR(10) NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS probe_expected_status VARCHAR(200) NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS probe_body_pattern TEXT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS degraded_threshold_ms INT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS last_check_latency_ms INT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_endpoint_registry ADD COLUMN IF NOT EXISTS last_check_degraded BOOLEAN NULL"); } catch (Exception ignored) {}
+    }
+
+    private void addLogColumns() {
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "url_template VARCHAR(512) NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "direction VARCHAR(8) NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "inbound_request_id VARCHAR(64) NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "request_header_set_id BIGINT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "response_header_set_id BIGINT NULL"); } catch (Exception ignored) {}
+        try { jdbcTemplate.execute("ALTER TABLE " + schema + ".api_call_logs ADD COLUMN " + (postgres ? "IF NOT EXISTS " : "") + "response_body_id BIGINT NULL"); } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute(postgres
+                    ? "CREATE TABLE IF NOT EXISTS " + schema + ".api_header_sets (" +
+                    "id BIGSERIAL PRIMARY KEY," +
+                    "set_hash CHAR(64) NOT NULL UNIQUE," +
+                    "headers TEXT NOT NULL," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")"
+                    : "CREATE TABLE IF NOT EXISTS " + schema + ".api_header_sets (" +
+                    "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                    "set_hash CHAR(64) NOT NULL," +
+                    "headers TEXT NOT NULL," +
+                    "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "UNIQUE(set_hash)" +
+                    ")");
+        } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute(postgres
+                    ? "CREATE TABLE IF NOT EXISTS " + schema + ".api_bodies (" +
+                    "id BIGSERIAL PRIMARY KEY," +
+                    "body_hash CHAR(64) NOT NULL UNIQUE," +
+                    "body TEXT NOT NULL," +
+                    "ref_count BIGINT NOT NULL DEFAULT 0," +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "last_used TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")"
+                    : "CREATE TABLE IF NOT EXISTS " + schema + ".api_bodies (" +
+                    "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                    "body_hash CHAR(64) NOT NULL," +
+                    "body TEXT NOT NULL," +
+                    "ref_count BIGINT NOT NULL DEFAULT 0," +
+                    "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "last_used DATETIME DEFAULT CURRENT_TIMESTAMP," +
+                    "UNIQUE(body_hash)" +
+                    ")");
+        } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute(postgres
+                    ? "CREATE INDEX IF NOT EXISTS idx_api_call_logs_template_time ON " + schema + ".api_call_logs (url_template, \"timestamp\" DESC)"
+                    : "CREATE INDEX idx_api_call_logs_template_time ON " + schema + ".api_call_logs (url_template, `timestamp` DESC)");
+        } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute((postgres ? "CREATE INDEX IF NOT EXISTS " : "CREATE INDEX ") +
+                    "idx_api_call_logs_inbound ON " + schema + ".api_call_logs (inbound_request_id)");
+        } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute((postgres ? "CREATE INDEX IF NOT EXISTS " : "CREATE INDEX ") +
+                    "idx_api_call_logs_trace ON " + schema + ".api_call_logs (trace_id)");
+        } catch (Exception ignored) {}
+        try {
+            jdbcTemplate.execute(postgres
+                    ? "CREATE INDEX IF NOT EXISTS idx_api_call_logs_time ON " + schema + ".api_call_logs (\"timestamp\" DESC)"
+                    : "CREATE INDEX idx_api_call_logs_time ON " + schema + ".api_call_logs (`timestamp` DESC)");
+        } catch (Exception ignored) {}
     }
 
     private void ensureTables() {
@@ -404,7 +1002,13 @@ public class ApiHealthRepository {
                             "duration_ms INTEGER NOT NULL," +
                             "trace_id VARCHAR(64) NOT NULL," +
                             "success BOOLEAN NOT NULL," +
-                            "error_message TEXT" +
+                            "error_message TEXT," +
+                            "url_template VARCHAR(512) NULL," +
+                            "direction VARCHAR(8) NULL," +
+                            "inbound_request_id VARCHAR(64) NULL," +
+                            "request_header_set_id BIGINT NULL," +
+                            "response_header_set_id BIGINT NULL," +
+                            "response_body_id BIGINT NULL" +
                             ")");
                     jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_endpoint_registry (" +
                             "id BIGSERIAL PRIMARY KEY," +
@@ -418,9 +1022,28 @@ public class ApiHealthRepository {
                             "last_check_status INT NULL," +
                             "last_check_success BOOLEAN NULL," +
                             "last_check_body TEXT NULL," +
+                            "probe_path TEXT NULL," +
+                            "probe_method VARCHAR(10) NULL," +
+                            "probe_expected_status VARCHAR(200) NULL," +
+                            "probe_body_pattern TEXT NULL," +
+                            "degraded_threshold_ms INT NULL," +
+                            "last_check_latency_ms INT NULL," +
+                            "last_check_degraded BOOLEAN NULL," +
                             "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
                             "UNIQUE(path, http_method)" +
                             ")");
+                    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_ping_results (" +
+                            "id BIGSERIAL PRIMARY KEY," +
+                            "endpoint_id BIGINT NOT NULL," +
+                            "checked_at TIMESTAMP NOT NULL," +
+                            "http_status SMALLINT NOT NULL," +
+                            "success BOOLEAN NOT NULL," +
+                            "latency_ms INTEGER NULL," +
+                            "probe_method VARCHAR(8) NULL," +
+                            "failure_body VARCHAR(1000) NULL" +
+                            ")");
+                    jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_api_ping_results_endpoint_time ON " + schema + ".api_ping_results (endpoint_id, checked_at)");
+                    jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_api_ping_results_time ON " + schema + ".api_ping_results (checked_at)");
                 } else {
                     jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
                     jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_call_logs (" +
@@ -436,7 +1059,17 @@ public class ApiHealthRepository {
                             "duration_ms INTEGER NOT NULL," +
                             "trace_id VARCHAR(64) NOT NULL," +
                             "success BOOLEAN NOT NULL," +
-                            "error_message TEXT" +
+                            "error_message TEXT," +
+                            "url_template VARCHAR(512) NULL," +
+                            "direction VARCHAR(8) NULL," +
+                            "inbound_request_id VARCHAR(64) NULL," +
+                            "request_header_set_id BIGINT NULL," +
+                            "response_header_set_id BIGINT NULL," +
+                            "response_body_id BIGINT NULL," +
+                            "INDEX idx_api_call_logs_template_time (url_template, `timestamp` DESC)," +
+                            "INDEX idx_api_call_logs_inbound (inbound_request_id)," +
+                            "INDEX idx_api_call_logs_trace (trace_id)," +
+                            "INDEX idx_api_call_logs_time (`timestamp` DESC)" +
                             ")");
                     jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_endpoint_registry (" +
                             "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
@@ -450,10 +1083,30 @@ public class ApiHealthRepository {
                             "last_check_status INT NULL," +
                             "last_check_success BOOLEAN NULL," +
                             "last_check_body TEXT NULL," +
+                            "probe_path TEXT NULL," +
+                            "probe_method VARCHAR(10) NULL," +
+                            "probe_expected_status VARCHAR(200) NULL," +
+                            "probe_body_pattern TEXT NULL," +
+                            "degraded_threshold_ms INT NULL," +
+                            "last_check_latency_ms INT NULL," +
+                            "last_check_degraded BOOLEAN NULL," +
                             "created_at DATETIME DEFAULT CURRENT_TIMESTAMP," +
                             "UNIQUE(path(255), http_method)" +
                             ")");
+                    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + schema + ".api_ping_results (" +
+                            "id BIGINT PRIMARY KEY AUTO_INCREMENT," +
+                            "endpoint_id BIGINT NOT NULL," +
+                            "checked_at DATETIME NOT NULL," +
+                            "http_status SMALLINT NOT NULL," +
+                            "success BOOLEAN NOT NULL," +
+                            "latency_ms INTEGER NULL," +
+                            "probe_method VARCHAR(8) NULL," +
+                            "failure_body VARCHAR(1000) NULL," +
+                            "INDEX idx_api_ping_results_endpoint_time (endpoint_id, checked_at)," +
+                            "INDEX idx_api_ping_results_time (checked_at)" +
+                            ")");
                 }
+                addLogColumns();
                 tablesEnsured = true;
                 log.info("ApiHealth tables ensured in schema {}", schema);
             } catch (Exception e) {
@@ -470,10 +1123,9 @@ public class ApiHealthRepository {
     }
 
     private boolean detectPostgres(JdbcTemplate jdbcTemplate) {
-        try {
-            String product = jdbcTemplate.getDataSource() != null
-                    ? jdbcTemplate.getDataSource().getConnection().getMetaData().getDatabaseProductName()
-                    : "";
+        if (jdbcTemplate.getDataSource() == null) return false;
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
             return product != null && product.toLowerCase().contains("postgres");
         } catch (Exception e) {
             return false;
@@ -2,6 +2,8 @@ package com.zula.apihealth.scanner;
 
 import com.zula.apihealth.annotation.TrackApiEndpoint;
 import com.zula.apihealth.annotation.EndpointMonitor;
+import com.zula.apihealth.interceptor.CapturePolicy;
+import com.zula.apihealth.metrics.InternalStats;
 import com.zula.apihealth.repository.ApiHealthRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,14 +26,36 @@ public class ApiEndpointScanner implements BeanPostProcessor {
 
     private final ApiHealthRepository repository;
     private final Environment environment;
+    private final InternalStats stats;
+    private final CapturePolicy capturePolicy;
 
     public ApiEndpointScanner(ApiHealthRepository repository, Environment environment) {
+        this(repository, environment, null, null);
+    }
+
+    /**
+     * @param stats         receives the time spent per scanned bean (null to skip)
+     * @param capturePolicy receives the capture overrides of each annotation (null to skip)
+     */
+    public ApiEndpointScanner(ApiHealthRepository repository, Environment environment, InternalStats stats,
+                              CapturePolicy capturePolicy) {
         this.repository = repository;
         this.environment = environment;
+        this.stats = stats;
+        this.capturePolicy = capturePolicy;
     }
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        long started = System.nanoTime();
+        int registered = scan(bean, beanName);
+        if (stats != null) {
+            stats.recordScan(System.nanoTime() - started, registered);
+        }
+        return bean;
+    }
+
+    private int scan(Object bean, String beanName) {
         Class<?> targetClass = AopUtils.getTargetClass(bean);
         log.debug("Scanning bean '{}' of type {}", beanName, targetClass.getName());
 
@@ -39,15 +63,16 @@ public class ApiEndpointScanner implements BeanPostProcessor {
                 (MethodIntrospector.MetadataLookup<TrackApiEndpoint>) method ->
                         AnnotatedElementUtils.findMergedAnnotation(method, TrackApiEndpoint.class));
 
-        annotated.forEach((method, ann) -> {
+        int registered = 0;
+        for (Map.Entry<Method, TrackApiEndpoint> e : annotated.entrySet()) {
+            Method method = e.getKey();
+            TrackApiEndpoint ann = e.getValue();
             String rawPath = ann.path();
             if (rawPath == null || rawPath.isBlank()) {
                 log.warn("Skipping @TrackApiEndpoint with blank path on {}#{}", beanName, method.getName());
-                return;
+                continue;
             }
-            String resolvedPath = environment != null
-                    ? environment.resolvePlaceholders(rawPath)
-                    : rawPath;
+            String resolvedPath = resolve(rawPath);
 
             EndpointMonitor monitor = AnnotatedElementUtils.findMergedAnnotation(method, EndpointMonitor.class);
             Integer pingInterval = monitor != null ? monitor.pingIntervalSeconds() : 0;
@@ -59,16 +84,32 @@ public class ApiEndpointScanner implements BeanPostProcessor {
                     ann.method(),
                     ann.description(),
                     pingInterval,
-                    active
+                    active,
+                    monitor != null ? blankToNull(resolve(monitor.probePath())) : null,
+                    monitor != null ? blankToNull(monitor.probeMethod().toUpperCase()) : null,
+                    monitor != null ? blankToNull(monitor.expectedStatus()) : null,
+                    monitor != null ? blankToNull(monitor.bodyPattern()) : null,
+                    monitor != null && monitor.degradedThresholdMs() > 0 ? monitor.degradedThresholdMs() : null
             );
+            if (capturePolicy != null) {
+                capturePolicy.register(ann.method(), resolvedPath, ann.capture(), ann.captureOnFailure(), ann.captureSlowMs());
+            }
             log.info("Registered tracked API endpoint {} {} ({}) monitor active={} intervalSec={}",
                     ann.method(), resolvedPath, beanName + "#" + method.getName(), active, pingInterval);
-        });
+            registered++;
+        }
 
         if (annotated.isEmpty()) {
             log.debug("No @TrackApiEndpoint methods found on {}", targetClass.getName());
         }
+        return registered;
+    }
 
-        return bean;
+    private String resolve(String value) {
+        return environment != null ? environment.resolvePlaceholders(value) : value;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 }
@@ -1,28 +1,115 @@
 package com.zula.apihealth.service;
 
+import com.zula.apihealth.interceptor.CapturePolicy;
+import com.zula.apihealth.interceptor.TraceContext;
 import com.zula.apihealth.config.ApiHealthProperties;
 import com.zula.apihealth.model.ApiCallLogEntry;
 import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.model.ApiInboundRequestView;
+import com.zula.apihealth.model.ApiInboundStatsView;
+import com.zula.apihealth.model.ApiInternalStatsView;
 import com.zula.apihealth.model.ApiLogDetailView;
 import com.zula.apihealth.model.ApiLogView;
+import com.zula.apihealth.model.ApiPingResultView;
+import com.zula.apihealth.model.ApiTemplateStatsView;
+import com.zula.apihealth.model.ApiUptimeView;
+import com.zula.apihealth.model.LatencyHistogramView;
+import com.zula.apihealth.metrics.InternalStats;
+import com.zula.apihealth.metrics.LatencyHistogram;
+import com.zula.apihealth.metrics.LatencyHistograms;
+import com.zula.apihealth.metrics.LiveStats;
 import com.zula.apihealth.repository.ApiHealthRepository;
 import com.zula.apihealth.service.StatusClassifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Service layer that orchestrates registry queries, log persistence, and ping scheduling needs.
  */
 public class ApiHealthService {
+    private static final Logger log = LoggerFactory.getLogger(ApiHealthService.class);
+    private static final ZoneId ZONE_NAIROBI = ZoneId.of("Africa/Nairobi");
+    private static final Duration DEFAULT_WINDOW = Duration.ofHours(24);
     private final ApiHealthRepository repository;
     private final ApiHealthProperties properties;
     private final StatusClassifier classifier;
+    private final EndpointMatcher matcher;
+    private final UrlTemplateNormalizer normalizer;
+    private final PassiveHealthTracker passive = new PassiveHealthTracker();
+    private final LatencyBaseline baseline;
+    private final LatencyHistograms histograms;
+    private final LiveStats liveStats;
+    private final Map<Long, Long> lastEvaluated = new ConcurrentHashMap<>();
+    private final Map<Long, EndpointCheckState> checkStates = new ConcurrentHashMap<>();
+    private final ReadCache readCache;
+    private final LiveTail liveTail;
+    private final AsyncLogWriter logWriter;
+    private final HeaderDictionary headerDictionary;
+    private final BodyDictionary bodyDictionary;
+    private final InternalStats internalStats;
+    private final CapturePolicy capturePolicy;
 
     public ApiHealthService(ApiHealthRepository repository, ApiHealthProperties properties) {
+        this(repository, properties, new InternalStats(), capturePolicy(properties));
+    }
+
+    /**
+     * @param internalStats overhead counters shared with the endpoint scanner
+     * @param capturePolicy what to store per exchange; the scanner adds per-endpoint overrides
+     */
+    public ApiHealthService(ApiHealthRepository repository, ApiHealthProperties properties, InternalStats internalStats,
+                            CapturePolicy capturePolicy) {
         this.repository = repository;
+        this.internalStats = internalStats;
+        this.capturePolicy = capturePolicy;
         this.properties = properties;
         this.classifier = new StatusClassifier(); // uses status-ranges.txt bundled with the library
+        this.normalizer = new UrlTemplateNormalizer(properties.getUrlTemplateCacheSize());
+        this.matcher = new EndpointMatcher(repository, properties.getRegistryRefreshSeconds(), normalizer);
+        this.baseline = new LatencyBaseline(properties.getDegradedBaselineFactor(),
+                properties.getDegradedMinLatencyMs(), properties.getDegradedBaselineMinSamples(),
+                properties.getDegradedRebaselineMinutes() * 60_000L);
+        this.histograms = new LatencyHistograms(properties.getHistogramSlots(),
+                Duration.ofSeconds(properties.getHistogramSlotSeconds()));
+        this.readCache = new ReadCache(properties.getReadCacheTtlSeconds() * 1000L, properties.getReadCacheMaxEntries());
+        LogRedactor redactor = properties.isRedactionEnabled()
+                ? new LogRedactor(properties.getRedactHeaders(), properties.getDropHeaders(), properties.getRedactJsonFields())
+                : null;
+        this.headerDictionary = properties.isHeaderDictionaryEnabled()
+                ? new HeaderDictionary(repository, properties.getVolatileHeaders(), properties.getHeaderSetCacheSize())
+                : null;
+        this.bodyDictionary = properties.isBodyDedupEnabled()
+                ? new BodyDictionary(repository, properties.getBodyDedupMinChars(), properties.getBodyCacheSize())
+                : null;
+        OffHeapStaging staging = properties.isLogStagingOffHeap()
+                ? new OffHeapStaging(properties.getLogStagingBytes(), properties.getLogStagingSegmentBytes())
+                : null;
+        this.logWriter = new AsyncLogWriter(repository, properties.getLogQueueCapacity(), properties.getLogBatchSize(),
+                properties.getLogFlushMillis(), redactor, headerDictionary, bodyDictionary, staging, readCache::invalidateAfterFlush);
+        this.liveTail = new LiveTail(properties.getLiveTailBufferSize(), properties.getLiveTailSubscriberBuffer(),
+                properties.getLiveTailMaxSubscribers(), properties.getLiveTailTimeoutSeconds() * 1000L);
+        this.liveStats = new LiveStats(properties.getLiveStatsSlots(),
+                Duration.ofSeconds(properties.getLiveStatsSlotSeconds()));
+    }
+
+    /**
+     * Result of an admin read, served from the TTL cache while no write happened since it was computed.
+     * Build {@code key} with {@link ReadCache#key} from every parameter that shapes the result.
+     */
+    public <T> ReadCache.Cached<T> cachedRead(String key, Supplier<T> loader) {
+        return readCache.get(key, loader);
     }
 
     /** Return all endpoints with aggregated stats; optional filter/date/sort/status and active switch. */
@@ -48,6 +135,24 @@ public class ApiHealthService {
         return repository.logsByEndpoint(url, l);
     }
 
+    /** Template for a concrete URL (registered {placeholder} paths first, then id/uuid/hash heuristics). */
+    public String urlTemplate(String url) {
+        matcher.refreshIfStale();
+        return normalizer.normalize(url);
+    }
+
+    /** Recent logs for one normalized URL template. */
+    public List<ApiLogView> logsByTemplate(String urlTemplate, Integer limit) {
+        int l = limit != null ? limit : properties.getRecentLimit();
+        return repository.logsByTemplate(urlTemplate, l);
+    }
+
+    /** Call totals per URL template over a window (e.g. 1h, 24h), busiest first. */
+    public List<ApiTemplateStatsView> templateStats(String window, Integer limit) {
+        Duration d = parseWindow(window);
+        return repository.templateStatsSince(OffsetDateTime.now(ZONE_NAIROBI).minus(d), limit != null ? limit : 100);
+    }
+
     /** Detailed logs filtered by trace id (includes request/response headers and bodies). */
     public List<ApiLogDetailView> logDetailsByTraceId(String traceId, Integer limit) {
         int l = limit != null ? limit : 1000;
@@ -60,6 +165,145 @@ public class ApiHealthService {
         return repository.listEndpointsWithStats(filter, from, to, sort, desc, onlyActive, statuses);
     }
 
+    /**
+     * Endpoint stats for a recent window answered from memory (live counters + registry snapshot + latest checks).
+     * Totals cover only traffic seen by this instance within the window (clamped to the live ring span).
+     */
+    public List<ApiEndpointView> listEndpointsLive(String filter, String sort, boolean desc, List<Integer> statuses,
+                                                   Boolean onlyActive, String window) {
+        Duration d = parseWindow(window);
+        if (d.compareTo(liveStats.maxWindow()) > 0) {
+            d = liveStats.maxWindow();
+        }
+        Duration w = d;
+        return liveViews(filter, statuses, onlyActive, sort, desc, v -> {
+            LiveStats.WindowStats stats = liveStats.window(v.getId(), w);
+            v.setTotalCalls(stats.total);
+            v.setSuccessCalls(stats.success);
+            v.setFailureCalls(stats.failure);
+            v.setAvgDurationMs(stats.avgDurationMs());
+            v.setLastCalled(stats.lastCalledMillis == null ? null
+                    : Instant.ofEpochMilli(stats.lastCalledMillis).atZone(ZONE_NAIROBI).toOffsetDateTime());
+        });
+    }
+
+    /** Health view for all endpoints answered from memory; no traffic totals, no DB access. */
+    public List<ApiEndpointView> listHealthLive(String filter, String sort, boolean desc, List<Integer> statuses,
+                                                Boolean onlyActive) {
+        return liveViews(filter, statuses, onlyActive, sort, desc, v -> { });
+    }
+
+    /**
+     * Current health of every registered endpoint from memory only (loaded registry snapshot plus latest
+     * checks); never queries the DB, so it is safe for liveness/readiness probes.
+     */
+    public List<ApiEndpointView> healthSnapshot() {
+        List<ApiEndpointView> rows = matcher.cachedEndpoints();
+        List<ApiEndpointView> out = new ArrayList<>(rows.size());
+        for (ApiEndpointView reg : rows) {
+            out.add(liveCopy(reg));
+        }
+        return out;
+    }
+
+    /** Latest known check for the endpoint from this instance, or null. */
+    public EndpointCheckState checkState(long endpointId) {
+        return checkStates.get(endpointId);
+    }
+
+    private List<ApiEndpointView> liveViews(String filter, List<Integer> statuses, Boolean onlyActive, String sort,
+                                            boolean desc, Consumer<ApiEndpointView> stats) {
+        String f = filter != null && !filter.isBlank() ? filter : null;
+        List<ApiEndpointView> out = new ArrayList<>();
+        for (ApiEndpointView reg : matcher.endpoints()) {
+            if (f != null && !(reg.getPath().contains(f) || (reg.getName() != null && reg.getName().contains(f)))) continue;
+            if (onlyActive != null && onlyActive != Boolean.TRUE.equals(reg.getActiveMonitor())) continue;
+            ApiEndpointView v = liveCopy(reg);
+            if (statuses != null && (v.getLastCheckStatus() == null || !statuses.contains(v.getLastCheckStatus()))) continue;
+            stats.accept(v);
+            out.add(v);
+        }
+        out.sort(desc ? liveOrder(sort).reversed() : liveOrder(sort));
+        return out;
+    }
+
+    /** Copy of a registry row overlaid with the newest check known to this instance. */
+    private ApiEndpointView liveCopy(ApiEndpointView reg) {
+        ApiEndpointView v = new ApiEndpointView();
+        v.setId(reg.getId());
+        v.setName(reg.getName());
+        v.setPath(reg.getPath());
+        v.setMethod(reg.getMethod());
+        v.setDescription(reg.getDescription());
+        v.setPingIntervalSec(reg.getPingIntervalSec());
+        v.setActiveMonitor(reg.getActiveMonitor());
+        v.setProbePath(reg.getProbePath());
+        v.setProbeMethod(reg.getProbeMethod());
+        v.setProbeExpectedStatus(reg.getProbeExpectedStatus());
+        v.setProbeBodyPattern(reg.getProbeBodyPattern());
+        v.setDegradedThresholdMs(reg.getDegradedThresholdMs());
+        v.setTotalCalls(0L);
+        v.setSuccessCalls(0L);
+        v.setFailureCalls(0L);
+        v.setAvgDurationMs(0.0);
+        EndpointCheckState state = checkStates.get(reg.getId());
+        if (state != null && (reg.getLastCheckTime() == null || !state.getCheckedAt().isBefore(reg.getLastCheckTime()))) {
+            v.setLastCheckTime(state.getCheckedAt());
+            v.setLastCheckStatus(state.getStatus());
+            v.setLastCheckSuccess(state.isSuccess());
+            // Passive states carry no body; the registry row has the redacted one once the writer stored it
+            boolean stored = reg.getLastCheckTime() != null && state.getCheckedAt().isEqual(reg.getLastCheckTime());
+            v.setLastCheckBody(state.getBody() == null && stored ? reg.getLastCheckBody() : state.getBody());
+            v.setLastCheckLatencyMs(state.getLatencyMs());
+            v.setLastCheckDegraded(state.isDegraded());
+        } else {
+            v.setLastCheckTime(reg.getLastCheckTime());
+            v.setLastCheckStatus(reg.getLastCheckStatus());
+            v.setLastCheckSuccess(reg.getLastCheckSuccess());
+            v.setLastCheckBody(reg.getLastCheckBody());
+            v.setLastCheckLatencyMs(reg.getLastCheckLatencyMs());
+            v.setLastCheckDegraded(reg.getLastCheckDegraded());
+        }
+        // Same derivation as the repository row mapper
+        if (v.getLastCheckSuccess() != null) {
+            v.setUp(v.getLastCheckSuccess());
+        } else if (v.getLastCheckStatus() != null) {
+            int s = v.getLastCheckStatus();
+            v.setUp(s >= 200 && s < 400);
+        } else {
+            v.setUp(null);
+        }
+        if (v.getUp() == null) {
+            v.setHealthStatus("UNKNOWN");
+        } else if (!v.getUp()) {
+            v.setHealthStatus("DOWN");
+        } else {
+            v.setHealthStatus(Boolean.TRUE.equals(v.getLastCheckDegraded()) ? "DEGRADED" : "UP");
+        }
+        return v;
+    }
+
+    /** In-memory equivalent of the repository's ORDER BY keys. */
+    private static Comparator<ApiEndpointView> liveOrder(String sort) {
+        if (sort == null) {
+            return Comparator.comparing(ApiEndpointView::getId);
+        }
+        switch (sort) {
+            case "name": return Comparator.comparing(ApiEndpointView::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "path": return Comparator.comparing(ApiEndpointView::getPath);
+            case "lastCalled": return Comparator.comparing(ApiEndpointView::getLastCalled, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "avgDuration": return Comparator.comparing(ApiEndpointView::getAvgDurationMs, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "totalCalls": return Comparator.comparing(ApiEndpointView::getTotalCalls, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "status": return Comparator.comparing(ApiEndpointView::getLastCheckStatus, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "lastCheckTime": return Comparator.comparing(ApiEndpointView::getLastCheckTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "pingInterval": return Comparator.comparing(ApiEndpointView::getPingIntervalSec, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "active": return Comparator.comparing(ApiEndpointView::getActiveMonitor, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "successCalls": return Comparator.comparing(ApiEndpointView::getSuccessCalls, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "failureCalls": return Comparator.comparing(ApiEndpointView::getFailureCalls, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default: return Comparator.comparing(ApiEndpointView::getId);
+        }
+    }
+
     /** Recent logs associated (by URL prefix) with a specific endpoint id. */
     public List<ApiLogView> logsForEndpointId(long endpointId, Integer limit) {
         int l = limit != null ? limit : properties.getRecentLimit();
@@ -69,38 +313,412 @@ public class ApiHealthService {
     /** Programmatic upsert of an endpoint definition without monitoring. */
     public void registerEndpoint(String name, String path, String method, String description) {
         repository.registerEndpointIfAbsent(name, path, method, description, 0, false);
+        matcher.refresh();
+        readCache.invalidate();
     }
 
     /** Persist a captured API call log entry. */
     public void logCall(ApiCallLogEntry entry) {
-        repository.insertLog(entry);
+        logCall(entry, matcher.match(entry.getUrl(), entry.getHttpMethod()));
+    }
+
+    /** Live stream of captured calls for SSE subscribers. */
+    public LiveTail liveTail() {
+        return liveTail;
+    }
+
+    /** Stop background helpers (called by Spring on context close). */
+    public void shutdown() {
+        liveTail.shutdown();
+        logWriter.shutdown();
+    }
+
+    /** Background writer for call logs (queue depth, drops, writes). */
+    public AsyncLogWriter logWriter() {
+        return logWriter;
+    }
+
+    /** Shared header set dictionary used by the writer; null when disabled. */
+    public HeaderDictionary headerDictionary() {
+        return headerDictionary;
+    }
+
+    /** Stored response body dictionary used by the writer; null when disabled. */
+    public BodyDictionary bodyDictionary() {
+        return bodyDictionary;
+    }
+
+    /** Configured capture levels and limits from {@code zula.apihealth.capture-*}. */
+    public static CapturePolicy capturePolicy(ApiHealthProperties properties) {
+        return new CapturePolicy(properties.getCaptureSuccessLevel(), properties.getCaptureFailureLevel(),
+                properties.getCaptureSlowMs(), properties.getCapturePrefixBytes(), properties.getCaptureMaxBytes());
+    }
+
+    /** Decides how much of each captured exchange is stored. */
+    public CapturePolicy capturePolicy() {
+        return capturePolicy;
+    }
+
+    /** Counters for the library's own overhead, fed by the capture paths and the ping scheduler. */
+    public InternalStats internalStats() {
+        return internalStats;
+    }
+
+    /** Snapshot of {@link #internalStats()} and the log writer counters; no DB access. */
+    public ApiInternalStatsView internalSnapshot() {
+        InternalStats s = internalStats;
+        AsyncLogWriter w = logWriter;
+        ApiInternalStatsView v = new ApiInternalStatsView();
+        v.setCaptures(s.captureCount());
+        v.setAvgCaptureMicros(mean(s.captureNanos() / 1_000.0, s.captureCount()));
+        v.setMaxCaptureMicros(s.captureCount() > 0 ? s.maxCaptureNanos() / 1_000.0 : null);
+        v.setBytesCopied(s.bytesCopied());
+        v.setQueueDepth(w.queueDepth());
+        v.setQueueCapacity(w.capacity());
+        v.setFlushes(w.flushCount());
+        v.setAvgFlushMs(mean(w.flushNanos() / 1_000_000.0, w.flushCount()));
+        v.setAvgBatchSize(mean(w.flushedEntries(), w.flushCount()));
+        v.setLastBatchSize(w.lastBatchSize());
+        v.setMaxBatchSize(w.maxBatchSize());
+        v.setWritten(w.writtenCount());
+        v.setDropped(w.droppedCount());
+        v.setFailed(w.failedCount());
+        v.setDbErrors(w.dbErrorCount());
+        if (headerDictionary != null) {
+            v.setHeaderSetCacheHits(headerDictionary.cacheHits());
+            v.setHeaderSetLookups(headerDictionary.lookups());
+        }
+        if (bodyDictionary != null) {
+            v.setBodyCacheHits(bodyDictionary.cacheHits());
+            v.setBodyLookups(bodyDictionary.lookups());
+        }
+        if (w.staging() != null) {
+            v.setStagingUsedBytes(w.staging().usedBytes());
+            v.setStagingCapacityBytes(w.staging().capacityBytes());
+        }
+        v.setPingCycles(s.pingCycleCount());
+        v.setAvgPingCycleMs(mean(s.pingCycleNanos() / 1_000_000.0, s.pingCycleCount()));
+        v.setLastPingCycleMs(s.pingCycleCount() > 0 ? s.lastPingCycleNanos() / 1_000_000.0 : null);
+        v.setStartupScanMs(s.scanNanos() / 1_000_000.0);
+        v.setScannedBeans(s.scannedBeans());
+        v.setRegistrations(s.registrations());
+        return v;
+    }
+
+    private static Double mean(double total, long count) {
+        return count > 0 ? total / count : null;
+    }
+
+    private static ApiLogView toLogView(ApiCallLogEntry entry) {
+        ApiLogView v = new ApiLogView();
+        v.setId(entry.getId());
+        v.setTimestamp(entry.getTimestamp());
+        v.setUrl(entry.getUrl());
+        v.setUrlTemplate(entry.getUrlTemplate());
+        v.setHttpMethod(entry.getHttpMethod());
+        v.setHttpStatus(entry.getHttpStatus());
+        v.setDurationMs(entry.getDurationMs());
+        v.setSuccess(entry.getSuccess());
+        v.setTraceId(entry.getTraceId());
+        v.setDirection(entry.getDirection());
+        v.setInboundRequestId(entry.getInboundRequestId());
+        return v;
+    }
+
+    /** Registered endpoint owning this URL (in-memory registry snapshot), or null. */
+    public ApiEndpointView matchEndpoint(String url, String method) {
+        return matcher.match(url, method);
+    }
+
+    /** Same as {@link #matchEndpoint} against the loaded snapshot only; never touches the DB. */
+    public ApiEndpointView matchEndpointCached(String url, String method) {
+        return matcher.matchCached(url, method);
+    }
+
+    /** Persist a call already resolved to its registry endpoint (null when unregistered). */
+    public void logCall(ApiCallLogEntry entry, ApiEndpointView endpoint) {
+        if (entry.getDirection() == null) {
+            entry.setDirection("OUT");
+        }
+        if (entry.getTraceId() == null) {
+            entry.setTraceId(TraceContext.resolve(null));
+        }
+        if (entry.getUrlTemplate() == null) {
+            entry.setUrlTemplate(normalizer.normalize(entry.getUrl()));
+        }
+        if (liveTail.hasSubscribers()) {
+            liveTail.publish(toLogView(entry), endpoint != null ? endpoint.getId() : null);
+        }
+        if (endpoint != null) {
+            long duration = entry.getDurationMs() != null ? entry.getDurationMs() : 0;
+            histograms.record(endpoint.getId(), duration);
+            liveStats.record(endpoint.getId(), Boolean.TRUE.equals(entry.getSuccess()), duration, System.currentTimeMillis());
+        }
         // Also refresh monitor metadata based on this real call, even if active_monitor=false
+        boolean ok = false;
+        boolean degraded = false;
         if (entry.getHttpStatus() != null) {
-            boolean ok = classifier.isUp(entry.getHttpStatus());
-            repository.updateMonitorStatusByUrl(entry.getUrl(), entry.getHttpMethod(), entry.getHttpStatus(), ok, entry.getResponseBody(), entry.getTimestamp());
+            ok = classifier.isUp(entry.getHttpStatus());
+            if (endpoint != null) {
+                passive.record(endpoint.getId(), entry.getHttpStatus(), ok, entry.getDurationMs() != null ? entry.getDurationMs() : 0);
+                Integer latency = entry.getDurationMs();
+                degraded = ok && latency != null
+                        && baseline.observe(endpoint.getId(), LatencyBaseline.Source.PASSIVE, latency, endpoint.getDegradedThresholdMs());
+                // No body: it is not redacted yet
+                checkStates.put(endpoint.getId(), new EndpointCheckState(entry.getTimestamp(), entry.getHttpStatus(), ok, latency,
+                        degraded, null));
+            }
+        }
+        // Log row and monitor status are written by the background writer, never on the caller's thread
+        logWriter.submit(entry, endpoint != null ? endpoint.getId() : null, ok, degraded);
+    }
+
+    /**
+     * Record an inbound request captured by the servlet filter. Shares the background writer with outbound calls
+     * but never feeds endpoint stats, passive verdicts or monitor status.
+     */
+    public void logInbound(ApiCallLogEntry entry) {
+        entry.setDirection("IN");
+        if (entry.getUrlTemplate() == null) {
+            entry.setUrlTemplate(normalizer.normalize(entry.getUrl()));
+        }
+        logWriter.submit(entry, null, false, false);
+    }
+
+    /** One inbound request with its downstream calls and their share of its time. */
+    public ApiInboundRequestView inboundRequest(String requestId) {
+        ApiInboundRequestView view = new ApiInboundRequestView();
+        view.setRequestId(requestId);
+        List<ApiLogView> downstream = new ArrayList<>();
+        long downstreamMs = 0;
+        for (ApiLogView row : repository.logsByInboundRequest(requestId, 1000)) {
+            if ("IN".equals(row.getDirection())) {
+                view.setRequest(row);
+            } else {
+                downstream.add(row);
+                downstreamMs += row.getDurationMs() != null ? row.getDurationMs() : 0;
+            }
         }
+        view.setDownstream(downstream);
+        view.setDownstreamCalls(downstream.size());
+        view.setDownstreamMs(downstreamMs);
+        if (view.getRequest() != null && view.getRequest().getDurationMs() != null && view.getRequest().getDurationMs() > 0) {
+            view.setDownstreamShare((double) downstreamMs / view.getRequest().getDurationMs());
+        }
+        return view;
+    }
+
+    /** Per inbound route over a window (e.g. 1h): duration, average fan-out and downstream time share. */
+    public List<ApiInboundStatsView> inboundStats(String window, Integer limit) {
+        Duration d = parseWindow(window);
+        return repository.inboundStatsSince(OffsetDateTime.now(ZONE_NAIROBI).minus(d), limit != null ? limit : 100);
     }
 
-    /** Endpoints marked for monitor whose interval has elapsed. */
+    /**
+     * Endpoints marked for monitor whose interval has elapsed since they were last checked, by this instance or
+     * anyone else. Candidates come from the in-memory registry snapshot, so an idle scheduler cycle costs no
+     * query; they are then re-checked against the shared last_check_time, which passive traffic and other
+     * replicas refresh.
+     */
     public List<ApiEndpointView> endpointsNeedingPing() {
-        List<ApiEndpointView> all = repository.endpointsMarkedForPing();
+        List<ApiEndpointView> all = matcher.endpoints();
         if (all.isEmpty()) {
             return all;
         }
-        long now = java.time.Instant.now().getEpochSecond();
-        return all.stream()
+        long now = System.currentTimeMillis();
+        List<ApiEndpointView> due = all.stream()
+                .filter(e -> Boolean.TRUE.equals(e.getActiveMonitor()))
                 .filter(e -> e.getPingIntervalSec() != null && e.getPingIntervalSec() > 0)
-                .filter(e -> {
-                    if (e.getLastCheckTime() == null) return true;
-                    long last = e.getLastCheckTime().toEpochSecond();
-                    return last + e.getPingIntervalSec() <= now;
-                })
+                .filter(e -> isDue(e, e.getLastCheckTime(), now))
                 .toList();
+        if (due.isEmpty()) {
+            return due;
+        }
+        Map<Long, OffsetDateTime> checked;
+        try {
+            checked = repository.lastCheckTimes(due.stream().map(ApiEndpointView::getId).toList());
+        } catch (Exception ex) {
+            log.debug("last_check_time lookup failed, using the registry snapshot: {}", ex.getMessage());
+            return due;
+        }
+        return due.stream().filter(e -> isDue(e, checked.get(e.getId()), now)).toList();
+    }
+
+    /** Interval elapsed since the later of this instance's last evaluation and {@code lastCheck}. */
+    private boolean isDue(ApiEndpointView e, OffsetDateTime lastCheck, long now) {
+        Long evaluated = lastEvaluated.get(e.getId());
+        long last = Math.max(evaluated != null ? evaluated : Long.MIN_VALUE,
+                lastCheck != null ? lastCheck.toInstant().toEpochMilli() : Long.MIN_VALUE);
+        return last == Long.MIN_VALUE || last + e.getPingIntervalSec() * 1000L <= now;
+    }
+
+    /** Remember that the scheduler has dealt with this endpoint for the current interval. */
+    public void markEvaluated(long endpointId) {
+        lastEvaluated.put(endpointId, System.currentTimeMillis());
+    }
+
+    /**
+     * Verdict from real traffic observed since the previous evaluation.
+     * Returns TRUE/FALSE when the traffic is conclusive (recorded in ping history as a PASSIVE check),
+     * or null when the endpoint is idle or mixed and still needs an active probe. Endpoints with their own probe
+     * definition are always probed: real traffic is judged by the global classifier and never exercises the
+     * probe path, expected statuses or body pattern.
+     */
+    public Boolean applyPassiveVerdict(ApiEndpointView endpoint, OffsetDateTime checkedAt) {
+        PassiveHealthTracker.Snapshot snap = passive.drain(endpoint.getId());
+        if (!properties.isPassiveSuppression() || snap == null || hasProbeDefinition(endpoint)) {
+            return null;
+        }
+        long intervalMs = endpoint.getPingIntervalSec() * 1000L;
+        if (snap.calls < properties.getPassiveMinCalls() || System.currentTimeMillis() - snap.lastSeenMillis > intervalMs) {
+            return null;
+        }
+        double maxRatio = properties.getPassiveMaxFailureRatio();
+        Boolean up = snap.failureRatio() <= maxRatio ? Boolean.TRUE
+                : snap.failureRatio() >= 1 - maxRatio ? Boolean.FALSE : null;
+        if (up != null) {
+            String note = up ? null : "passive: " + snap.failures + "/" + snap.calls + " calls failed";
+            repository.insertPingResult(endpoint.getId(), checkedAt, snap.lastStatus, up, snap.avgLatencyMs(), "PASSIVE", note);
+            readCache.invalidate();
+        }
+        return up;
+    }
+
+    private static boolean hasProbeDefinition(ApiEndpointView e) {
+        return (e.getProbePath() != null && !e.getProbePath().isBlank())
+                || (e.getProbeExpectedStatus() != null && !e.getProbeExpectedStatus().isBlank())
+                || (e.getProbeBodyPattern() != null && !e.getProbeBodyPattern().isBlank());
     }
 
     /** Store the result of a monitor ping. */
     public void updateMonitorStatus(long id, int status, boolean success, String body, OffsetDateTime checkedAt) {
         repository.updateMonitorStatus(id, status, success, body, checkedAt);
+        readCache.invalidate();
+    }
+
+    /**
+     * Store the result of a monitor ping and append it to the ping history.
+     * A successful but slow ping (explicit threshold or learned baseline) is flagged as degraded.
+     */
+    public void recordPing(ApiEndpointView endpoint, int status, boolean success, String body, OffsetDateTime checkedAt,
+                           Integer latencyMs, String probeMethod) {
+        long id = endpoint.getId();
+        boolean degraded = success && latencyMs != null
+                && baseline.observe(id, LatencyBaseline.Source.PROBE, latencyMs, endpoint.getDegradedThresholdMs());
+        checkStates.put(id, new EndpointCheckState(checkedAt, status, success, latencyMs, degraded, body));
+        repository.updateMonitorStatus(id, status, success, body, checkedAt, latencyMs, degraded);
+        repository.insertPingResult(id, checkedAt, status, success, latencyMs, probeMethod, body);
+        readCache.invalidate();
+    }
+
+    /** Uptime/latency roll-up per endpoint for a window such as 15m, 1h, 24h, 7d. */
+    public List<ApiUptimeView> uptime(String window, Long endpointId) {
+        Duration d = parseWindow(window);
+        List<ApiUptimeView> list = repository.uptimeSince(OffsetDateTime.now(ZONE_NAIROBI).minus(d), endpointId);
+        String label = formatWindow(d);
+        list.forEach(v -> v.setWindow(label));
+        return list;
+    }
+
+    /** Ping history for one endpoint within the window, newest first. */
+    public List<ApiPingResultView> pingHistory(long endpointId, String window, Integer limit) {
+        int l = limit != null ? limit : 1000;
+        return repository.pingResults(endpointId, OffsetDateTime.now(ZONE_NAIROBI).minus(parseWindow(window)), l);
+    }
+
+    /** Drop ping history older than the configured retention; returns rows removed. */
+    public int purgePingHistory() {
+        int days = properties.getPingRetentionDays();
+        if (days <= 0) {
+            return 0;
+        }
+        int removed = repository.deletePingResultsBefore(OffsetDateTime.now(ZONE_NAIROBI).minusDays(days));
+        if (removed > 0) {
+            readCache.invalidate();
+        }
+        return removed;
+    }
+
+    /** Drop call logs older than the configured retention, with bodies no remaining row references; returns rows removed. */
+    public int purgeCallLogs() {
+        int days = properties.getLogRetentionDays();
+        if (days <= 0) {
+            return 0;
+        }
+        int removed = repository.deleteLogsBefore(OffsetDateTime.now(ZONE_NAIROBI).minusDays(days));
+        if (removed > 0) {
+            readCache.invalidate();
+        }
+        return removed;
+    }
+
+    /**
+     * In-memory latency snapshot for an endpoint; window "all" = since startup, otherwise clamped
+     * to the histogram ring span. Null when the endpoint has seen no traffic.
+     */
+    public LatencyHistogram.Snapshot latencySnapshot(long endpointId, String window) {
+        return histograms.snapshot(endpointId, latencyWindow(window));
+    }
+
+    /** Percentiles plus non-empty buckets of the in-memory latency histogram for one endpoint. */
+    public LatencyHistogramView latencyHistogram(long endpointId, String window) {
+        Duration d = latencyWindow(window);
+        LatencyHistogram.Snapshot snap = histograms.snapshot(endpointId, d);
+        LatencyHistogramView view = new LatencyHistogramView();
+        view.endpointId = endpointId;
+        view.window = d == null ? "all" : formatWindow(d);
+        if (snap == null || snap.getCount() == 0) {
+            view.count = 0L;
+            return view;
+        }
+        view.count = snap.getCount();
+        view.meanMs = snap.getMean();
+        view.p50Ms = snap.percentile(0.50);
+        view.p90Ms = snap.percentile(0.90);
+        view.p99Ms = snap.percentile(0.99);
+        view.p999Ms = snap.percentile(0.999);
+        view.maxMs = snap.getMax();
+        snap.forEachBucket((from, to, count) -> view.buckets.add(new LatencyHistogramView.Bucket(from, to, count)));
+        return view;
+    }
+
+    private Duration latencyWindow(String window) {
+        if (window != null && window.trim().equalsIgnoreCase("all")) {
+            return null;
+        }
+        Duration d = parseWindow(window);
+        return d.compareTo(histograms.maxWindow()) > 0 ? histograms.maxWindow() : d;
+    }
+
+    /** Parse windows like 30m, 1h, 24h, 7d (or ISO-8601 PT1H); falls back to 24h. */
+    static Duration parseWindow(String window) {
+        if (window == null || window.isBlank()) {
+            return DEFAULT_WINDOW;
+        }
+        String w = window.trim().toLowerCase();
+        try {
+            if (w.startsWith("p")) {
+                return Duration.parse(w.toUpperCase());
+            }
+            long amount = Long.parseLong(w.substring(0, w.length() - 1));
+            switch (w.charAt(w.length() - 1)) {
+                case 's': return Duration.ofSeconds(amount);
+                case 'm': return Duration.ofMinutes(amount);
+                case 'h': return Duration.ofHours(amount);
+                case 'd': return Duration.ofDays(amount);
+                default: return DEFAULT_WINDOW;
+            }
+        } catch (Exception e) {
+            return DEFAULT_WINDOW;
+        }
+    }
+
+    private static String formatWindow(Duration d) {
+        long s = d.getSeconds();
+        if (s % 86400 == 0) return (s / 86400) + "d";
+        if (s % 3600 == 0) return (s / 3600) + "h";
+        if (s % 60 == 0) return (s / 60) + "m";
+        return s + "s";
     }
 
     /** Centralized up/down decision so scheduler and interceptor share the same rules. */
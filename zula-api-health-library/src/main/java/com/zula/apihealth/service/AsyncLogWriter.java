@@ -0,0 +1,305 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.repository.ApiHealthRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves call-log persistence off the calling thread (servlet or event-loop). Captured calls are offered to
+ * a bounded queue; when it is full the entry is dropped and counted rather than blocking the caller.
+ * A single writer thread drains up to {@code batchSize} entries, inserts them in one JDBC batch and
+ * writes only the newest monitor status per endpoint of the batch. Secrets are masked by the optional
+ * {@link LogRedactor} here, on the writer thread, before anything is stored; the optional
+ * {@link HeaderDictionary} and {@link BodyDictionary} then move stable headers and repeated response bodies
+ * into shared rows. With {@link OffHeapStaging} the queue holds only handles to entries serialized off-heap.
+ */
+public class AsyncLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AsyncLogWriter.class);
+
+    private final ApiHealthRepository repository;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long flushMillis;
+    private final LogRedactor redactor;
+    private final HeaderDictionary headerDictionary;
+    private final BodyDictionary bodyDictionary;
+    private final OffHeapStaging staging;
+    private final Runnable afterFlush;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedEntries = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong dbErrors = new AtomicLong();
+    private final int capacity;
+    private volatile int lastBatch;
+    private volatile int maxBatch;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /** @param afterFlush invoked after every flush (e.g. invalidate read caches) */
+    public AsyncLogWriter(ApiHealthRepository repository, int capacity, int batchSize, long flushMillis, Runnable afterFlush) {
+        this(repository, capacity, batchSize, flushMillis, null, afterFlush);
+    }
+
+    /** @param redactor masks headers and JSON fields before entries are written (null to store as captured) */
+    public AsyncLogWriter(ApiHealthRepository repository, int capacity, int batchSize, long flushMillis,
+                          LogRedactor redactor, Runnable afterFlush) {
+        this(repository, capacity, batchSize, flushMillis, redactor, null, null, afterFlush);
+    }
+
+    /**
+     * @param headerDictionary stores stable headers once per distinct set (null to keep them on every row)
+     * @param bodyDictionary   stores each distinct response body once (null to keep bodies on every row)
+     */
+    public AsyncLogWriter(ApiHealthRepository repository, int capacity, int batchSize, long flushMillis,
+                          LogRedactor redactor, HeaderDictionary headerDictionary, BodyDictionary bodyDictionary,
+                          Runnable afterFlush) {
+        this(repository, capacity, batchSize, flushMillis, redactor, headerDictionary, bodyDictionary, null, afterFlush);
+    }
+
+    /** @param staging serializes queued entries off-heap (null to queue the entry objects) */
+    public AsyncLogWriter(ApiHealthRepository repository, int capacity, int batchSize, long flushMillis,
+                          LogRedactor redactor, HeaderDictionary headerDictionary, BodyDictionary bodyDictionary,
+                          OffHeapStaging staging, Runnable afterFlush) {
+        this.repository = repository;
+        this.redactor = redactor;
+        this.headerDictionary = headerDictionary;
+        this.bodyDictionary = bodyDictionary;
+        this.staging = staging;
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.afterFlush = afterFlush;
+        this.worker = new Thread(this::run, "api-health-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a captured call; {@code endpointId} null means unregistered (monitor status is then matched by URL).
+     * Returns false when the queue (or the off-heap staging area) is full and the entry was dropped.
+     */
+    public boolean submit(ApiCallLogEntry entry, Long endpointId, boolean up, boolean degraded) {
+        Pending pending;
+        if (staging == null) {
+            pending = new Pending(entry, null, endpointId, up, degraded);
+        } else {
+            ByteBuffer[] staged = staging.write(entry);
+            pending = staged != null ? new Pending(null, staged, endpointId, up, degraded) : null;
+        }
+        if (pending != null) {
+            if (queue.offer(pending)) {
+                return true;
+            }
+            if (pending.staged != null) staging.release(pending.staged);
+        }
+        long n = dropped.incrementAndGet();
+        if (n == 1 || n % 1000 == 0) {
+            log.warn("ApiHealth log queue full; {} call log(s) dropped so far", n);
+        }
+        return false;
+    }
+
+    public int queueDepth() { return queue.size(); }
+    public long droppedCount() { return dropped.get(); }
+    public long writtenCount() { return written.get(); }
+    public long failedCount() { return failed.get(); }
+    public int capacity() { return capacity; }
+    public long flushCount() { return flushes.get(); }
+    /** Entries handed to all flushes so far; divided by {@link #flushCount()} gives the mean batch size. */
+    public long flushedEntries() { return flushedEntries.get(); }
+    /** Wall time spent in flushes (batch insert plus monitor updates). */
+    public long flushNanos() { return flushNanos.get(); }
+    public int lastBatchSize() { return lastBatch; }
+    public int maxBatchSize() { return maxBatch; }
+    /** Failed statements: log batch inserts, header set and body lookups, and passive monitor updates. */
+    public long dbErrorCount() { return dbErrors.get(); }
+    /** Off-heap staging area, or null when entries are queued on the heap. */
+    public OffHeapStaging staging() { return staging; }
+
+    /** Stop accepting work, flush what is queued and wait briefly for the writer. */
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch, batchSize);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (RuntimeException ex) {
+                    // Keep the only writer thread alive; the batch is lost but counted
+                    failed.addAndGet(batch.size());
+                    dbErrors.incrementAndGet();
+                    log.warn("ApiHealth failed to flush {} call log(s): {}", batch.size(), ex.toString());
+                } finally {
+                    releaseStaged(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long startNanos = System.nanoTime();
+        List<ApiCallLogEntry> entries = new ArrayList<>(batch.size());
+        Map<Object, Pending> latestStatus = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            if (p.staged != null) {
+                ByteBuffer[] staged = p.staged;
+                // read() returns the segments even when decoding fails
+                p.staged = null;
+                p.entry = staging.read(staged);
+            }
+            redact(p.entry);
+            entries.add(p.entry);
+            // Inbound requests have no monitor row
+            if (p.entry.getHttpStatus() != null && !"IN".equals(p.entry.getDirection())) {
+                Object key = p.endpointId != null ? p.endpointId : p.entry.getHttpMethod() + " " + p.entry.getUrl();
+                latestStatus.put(key, p);
+            }
+        }
+        encodeHeaders(entries);
+        encodeBodies(entries);
+        try {
+            repository.insertLogs(entries);
+            written.addAndGet(entries.size());
+        } catch (Exception ex) {
+            failed.addAndGet(entries.size());
+            dbErrors.incrementAndGet();
+            log.warn("ApiHealth failed to write {} call log(s): {}", entries.size(), ex.getMessage());
+            releaseBodies(entries);
+        }
+        for (Pending p : latestStatus.values()) {
+            ApiCallLogEntry e = p.entry;
+            try {
+                if (p.endpointId != null) {
+                    repository.updateMonitorStatus(p.endpointId, e.getHttpStatus(), p.up, e.getResponseBody(), e.getTimestamp(),
+                            e.getDurationMs(), p.degraded);
+                } else {
+                    repository.updateMonitorStatusByUrl(e.getUrl(), e.getHttpMethod(), e.getHttpStatus(), p.up, e.getResponseBody(), e.getTimestamp());
+                }
+            } catch (Exception ex) {
+                dbErrors.incrementAndGet();
+                log.debug("Passive monitor update failed for {} : {}", e.getUrl(), ex.getMessage());
+            }
+        }
+        if (afterFlush != null) {
+            try {
+                afterFlush.run();
+            } catch (RuntimeException ex) {
+                log.debug("ApiHealth after-flush hook failed: {}", ex.getMessage());
+            }
+        }
+        flushNanos.addAndGet(System.nanoTime() - startNanos);
+        flushedEntries.addAndGet(batch.size());
+        flushes.incrementAndGet();
+        lastBatch = batch.size();
+        if (batch.size() > maxBatch) maxBatch = batch.size();
+    }
+
+    /** Return segments of entries a failed flush did not get to decode. */
+    private void releaseStaged(List<Pending> batch) {
+        for (Pending p : batch) {
+            if (p.staged != null) {
+                staging.release(p.staged);
+                p.staged = null;
+            }
+        }
+    }
+
+    private void redact(ApiCallLogEntry entry) {
+        if (redactor == null) return;
+        try {
+            redactor.redact(entry);
+        } catch (RuntimeException ex) {
+            // Never store what could not be redacted
+            entry.setRequestHeaders(null);
+            entry.setResponseHeaders(null);
+            entry.setRequestBody(null);
+            entry.setResponseBody(null);
+            log.debug("Redaction failed for {} : {}", entry.getUrl(), ex.getMessage());
+        }
+    }
+
+    private void encodeHeaders(List<ApiCallLogEntry> entries) {
+        if (headerDictionary == null) return;
+        try {
+            headerDictionary.encode(entries);
+        } catch (Exception ex) {
+            // Rows keep their full headers
+            dbErrors.incrementAndGet();
+            log.debug("Header set lookup failed for {} call log(s): {}", entries.size(), ex.getMessage());
+        }
+    }
+
+    private void encodeBodies(List<ApiCallLogEntry> entries) {
+        if (bodyDictionary == null) return;
+        try {
+            bodyDictionary.encode(entries);
+        } catch (Exception ex) {
+            // Rows keep their bodies
+            dbErrors.incrementAndGet();
+            log.debug("Body lookup failed for {} call log(s): {}", entries.size(), ex.getMessage());
+        }
+    }
+
+    /** Body references were counted before the insert; the rows do not exist, so take them back. */
+    private void releaseBodies(List<ApiCallLogEntry> entries) {
+        if (bodyDictionary == null) return;
+        try {
+            bodyDictionary.release(entries);
+        } catch (Exception ex) {
+            dbErrors.incrementAndGet();
+            log.debug("Body reference release failed for {} call log(s): {}", entries.size(), ex.getMessage());
+        }
+    }
+
+    private static final class Pending {
+        /** Decoded from {@link #staged} by the writer when staged off-heap. */
+        ApiCallLogEntry entry;
+        /** Segments still holding the entry; cleared once handed to {@link OffHeapStaging#read}. */
+        ByteBuffer[] staged;
+        final Long endpointId;
+        final boolean up;
+        final boolean degraded;
+
+        Pending(ApiCallLogEntry entry, ByteBuffer[] staged, Long endpointId, boolean up, boolean degraded) {
+            this.entry = entry;
+            this.staged = staged;
+            this.endpointId = endpointId;
+            this.up = up;
+            this.degraded = degraded;
+        }
+    }
+}
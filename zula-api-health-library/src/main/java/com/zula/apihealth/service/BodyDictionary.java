@@ -0,0 +1,103 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.repository.ApiHealthRepository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed storage of response bodies (api_bodies): each distinct captured body is stored once, keyed
+ * by the SHA-256 of what was kept (after redaction, prefix and [TRUNCATED] marker included), and log rows
+ * reference it by id. Every reference is counted on the body row so call log retention can drop bodies no row
+ * points to any more. A bounded LRU of hot hashes skips the lookup for bodies already stored. Bodies shorter
+ * than {@code minChars} stay on the row. Runs on the log writer thread.
+ */
+public class BodyDictionary {
+    private static final ZoneId ZONE = ZoneId.of("Africa/Nairobi");
+
+    private final ApiHealthRepository repository;
+    private final int minChars;
+    private final Map<String, Long> known;
+    private final ContentHash hash = new ContentHash();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    public BodyDictionary(ApiHealthRepository repository, int minChars, int cacheSize) {
+        this.repository = repository;
+        this.minChars = Math.max(1, minChars);
+        int max = Math.max(1, cacheSize);
+        this.known = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /**
+     * Point the response bodies of {@code entries} at stored bodies and count the references. Entries keep their
+     * body text (monitor status still reads it); the row stores only the id. Unknown bodies are resolved in one
+     * round trip; if anything fails the entries are left untouched and store their bodies inline.
+     */
+    public void encode(List<ApiCallLogEntry> entries) {
+        String[] hashes = new String[entries.size()];
+        Long[] ids = new Long[entries.size()];
+        Map<String, String> unknown = new HashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            String body = entries.get(i).getResponseBody();
+            if (body == null || body.length() < minChars) continue;
+            hashes[i] = hash.hex(body);
+            ids[i] = known.get(hashes[i]);
+            if (ids[i] != null) {
+                hits.incrementAndGet();
+            } else {
+                unknown.put(hashes[i], body);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            lookups.addAndGet(unknown.size());
+            Map<String, Long> resolved = repository.resolveBodies(unknown);
+            known.putAll(resolved);
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != null && ids[i] == null) ids[i] = resolved.get(hashes[i]);
+            }
+        }
+        Map<Long, Integer> refs = new HashMap<>();
+        for (Long id : ids) {
+            if (id != null) refs.merge(id, 1, Integer::sum);
+        }
+        if (refs.isEmpty()) return;
+        // A cached id whose body retention removed in the meantime: forget it, those rows keep their body
+        Collection<Long> gone = repository.addBodyReferences(refs, OffsetDateTime.now(ZONE));
+        if (!gone.isEmpty()) {
+            known.values().removeAll(gone);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != null && !gone.contains(ids[i])) entries.get(i).setResponseBodyId(ids[i]);
+        }
+    }
+
+    /**
+     * Give back the references {@link #encode} counted for {@code entries}; called when their insert failed so
+     * retention can still free the bodies.
+     */
+    public void release(List<ApiCallLogEntry> entries) {
+        Map<Long, Integer> refs = new HashMap<>();
+        for (ApiCallLogEntry e : entries) {
+            if (e.getResponseBodyId() != null) refs.merge(e.getResponseBodyId(), 1, Integer::sum);
+        }
+        if (!refs.isEmpty()) repository.releaseBodyReferences(refs);
+    }
+
+    /** Bodies found in the hot-hash cache. */
+    public long cacheHits() { return hits.get(); }
+    /** Distinct bodies looked up (and inserted when new) in api_bodies. */
+    public long lookups() { return lookups.get(); }
+}
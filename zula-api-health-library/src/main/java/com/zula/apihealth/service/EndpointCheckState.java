@@ -0,0 +1,39 @@
+package com.zula.apihealth.service;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Latest check outcome for one endpoint as seen by this instance (active ping or passive call). Passive calls
+ * leave the body null: it is only redacted on the log writer thread.
+ * Immutable so it can be swapped atomically in a concurrent map and read without locks.
+ */
+public final class EndpointCheckState {
+    private final OffsetDateTime checkedAt;
+    private final int status;
+    private final boolean success;
+    private final Integer latencyMs;
+    private final boolean degraded;
+    private final String body;
+
+    public EndpointCheckState(OffsetDateTime checkedAt, int status, boolean success, Integer latencyMs,
+                              boolean degraded, String body) {
+        this.checkedAt = checkedAt;
+        this.status = status;
+        this.success = success;
+        this.latencyMs = latencyMs;
+        this.degraded = degraded;
+        this.body = body;
+    }
+
+    public OffsetDateTime getCheckedAt() { return checkedAt; }
+    public int getStatus() { return status; }
+    public boolean isSuccess() { return success; }
+    public Integer getLatencyMs() { return latencyMs; }
+    public boolean isDegraded() { return degraded; }
+    public String getBody() { return body; }
+
+    /** "UP", "DEGRADED" or "DOWN". */
+    public String healthStatus() {
+        return !success ? "DOWN" : degraded ? "DEGRADED" : "UP";
+    }
+}
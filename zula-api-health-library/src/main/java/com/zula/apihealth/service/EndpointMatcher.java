@@ -0,0 +1,119 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiEndpointView;
+import com.zula.apihealth.repository.ApiHealthRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of the endpoint registry used to resolve a concrete URL to its registry row
+ * without a database round trip. Same rule as the SQL matching: same HTTP method, longest path prefix wins.
+ * The snapshot is reloaded lazily once it is older than the configured refresh interval.
+ */
+public class EndpointMatcher {
+    private static final Logger log = LoggerFactory.getLogger(EndpointMatcher.class);
+
+    private final ApiHealthRepository repository;
+    private final long refreshMillis;
+    private final UrlTemplateNormalizer normalizer;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new Pattern[0]);
+    private volatile long loadedAt = 0L;
+
+    public EndpointMatcher(ApiHealthRepository repository, int refreshSeconds) {
+        this(repository, refreshSeconds, null);
+    }
+
+    /** @param normalizer optional; receives the registered templates on every reload */
+    public EndpointMatcher(ApiHealthRepository repository, int refreshSeconds, UrlTemplateNormalizer normalizer) {
+        this.repository = repository;
+        this.refreshMillis = Math.max(1, refreshSeconds) * 1000L;
+        this.normalizer = normalizer;
+    }
+
+    /** Registered endpoint owning this URL, or null when none matches. */
+    public ApiEndpointView match(String url, String method) {
+        if (url == null) return null;
+        refreshIfStale();
+        return matchCached(url, method);
+    }
+
+    /** Like {@link #match} but never reloads (no JDBC), for event-loop threads. */
+    public ApiEndpointView matchCached(String url, String method) {
+        if (url == null) return null;
+        Snapshot current = snapshot;
+        List<ApiEndpointView> rows = current.rows;
+        for (int i = 0; i < rows.size(); i++) {
+            ApiEndpointView e = rows.get(i);
+            if (method != null && !method.equalsIgnoreCase(e.getMethod())) continue;
+            Pattern p = current.patterns[i];
+            if (p == null ? url.startsWith(e.getPath()) : p.matcher(url).lookingAt()) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /** Current registry snapshot (ordered by path length, longest first). */
+    public List<ApiEndpointView> endpoints() {
+        refreshIfStale();
+        return snapshot.rows;
+    }
+
+    /** Snapshot as currently loaded, never triggering a reload (for latency-critical readers). */
+    public List<ApiEndpointView> cachedEndpoints() {
+        return snapshot.rows;
+    }
+
+    /** Reload if the snapshot is older than the refresh interval; only one caller pays for the reload. */
+    public void refreshIfStale() {
+        if (System.currentTimeMillis() - loadedAt < refreshMillis) return;
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            refresh();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /** Force a reload from the registry table. */
+    public void refresh() {
+        try {
+            List<ApiEndpointView> rows = new ArrayList<>(repository.registeredEndpoints());
+            rows.removeIf(e -> e.getPath() == null);
+            rows.sort(Comparator.comparingInt((ApiEndpointView e) -> e.getPath().length()).reversed());
+            Pattern[] compiled = new Pattern[rows.size()];
+            for (int i = 0; i < compiled.length; i++) {
+                compiled[i] = UrlTemplateNormalizer.compile(rows.get(i).getPath());
+            }
+            snapshot = new Snapshot(List.copyOf(rows), compiled);
+            if (normalizer != null) {
+                normalizer.setTemplates(rows);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("EndpointMatcher loaded {} endpoint(s)", rows.size());
+            }
+        } catch (Exception ex) {
+            log.debug("EndpointMatcher refresh failed: {}", ex.getMessage());
+        } finally {
+            loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private static final class Snapshot {
+        final List<ApiEndpointView> rows;
+        // Compiled placeholder patterns aligned with rows (null = plain prefix path)
+        final Pattern[] patterns;
+
+        Snapshot(List<ApiEndpointView> rows, Pattern[] patterns) {
+            this.rows = rows;
+            this.patterns = patterns;
+        }
+    }
+}
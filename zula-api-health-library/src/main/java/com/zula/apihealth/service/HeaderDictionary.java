@@ -0,0 +1,150 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiCallLogEntry;
+import com.zula.apihealth.repository.ApiHealthRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores each distinct set of stable headers once (api_header_sets) and lets log rows reference it by id.
+ * Volatile headers (dates, lengths, request and trace ids) stay on the row, so a partner's calls share a
+ * handful of sets. Sets are canonicalized (entries sorted by name, format kept) and keyed by SHA-256; a bounded
+ * LRU of known hashes lets most rows skip the dictionary lookup. Runs on the log writer thread, after redaction.
+ */
+public class HeaderDictionary {
+    private final ApiHealthRepository repository;
+    private final Set<String> volatileHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Long> known;
+    private final ContentHash hash = new ContentHash();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+
+    public HeaderDictionary(ApiHealthRepository repository, Collection<String> volatileHeaders, int cacheSize) {
+        this.repository = repository;
+        if (volatileHeaders != null) {
+            for (String h : volatileHeaders) {
+                if (h != null && !h.isBlank()) this.volatileHeaders.add(h.trim());
+            }
+        }
+        int max = Math.max(1, cacheSize);
+        this.known = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /**
+     * Move the stable headers of {@code entries} into shared sets: each entry gets the set ids and keeps only its
+     * volatile headers. Unknown sets are resolved in one round trip; if that fails the entries are left untouched.
+     */
+    public void encode(List<ApiCallLogEntry> entries) {
+        List<Split> splits = new ArrayList<>(entries.size() * 2);
+        Map<String, String> unknown = new HashMap<>();
+        for (ApiCallLogEntry e : entries) {
+            splits.add(lookup(split(e.getRequestHeaders()), unknown));
+            splits.add(lookup(split(e.getResponseHeaders()), unknown));
+        }
+        if (!unknown.isEmpty()) {
+            lookups.addAndGet(unknown.size());
+            Map<String, Long> resolved = repository.resolveHeaderSets(unknown);
+            known.putAll(resolved);
+            for (Split s : splits) {
+                if (s != null && s.id == null) s.id = resolved.get(s.hash);
+            }
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            ApiCallLogEntry e = entries.get(i);
+            Split request = splits.get(2 * i);
+            Split response = splits.get(2 * i + 1);
+            if (request != null && request.id != null) {
+                e.setRequestHeaderSetId(request.id);
+                e.setRequestHeaders(request.rest);
+            }
+            if (response != null && response.id != null) {
+                e.setResponseHeaderSetId(response.id);
+                e.setResponseHeaders(response.rest);
+            }
+        }
+    }
+
+    /** Header sets found in the in-memory cache. */
+    public long cacheHits() { return hits.get(); }
+    /** Distinct header sets looked up (and inserted when new) in the dictionary table. */
+    public long lookups() { return lookups.get(); }
+
+    private Split lookup(Split s, Map<String, String> unknown) {
+        if (s == null) return null;
+        s.id = known.get(s.hash);
+        if (s.id != null) {
+            hits.incrementAndGet();
+        } else {
+            unknown.put(s.hash, s.shared);
+        }
+        return s;
+    }
+
+    /**
+     * Stable entries sorted by name (the shared set) and the volatile rest in capture order, both in the
+     * captured format; null when the string is not a header list or holds no stable entry.
+     */
+    Split split(String raw) {
+        if (raw == null || raw.length() < 3) return null;
+        char open = raw.charAt(0);
+        int close = raw.length() - 1;
+        if ((open != '[' && open != '{') || (raw.charAt(close) != ']' && raw.charAt(close) != '}')) return null;
+        List<String[]> stable = new ArrayList<>();
+        StringBuilder rest = null;
+        int i = 1;
+        while (i < close) {
+            int sep = LogRedactor.separator(raw, i, close);
+            if (sep < 0) return null;
+            int valueEnd = LogRedactor.valueEnd(raw, sep + 1, close);
+            String name = raw.substring(i, sep).trim();
+            String item = raw.substring(i, valueEnd);
+            if (volatileHeaders.contains(name)) {
+                rest = rest == null ? new StringBuilder().append(open) : rest.append(", ");
+                rest.append(item);
+            } else {
+                stable.add(new String[]{name, item});
+            }
+            if (!raw.startsWith(", ", valueEnd)) {
+                if (valueEnd < close) return null;
+                break;
+            }
+            i = valueEnd + 2;
+        }
+        if (stable.isEmpty()) return null;
+        stable.sort((a, b) -> a[0].compareToIgnoreCase(b[0]));
+        StringBuilder shared = new StringBuilder(raw.length()).append(open);
+        for (int k = 0; k < stable.size(); k++) {
+            if (k > 0) shared.append(", ");
+            shared.append(stable.get(k)[1]);
+        }
+        shared.append(raw.charAt(close));
+        String text = shared.toString();
+        return new Split(text, hash.hex(text), rest != null ? rest.append(raw.charAt(close)).toString() : null);
+    }
+
+    static final class Split {
+        final String shared;
+        final String hash;
+        final String rest;
+        Long id;
+
+        Split(String shared, String hash, String rest) {
+            this.shared = shared;
+            this.hash = hash;
+            this.rest = rest;
+        }
+    }
+}
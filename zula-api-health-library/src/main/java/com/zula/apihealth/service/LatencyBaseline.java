@@ -0,0 +1,97 @@
+package com.zula.apihealth.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Learned latency baseline per endpoint and source (exponentially weighted moving average) used to flag
+ * slow-but-up endpoints as DEGRADED when no explicit threshold is configured. Real traffic and probes hit
+ * different paths, so each keeps its own baseline. Degraded samples leave the baseline alone; an endpoint
+ * that stays degraded for longer than the re-baseline period (wall time, however many calls it served) has
+ * its slow latency taken as the new normal (e.g. a partner moved regions), so DEGRADED never sticks.
+ */
+public class LatencyBaseline {
+    private static final double ALPHA = 0.1;
+
+    /** Where a latency sample came from. */
+    public enum Source { PASSIVE, PROBE }
+
+    private final ConcurrentMap<Long, Ewma> passive = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Ewma> probe = new ConcurrentHashMap<>();
+    private final double factor;
+    private final int minLatencyMs;
+    private final int minSamples;
+    private final long rebaselineAfterMillis;
+
+    /**
+     * @param factor latency above factor x baseline is degraded
+     * @param minLatencyMs never flag latencies below this, whatever the baseline
+     * @param minSamples healthy samples needed before the baseline is trusted
+     * @param rebaselineAfterMillis continuous degraded time after which the slow latency becomes the baseline
+     *                              (<=0 never re-baselines)
+     */
+    public LatencyBaseline(double factor, int minLatencyMs, int minSamples, long rebaselineAfterMillis) {
+        this.factor = factor;
+        this.minLatencyMs = minLatencyMs;
+        this.minSamples = minSamples;
+        this.rebaselineAfterMillis = rebaselineAfterMillis;
+    }
+
+    /**
+     * Classify a successful sample against the baseline of its source; healthy samples feed the baseline,
+     * degraded ones only the candidate that replaces it once the endpoint has been degraded long enough.
+     * @param explicitThresholdMs per-endpoint threshold; when >0 it wins over the learned baseline
+     */
+    public boolean observe(long endpointId, Source source, int latencyMs, Integer explicitThresholdMs) {
+        if (explicitThresholdMs != null && explicitThresholdMs > 0) {
+            return latencyMs > explicitThresholdMs;
+        }
+        Ewma e = baselines(source).computeIfAbsent(endpointId, k -> new Ewma());
+        synchronized (e) {
+            boolean degraded = e.samples >= minSamples
+                    && latencyMs >= minLatencyMs
+                    && latencyMs > e.value * factor;
+            if (!degraded) {
+                e.value = e.samples == 0 ? latencyMs : e.value + ALPHA * (latencyMs - e.value);
+                e.samples++;
+                e.degradedSince = 0;
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (e.degradedSince == 0) {
+                e.degradedSince = now;
+                e.stepValue = latencyMs;
+            } else {
+                e.stepValue += ALPHA * (latencyMs - e.stepValue);
+            }
+            if (rebaselineAfterMillis > 0 && now - e.degradedSince >= rebaselineAfterMillis) {
+                // Still slow after the whole period: this is the new normal
+                e.value = e.stepValue;
+                e.degradedSince = 0;
+            }
+            return true;
+        }
+    }
+
+    /** Current baseline in ms, or null while still learning. */
+    public Double baselineMs(long endpointId, Source source) {
+        Ewma e = baselines(source).get(endpointId);
+        if (e == null) return null;
+        synchronized (e) {
+            return e.samples >= minSamples ? e.value : null;
+        }
+    }
+
+    private ConcurrentMap<Long, Ewma> baselines(Source source) {
+        return source == Source.PROBE ? probe : passive;
+    }
+
+    private static final class Ewma {
+        double value;
+        long samples;
+        /** Start of the current degraded stretch (epoch millis), 0 when the last sample was healthy. */
+        long degradedSince;
+        /** Average latency during the current degraded stretch. */
+        double stepValue;
+    }
+}
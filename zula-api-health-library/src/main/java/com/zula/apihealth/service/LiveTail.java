@@ -0,0 +1,213 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiLogView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Live tail of captured calls for SSE subscribers. Captured calls go into a fixed broadcast ring
+ * (publishing is an atomic increment plus a slot write and never blocks); a single dispatcher reads
+ * each subscriber's cursor forward, applies its filter and hands at most {@code subscriberBuffer}
+ * events to a small send pool. A subscriber that falls further behind skips ahead and the skipped events are counted as dropped,
+ * so a slow client never slows capture or other subscribers.
+ */
+public class LiveTail {
+    private static final Logger log = LoggerFactory.getLogger(LiveTail.class);
+    private static final long DISPATCH_MILLIS = 250;
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final AtomicReferenceArray<Slot> ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService senders;
+
+    public LiveTail(int ringSize, int subscriberBuffer, int maxSubscribers, long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(16, ringSize - 1) << 1);
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.subscriberBuffer = Math.max(1, subscriberBuffer);
+        this.maxSubscribers = Math.max(0, maxSubscribers);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** Publish one captured call; cheap no-op when nobody is listening. */
+    public void publish(ApiLogView view, Long endpointId) {
+        if (subscribers.isEmpty()) return;
+        long seq = head.getAndIncrement();
+        ring.set((int) (seq & mask), new Slot(seq, view, endpointId));
+    }
+
+    /**
+     * Open a stream for a new subscriber, or null when the subscriber cap is reached.
+     * @param endpointId only calls matched to this registry endpoint (null = all)
+     * @param failuresOnly only calls with success=false
+     * @param slowMs only calls at least this slow (null = no threshold)
+     */
+    public SseEmitter subscribe(Long endpointId, boolean failuresOnly, Integer slowMs) {
+        Subscriber sub;
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                return null;
+            }
+            sub = new Subscriber(new SseEmitter(timeoutMillis), endpointId, failuresOnly, slowMs, head.get());
+            subscribers.add(sub);
+        }
+        sub.emitter.onCompletion(() -> subscribers.remove(sub));
+        sub.emitter.onTimeout(() -> subscribers.remove(sub));
+        sub.emitter.onError(ex -> subscribers.remove(sub));
+        ensureStarted();
+        return sub.emitter;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Stop the dispatcher and complete every open stream. */
+    public void shutdown() {
+        if (dispatcher != null) dispatcher.shutdownNow();
+        if (senders != null) senders.shutdownNow();
+        for (Subscriber s : subscribers) {
+            s.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void ensureStarted() {
+        if (!started.compareAndSet(false, true)) return;
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "api-health-tail-dispatch"));
+        senders = Executors.newFixedThreadPool(2, r -> daemon(r, "api-health-tail-send"));
+        dispatcher.scheduleWithFixedDelay(this::dispatch, DISPATCH_MILLIS, DISPATCH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private void dispatch() {
+        long now = System.currentTimeMillis();
+        long end = head.get();
+        for (Subscriber sub : subscribers) {
+            if (sub.sending.get()) continue;
+            List<ApiLogView> batch = collect(sub, end);
+            boolean heartbeat = batch.isEmpty() && now - sub.lastSentMillis >= HEARTBEAT_MILLIS;
+            if (batch.isEmpty() && !heartbeat && sub.pendingDrops == 0) continue;
+            sub.sending.set(true);
+            long drops = sub.pendingDrops;
+            sub.pendingDrops = 0;
+            try {
+                senders.execute(() -> send(sub, batch, drops));
+            } catch (Exception ex) {
+                sub.sending.set(false);
+            }
+        }
+    }
+
+    /** Read the subscriber's cursor forward to {@code end}, skipping ahead when it lags past its buffer. */
+    private List<ApiLogView> collect(Subscriber sub, long end) {
+        long from = Math.max(sub.cursor, end - Math.min(ring.length(), subscriberBuffer));
+        if (from > sub.cursor) {
+            sub.pendingDrops += from - sub.cursor;
+        }
+        List<ApiLogView> batch = new ArrayList<>();
+        long seq = from;
+        for (; seq < end; seq++) {
+            Slot slot = ring.get((int) (seq & mask));
+            if (slot == null || slot.seq < seq) break; // claimed but not yet written; retry next tick
+            if (slot.seq > seq) {
+                sub.pendingDrops++; // overwritten by a newer lap
+                continue;
+            }
+            if (sub.accepts(slot)) {
+                batch.add(slot.view);
+            }
+        }
+        sub.cursor = seq;
+        return batch;
+    }
+
+    private void send(Subscriber sub, List<ApiLogView> batch, long drops) {
+        try {
+            if (drops > 0) {
+                sub.emitter.send(SseEmitter.event().name("dropped").data(drops));
+            }
+            for (ApiLogView v : batch) {
+                sub.emitter.send(SseEmitter.event().name("call").data(v, MediaType.APPLICATION_JSON));
+            }
+            if (batch.isEmpty() && drops == 0) {
+                sub.emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+            sub.lastSentMillis = System.currentTimeMillis();
+        } catch (Exception ex) {
+            log.debug("Live tail subscriber gone: {}", ex.getMessage());
+            subscribers.remove(sub);
+            sub.emitter.completeWithError(ex);
+        } finally {
+            sub.sending.set(false);
+        }
+    }
+
+    private static final class Slot {
+        final long seq;
+        final ApiLogView view;
+        final Long endpointId;
+
+        Slot(long seq, ApiLogView view, Long endpointId) {
+            this.seq = seq;
+            this.view = view;
+            this.endpointId = endpointId;
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Long endpointId;
+        final boolean failuresOnly;
+        final Integer slowMs;
+        final AtomicBoolean sending = new AtomicBoolean(false);
+        // Only touched by the dispatcher thread
+        long cursor;
+        long pendingDrops;
+        volatile long lastSentMillis = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter, Long endpointId, boolean failuresOnly, Integer slowMs, long cursor) {
+            this.emitter = emitter;
+            this.endpointId = endpointId;
+            this.failuresOnly = failuresOnly;
+            this.slowMs = slowMs;
+            this.cursor = cursor;
+        }
+
+        boolean accepts(Slot slot) {
+            if (endpointId != null && !endpointId.equals(slot.endpointId)) return false;
+            if (failuresOnly && !Boolean.FALSE.equals(slot.view.getSuccess())) return false;
+            if (slowMs != null && (slot.view.getDurationMs() == null || slot.view.getDurationMs() < slowMs)) return false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.zula.apihealth.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.base.ParserBase;
+import com.zula.apihealth.model.ApiCallLogEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks secrets in a captured call before it is stored; run by the background log writer, never the caller.
+ *
+ * Headers: values of masked names become {@code ***} and dropped names are removed. The stored header strings of
+ * all capture paths are understood ({@code [Name:"v", "v2"]}, {@code [Name: v]}, {@code {name=[v]}}).
+ *
+ * JSON bodies: values of matching fields (a name at any depth, or a {@code $.a.b} path where arrays are transparent)
+ * become {@code "***"}. Bodies are walked with the streaming tokenizer and only the masked value spans are
+ * rewritten, so the rest keeps its original text. A truncated body whose cut-off tail mentions a masked name is
+ * cut before it.
+ */
+public class LogRedactor {
+    public static final String MASK = "***";
+    private static final String TRUNCATED = "[TRUNCATED]";
+    private static final JsonFactory JSON = new JsonFactory();
+    // Next "Name: " entry of an Apache-style header list
+    private static final Pattern NEXT_PLAIN_ENTRY = Pattern.compile(", [!#$%&'*+.^_`|~0-9A-Za-z-]+: ");
+
+    private final Set<String> maskHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final Set<String> dropHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final Set<String> fieldNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final List<String[]> fieldPaths = new ArrayList<>();
+    private final List<String> tailWords = new ArrayList<>();
+
+    public LogRedactor(Collection<String> maskHeaders, Collection<String> dropHeaders, Collection<String> jsonFields) {
+        addAll(this.maskHeaders, maskHeaders);
+        addAll(this.dropHeaders, dropHeaders);
+        if (jsonFields != null) {
+            for (String f : jsonFields) {
+                if (f == null || f.isBlank()) continue;
+                String field = f.trim();
+                if (field.startsWith("$.")) {
+                    String[] path = field.substring(2).split("\\.");
+                    fieldPaths.add(path);
+                    tailWords.add(path[path.length - 1].toLowerCase(Locale.ROOT));
+                } else {
+                    fieldNames.add(field);
+                    tailWords.add(field.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    /** Redact headers and bodies of {@code entry} in place. */
+    public void redact(ApiCallLogEntry entry) {
+        entry.setRequestHeaders(headers(entry.getRequestHeaders()));
+        entry.setResponseHeaders(headers(entry.getResponseHeaders()));
+        entry.setRequestBody(json(entry.getRequestBody()));
+        entry.setResponseBody(json(entry.getResponseBody()));
+    }
+
+    /** Header string with masked values and dropped entries; returned unchanged when nothing matched. */
+    public String headers(String raw) {
+        if (raw == null || raw.length() < 2 || (maskHeaders.isEmpty() && dropHeaders.isEmpty())) return raw;
+        char open = raw.charAt(0);
+        int close = raw.length() - 1;
+        if ((open != '[' && open != '{') || (raw.charAt(close) != ']' && raw.charAt(close) != '}')) return raw;
+        StringBuilder out = new StringBuilder(raw.length()).append(open);
+        boolean changed = false;
+        boolean first = true;
+        int i = 1;
+        while (i < close) {
+            int sep = separator(raw, i, close);
+            if (sep < 0) {
+                out.append(first ? "" : ", ").append(raw, i, close);
+                break;
+            }
+            String name = raw.substring(i, sep).trim();
+            int valueEnd = valueEnd(raw, sep + 1, close);
+            if (dropHeaders.contains(name)) {
+                changed = true;
+            } else {
+                out.append(first ? "" : ", ").append(raw, i, sep + 1);
+                if (maskHeaders.contains(name)) {
+                    out.append(raw.charAt(sep + 1) == ' ' ? " " : "").append(MASK);
+                    changed = true;
+                } else {
+                    out.append(raw, sep + 1, valueEnd);
+                }
+                first = false;
+            }
+            if (!raw.startsWith(", ", valueEnd)) {
+                out.append(raw, valueEnd, close);
+                break;
+            }
+            i = valueEnd + 2;
+        }
+        return changed ? out.append(raw.charAt(close)).toString() : raw;
+    }
+
+    /** JSON body with masked field values; anything that is not a JSON object or array is returned unchanged. */
+    public String json(String body) {
+        if (body == null || (fieldNames.isEmpty() && fieldPaths.isEmpty())) return body;
+        int start = 0;
+        while (start < body.length() && Character.isWhitespace(body.charAt(start))) start++;
+        if (start == body.length() || (body.charAt(start) != '{' && body.charAt(start) != '[')) return body;
+        boolean truncated = body.endsWith(TRUNCATED);
+        String text = truncated ? body.substring(0, body.length() - TRUNCATED.length()) : body;
+
+        StringBuilder out = null;
+        int copied = 0;
+        int maskFrom = -1;
+        int fieldFrom = -1;
+        int lastToken = 0;
+        try (JsonParser p = JSON.createParser(text)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                lastToken = tokenOffset(p);
+                if (t != JsonToken.FIELD_NAME || !matches(p.getCurrentName(), p.getParsingContext())) continue;
+                fieldFrom = (int) p.getTokenLocation().getCharOffset();
+                JsonToken value = p.nextToken();
+                if (value == null) break;
+                maskFrom = (int) p.getTokenLocation().getCharOffset();
+                fieldFrom = -1;
+                if (value.isStructStart()) p.skipChildren(); else p.finishToken();
+                int to = (int) p.getCurrentLocation().getCharOffset();
+                out = (out != null ? out : new StringBuilder(text.length())).append(text, copied, maskFrom).append('"').append(MASK).append('"');
+                copied = to;
+                maskFrom = -1;
+            }
+        } catch (IOException ex) {
+            // Cut-off value or tail: mask from where the value began, drop a matched field whose value never
+            // started, or drop a tail that may hold a masked field
+            int cut = maskFrom >= 0 ? maskFrom : fieldFrom >= 0 ? fieldFrom : Math.max(copied, lastToken);
+            if (maskFrom >= 0 || fieldFrom >= 0 || mentionsMaskedField(text, cut)) {
+                out = (out != null ? out : new StringBuilder(text.length())).append(text, copied, cut);
+                if (maskFrom >= 0) out.append('"').append(MASK).append('"');
+                copied = text.length();
+                truncated = true;
+            }
+        }
+        if (out == null) return body;
+        out.append(text, copied, text.length());
+        return truncated ? out.append(TRUNCATED).toString() : out.toString();
+    }
+
+    /**
+     * Start of the current token without allocating a location per token (for a field name, where its value
+     * starts); only used to pick a safe cut point.
+     */
+    private static int tokenOffset(JsonParser p) {
+        return p instanceof ParserBase ? (int) ((ParserBase) p).getTokenCharacterOffset() : (int) p.getTokenLocation().getCharOffset();
+    }
+
+    /** Index of the ':' or '=' ending the header name that starts at {@code from}, or -1. */
+    static int separator(String s, int from, int end) {
+        for (int i = from; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == ':' || c == '=') return i;
+            if (c == ',' || c == '"' || c == '[') return -1;
+        }
+        return -1;
+    }
+
+    /** End (exclusive) of the header value starting at {@code from}. */
+    static int valueEnd(String s, int from, int end) {
+        int i = from < end && s.charAt(from) == ' ' ? from + 1 : from;
+        if (i >= end) return end;
+        char c = s.charAt(i);
+        if (c == '[') {
+            // name=[v1, v2]
+            int close = s.indexOf(']', i);
+            return close < 0 || close > end ? end : close + 1;
+        }
+        if (c == '"') {
+            // Name:"v1", "v2"
+            int j = i;
+            while (true) {
+                int q = s.indexOf('"', j + 1);
+                if (q < 0 || q >= end) return end;
+                j = q + 1;
+                if (!s.startsWith(", \"", j)) return j;
+                j += 2;
+            }
+        }
+        // Name: v1, Other: v2
+        Matcher m = NEXT_PLAIN_ENTRY.matcher(s).region(i, end);
+        return m.find() ? m.start() : end;
+    }
+
+    private boolean matches(String name, JsonStreamContext ctx) {
+        if (name == null) return false;
+        if (fieldNames.contains(name)) return true;
+        for (String[] path : fieldPaths) {
+            if (pathMatches(path, ctx)) return true;
+        }
+        return false;
+    }
+
+    /** Object field names from the root down to {@code ctx} equal {@code path}; arrays in between are skipped. */
+    private static boolean pathMatches(String[] path, JsonStreamContext ctx) {
+        int i = path.length - 1;
+        for (JsonStreamContext c = ctx; c != null && !c.inRoot(); c = c.getParent()) {
+            if (!c.inObject()) continue;
+            if (i < 0 || !path[i].equalsIgnoreCase(c.getCurrentName())) return false;
+            i--;
+        }
+        return i < 0;
+    }
+
+    private boolean mentionsMaskedField(String text, int from) {
+        String tail = text.substring(Math.min(from, text.length())).toLowerCase(Locale.ROOT);
+        for (String word : tailWords) {
+            if (tail.contains(word)) return true;
+        }
+        return false;
+    }
+
+    private static void addAll(Set<String> target, Collection<String> values) {
+        if (values == null) return;
+        for (String v : values) {
+            if (v != null && !v.isBlank()) target.add(v.trim());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiCallLogEntry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Optional off-heap staging for the log writer queue. The caller encodes a captured entry into a reused
+ * per-thread buffer, copies it into fixed-size segments of one direct buffer allocated at startup and queues only
+ * the segment handles; the writer thread decodes the entry and returns the segments. A backlog then holds no header or body strings on the heap, so
+ * bursts neither churn the young generation nor get promoted while they wait. An entry that does not fit in the
+ * free segments is rejected (and dropped by the writer, as with a full queue).
+ */
+public class OffHeapStaging {
+    // Presence bits of the fixed part
+    private static final int HAS_ID = 1;
+    private static final int HAS_TIMESTAMP = 2;
+    private static final int HAS_STATUS = 4;
+    private static final int HAS_DURATION = 8;
+    private static final int HAS_SUCCESS = 16;
+    private static final int SUCCESS = 32;
+    /** Presence byte, id, epoch second + nano + offset, status, duration. */
+    private static final int FIXED_BYTES = 1 + 16 + 16 + 4 + 4;
+    private static final ThreadLocal<Encoder> ENCODER = ThreadLocal.withInitial(Encoder::new);
+
+    private final int segmentBytes;
+    private final int segmentCount;
+    private final BlockingQueue<ByteBuffer> free;
+    /** Decode buffer; only the writer thread reads. */
+    private byte[] scratch = new byte[1024];
+
+    public OffHeapStaging(long totalBytes, int segmentBytes) {
+        this.segmentBytes = Math.max(256, segmentBytes);
+        long count = Math.max(1, totalBytes / this.segmentBytes);
+        this.segmentCount = (int) Math.min(count, Integer.MAX_VALUE / this.segmentBytes);
+        this.free = new ArrayBlockingQueue<>(segmentCount);
+        ByteBuffer memory = ByteBuffer.allocateDirect(segmentCount * this.segmentBytes);
+        for (int i = 0; i < segmentCount; i++) {
+            memory.limit((i + 1) * this.segmentBytes).position(i * this.segmentBytes);
+            free.add(memory.slice());
+        }
+    }
+
+    /** Serialize {@code e} into free segments; null when they cannot hold it. */
+    public ByteBuffer[] write(ApiCallLogEntry e) {
+        Encoder out = ENCODER.get();
+        out.pos = 0;
+        int flags = (e.getId() != null ? HAS_ID : 0) | (e.getTimestamp() != null ? HAS_TIMESTAMP : 0)
+                | (e.getHttpStatus() != null ? HAS_STATUS : 0) | (e.getDurationMs() != null ? HAS_DURATION : 0)
+                | (e.getSuccess() != null ? HAS_SUCCESS : 0) | (Boolean.TRUE.equals(e.getSuccess()) ? SUCCESS : 0);
+        out.ensure(FIXED_BYTES);
+        out.buf[out.pos++] = (byte) flags;
+        out.putLong(e.getId() != null ? e.getId().getMostSignificantBits() : 0);
+        out.putLong(e.getId() != null ? e.getId().getLeastSignificantBits() : 0);
+        OffsetDateTime ts = e.getTimestamp();
+        out.putLong(ts != null ? ts.toEpochSecond() : 0);
+        out.putInt(ts != null ? ts.getNano() : 0);
+        out.putInt(ts != null ? ts.getOffset().getTotalSeconds() : 0);
+        out.putInt(e.getHttpStatus() != null ? e.getHttpStatus() : 0);
+        out.putInt(e.getDurationMs() != null ? e.getDurationMs() : 0);
+        out.putString(e.getUrl());
+        out.putString(e.getHttpMethod());
+        out.putString(e.getRequestHeaders());
+        out.putString(e.getRequestBody());
+        out.putString(e.getResponseHeaders());
+        out.putString(e.getResponseBody());
+        out.putString(e.getTraceId());
+        out.putString(e.getErrorMessage());
+        out.putString(e.getUrlTemplate());
+        out.putString(e.getDirection());
+        out.putString(e.getInboundRequestId());
+
+        int needed = (out.pos + segmentBytes - 1) / segmentBytes;
+        if (needed > free.size()) return null;
+        ByteBuffer[] segments = new ByteBuffer[needed];
+        for (int i = 0; i < needed; i++) {
+            segments[i] = free.poll();
+            if (segments[i] == null) {
+                // Another caller took them first
+                release(segments);
+                return null;
+            }
+        }
+        for (int i = 0, off = 0; i < needed; i++, off += segmentBytes) {
+            segments[i].put(out.buf, off, Math.min(segmentBytes, out.pos - off)).flip();
+        }
+        return segments;
+    }
+
+    /** Decode an entry written by {@link #write} and release its segments. Writer thread only. */
+    public ApiCallLogEntry read(ByteBuffer[] segments) {
+        try {
+            Cursor c = new Cursor(segments);
+            int flags = c.get();
+            long msb = c.getLong();
+            long lsb = c.getLong();
+            long epochSecond = c.getLong();
+            int nano = c.getInt();
+            int offset = c.getInt();
+            int status = c.getInt();
+            int duration = c.getInt();
+            ApiCallLogEntry e = new ApiCallLogEntry();
+            if ((flags & HAS_ID) != 0) e.setId(new UUID(msb, lsb));
+            if ((flags & HAS_TIMESTAMP) != 0) {
+                e.setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), ZoneOffset.ofTotalSeconds(offset)));
+            }
+            if ((flags & HAS_STATUS) != 0) e.setHttpStatus(status);
+            if ((flags & HAS_DURATION) != 0) e.setDurationMs(duration);
+            if ((flags & HAS_SUCCESS) != 0) e.setSuccess((flags & SUCCESS) != 0);
+            e.setUrl(getString(c));
+            e.setHttpMethod(getString(c));
+            e.setRequestHeaders(getString(c));
+            e.setRequestBody(getString(c));
+            e.setResponseHeaders(getString(c));
+            e.setResponseBody(getString(c));
+            e.setTraceId(getString(c));
+            e.setErrorMessage(getString(c));
+            e.setUrlTemplate(getString(c));
+            e.setDirection(getString(c));
+            e.setInboundRequestId(getString(c));
+            return e;
+        } finally {
+            release(segments);
+        }
+    }
+
+    /** Return segments to the pool (null slots are skipped). */
+    public void release(ByteBuffer[] segments) {
+        for (ByteBuffer s : segments) {
+            if (s == null) continue;
+            s.clear();
+            free.offer(s);
+        }
+    }
+
+    public long capacityBytes() {
+        return (long) segmentCount * segmentBytes;
+    }
+
+    /** Bytes held by staged entries (whole segments). */
+    public long usedBytes() {
+        return (long) (segmentCount - free.size()) * segmentBytes;
+    }
+
+    private String getString(Cursor c) {
+        int n = c.getInt();
+        if (n < 0) return null;
+        if (n > scratch.length) scratch = new byte[Math.max(n, scratch.length * 2)];
+        c.get(scratch, n);
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /** Per-thread encode buffer, grown to the largest entry the thread has staged. */
+    private static final class Encoder {
+        byte[] buf = new byte[4096];
+        int pos;
+
+        void ensure(int bytes) {
+            if (pos + bytes > buf.length) buf = Arrays.copyOf(buf, Math.max(pos + bytes, buf.length * 2));
+        }
+
+        void putInt(int v) {
+            ensure(4);
+            buf[pos++] = (byte) (v >>> 24);
+            buf[pos++] = (byte) (v >>> 16);
+            buf[pos++] = (byte) (v >>> 8);
+            buf[pos++] = (byte) v;
+        }
+
+        void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        /** Length-prefixed UTF-8 (-1 for null); unpaired surrogates become '?', as String.getBytes writes them. */
+        void putString(String s) {
+            if (s == null) {
+                putInt(-1);
+                return;
+            }
+            int len = s.length();
+            ensure(4 + len);
+            int at = pos;
+            pos += 4;
+            int i = 0;
+            byte[] b = buf;
+            int p = pos;
+            for (; i < len; i++) {
+                char ch = s.charAt(i);
+                if (ch >= 0x80) break;
+                b[p++] = (byte) ch;
+            }
+            pos = p;
+            for (; i < len; i++) {
+                ensure(4);
+                char ch = s.charAt(i);
+                if (ch < 0x80) {
+                    buf[pos++] = (byte) ch;
+                } else if (ch < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | ch >> 6);
+                    buf[pos++] = (byte) (0x80 | ch & 0x3F);
+                } else if (Character.isSurrogate(ch)) {
+                    if (Character.isHighSurrogate(ch) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(ch, s.charAt(++i));
+                        buf[pos++] = (byte) (0xF0 | cp >> 18);
+                        buf[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                        buf[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                        buf[pos++] = (byte) (0x80 | cp & 0x3F);
+                    } else {
+                        buf[pos++] = (byte) '?';
+                    }
+                } else {
+                    buf[pos++] = (byte) (0xE0 | ch >> 12);
+                    buf[pos++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                    buf[pos++] = (byte) (0x80 | ch & 0x3F);
+                }
+            }
+            int n = pos - at - 4;
+            buf[at] = (byte) (n >>> 24);
+            buf[at + 1] = (byte) (n >>> 16);
+            buf[at + 2] = (byte) (n >>> 8);
+            buf[at + 3] = (byte) n;
+        }
+    }
+
+    /** Sequential reads across a chain of segments. */
+    private static final class Cursor {
+        private final ByteBuffer[] segments;
+        private int index;
+        private ByteBuffer current;
+
+        Cursor(ByteBuffer[] segments) {
+            this.segments = segments;
+            this.current = segments[0];
+        }
+
+        /** The segment holding the next byte; values straddling a boundary are read byte by byte. */
+        private ByteBuffer next() {
+            if (!current.hasRemaining()) current = segments[++index];
+            return current;
+        }
+
+        int get() {
+            return next().get() & 0xFF;
+        }
+
+        int getInt() {
+            if (current.remaining() >= 4) return current.getInt();
+            int v = 0;
+            for (int i = 0; i < 4; i++) v = v << 8 | get();
+            return v;
+        }
+
+        long getLong() {
+            return (long) getInt() << 32 | getInt() & 0xFFFFFFFFL;
+        }
+
+        void get(byte[] dst, int n) {
+            int off = 0;
+            while (off < n) {
+                ByteBuffer b = next();
+                int k = Math.min(n - off, b.remaining());
+                b.get(dst, off, k);
+                off += k;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.zula.apihealth.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates outcomes of real (passive) traffic per registry endpoint between scheduler evaluations.
+ * The scheduler drains the counters once per ping interval and decides whether they already give
+ * a confident verdict, in which case the active probe is skipped.
+ */
+public class PassiveHealthTracker {
+    private final ConcurrentMap<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    /** Record one observed call for the endpoint. */
+    public void record(long endpointId, int status, boolean up, int durationMs) {
+        Counters c = counters.computeIfAbsent(endpointId, k -> new Counters());
+        c.calls.incrementAndGet();
+        if (!up) c.failures.incrementAndGet();
+        c.latencySumMs.addAndGet(Math.max(0, durationMs));
+        c.lastStatus = status;
+        c.lastSeenMillis = System.currentTimeMillis();
+    }
+
+    /** Return and reset what was observed since the previous drain; null if nothing was seen. */
+    public Snapshot drain(long endpointId) {
+        Counters c = counters.get(endpointId);
+        if (c == null) return null;
+        long calls = c.calls.getAndSet(0);
+        if (calls == 0) return null;
+        long failures = c.failures.getAndSet(0);
+        long latency = c.latencySumMs.getAndSet(0);
+        return new Snapshot(calls, Math.min(failures, calls), latency, c.lastStatus, c.lastSeenMillis);
+    }
+
+    private static final class Counters {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong latencySumMs = new AtomicLong();
+        volatile int lastStatus;
+        volatile long lastSeenMillis;
+    }
+
+    /** Passive observations for one endpoint over one evaluation period. */
+    public static final class Snapshot {
+        public final long calls;
+        public final long failures;
+        public final long latencySumMs;
+        public final int lastStatus;
+        public final long lastSeenMillis;
+
+        Snapshot(long calls, long failures, long latencySumMs, int lastStatus, long lastSeenMillis) {
+            this.calls = calls;
+            this.failures = failures;
+            this.latencySumMs = latencySumMs;
+            this.lastStatus = lastStatus;
+            this.lastSeenMillis = lastSeenMillis;
+        }
+
+        public double failureRatio() {
+            return calls == 0 ? 0 : (double) failures / calls;
+        }
+
+        public int avgLatencyMs() {
+            return calls == 0 ? 0 : (int) (latencySumMs / calls);
+        }
+    }
+}
@@ -1,99 +1,245 @@
 package com.zula.apihealth.service;
 
 import com.zula.apihealth.model.ApiEndpointView;
-import com.zula.apihealth.interceptor.PingContext;
+import com.zula.apihealth.interceptor.ApiCallLoggingInterceptor;
+import com.zula.apihealth.interceptor.ProbeMarker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.net.URI;
 
 /**
  * Active pinging of external endpoints marked with {@code @EndpointMonitor(active=true)}.
  * Runs on a fixed delay and respects per-endpoint intervals to avoid hammering targets.
+ * Endpoints with enough conclusive real traffic inside the interval are not probed at all.
+ *
+ * Probes follow the endpoint's probe definition (path, method, expected statuses, body pattern).
+ * Without an explicit method, HEAD is tried first and GET used when HEAD is rejected; the method
+ * that worked is remembered per endpoint. Response bodies are read up to a bounded number of bytes.
  */
 public class PingScheduler {
     private static final Logger log = LoggerFactory.getLogger(PingScheduler.class);
     private static final ZoneId ZONE_NAIROBI = ZoneId.of("Africa/Nairobi");
+    private static final int DEFAULT_MAX_BYTES = 4000;
 
     private final ApiHealthService service;
     private final RestTemplate restTemplate;
+    private final int maxBodyBytes;
+    private final boolean markProbes;
+    private final Map<Long, HttpMethod> workingMethod = new ConcurrentHashMap<>();
+    private final Map<String, StatusClassifier> expectedStatusCache = new ConcurrentHashMap<>();
+    private final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
 
     public PingScheduler(ApiHealthService service, RestTemplate restTemplate) {
+        this(service, restTemplate, DEFAULT_MAX_BYTES);
+    }
+
+    public PingScheduler(ApiHealthService service, RestTemplate restTemplate, int maxBodyBytes) {
         this.service = service;
         this.restTemplate = restTemplate;
+        this.maxBodyBytes = maxBodyBytes > 0 ? maxBodyBytes : DEFAULT_MAX_BYTES;
+        // Only mark when the capture interceptor is in the stack; it is what strips the marker before sending
+        this.markProbes = restTemplate.getInterceptors().stream().anyMatch(i -> i instanceof ApiCallLoggingInterceptor);
     }
     /**
      *  Run every 30 seconds; internal logic respects per-endpoint interval
     */
     @Scheduled(fixedDelay = 30_000)
     public void ping() {
+        long started = System.nanoTime();
+        try {
+            pingCycle();
+        } finally {
+            service.internalStats().recordPingCycle(System.nanoTime() - started);
+        }
+    }
+
+    private void pingCycle() {
         List<ApiEndpointView> targets = service.endpointsNeedingPing();
         if (targets.isEmpty()) {
             log.debug("PingScheduler: no endpoints eligible for ping right now");
             return;
         }
         OffsetDateTime now = OffsetDateTime.now(ZONE_NAIROBI);
-        log.debug("PingScheduler: will ping {} endpoint(s)", targets.size());
+        log.debug("PingScheduler: {} endpoint(s) due", targets.size());
+        int suppressed = 0;
         for (ApiEndpointView endpoint : targets) {
-            PingContext.markPing();
+            service.markEvaluated(endpoint.getId());
+            // Busy endpoints: real traffic in the interval already answered the question
+            Boolean passiveUp = service.applyPassiveVerdict(endpoint, now);
+            if (passiveUp != null) {
+                suppressed++;
+                log.debug("Skipped ping for {}: passive traffic says {}", endpoint.getPath(), passiveUp ? "UP" : "DOWN");
+                continue;
+            }
             try {
-                HttpHeaders headers = new HttpHeaders();
-                HttpEntity<Void> entity = new HttpEntity<>(headers);
-                URI uri = URI.create(endpoint.getPath());
-                // HEAD first
-                try {
-                    ResponseEntity<String> resp = restTemplate.exchange(uri, HttpMethod.HEAD, entity, String.class);
-                    int status = resp.getStatusCodeValue();
-                    service.updateMonitorStatus(endpoint.getId(), status, service.isUp(status), null, now);
-                    log.info("Pinged(HEAD) {} -> status {}", endpoint.getPath(), status);
-                    continue;
-                } catch (RestClientResponseException headResp) {
-                    int status = headResp.getRawStatusCode();
-                    String body = headResp.getResponseBodyAsString();
-                    service.updateMonitorStatus(endpoint.getId(), status, service.isUp(status), truncate(body), now);
-                    log.info("Pinged(HEAD) {} -> status {} (error handled)", endpoint.getPath(), status);
-                    continue;
-                } catch (RestClientException headConn) {
-                    log.debug("HEAD failed for {} -> {}, trying GET", endpoint.getPath(), headConn.getMessage());
-                }
-                // GET fallback
-                try {
-                    ResponseEntity<String> resp = restTemplate.exchange(uri, HttpMethod.GET, entity, String.class);
-                    int status = resp.getStatusCodeValue();
-                    String body = resp.getBody();
-                    service.updateMonitorStatus(endpoint.getId(), status, service.isUp(status), truncate(body), now);
-                    log.info("Pinged(GET) {} -> status {}", endpoint.getPath(), status);
-                } catch (RestClientResponseException getResp) {
-                    int status = getResp.getRawStatusCode();
-                    String body = getResp.getResponseBodyAsString();
-                    service.updateMonitorStatus(endpoint.getId(), status, service.isUp(status), truncate(body), now);
-                    log.info("Pinged(GET) {} -> status {} (error handled)", endpoint.getPath(), status);
-                } catch (RestClientException ex) {
-                    service.updateMonitorStatus(endpoint.getId(), 0, false, ex.getMessage(), now);
-                    log.warn("Ping failed for {}: {}", endpoint.getPath(), ex.getMessage());
-                }
-            } finally {
-                PingContext.clear();
+                probe(endpoint, now);
+            } catch (Exception ex) {
+                service.recordPing(endpoint, 0, false, ex.getMessage(), now, null, null);
+                log.warn("Ping failed for {}: {}", endpoint.getPath(), ex.getMessage());
+            }
+        }
+        if (suppressed > 0) {
+            log.debug("PingScheduler: {} of {} ping(s) suppressed by passive traffic", suppressed, targets.size());
+        }
+    }
+
+    /**
+     * Hourly retention sweep of the ping history, independent of call log retention.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 60_000)
+    public void purgeHistory() {
+        try {
+            int removed = service.purgePingHistory();
+            if (removed > 0) {
+                log.info("PingScheduler: purged {} ping history row(s)", removed);
+            }
+        } catch (Exception ex) {
+            log.warn("Ping history purge failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Hourly call log retention sweep (off unless log-retention-days is set); releases stored bodies as rows go.
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 90_000)
+    public void purgeCallLogs() {
+        try {
+            int removed = service.purgeCallLogs();
+            if (removed > 0) {
+                log.info("PingScheduler: purged {} call log row(s)", removed);
+            }
+        } catch (Exception ex) {
+            log.warn("Call log purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private void probe(ApiEndpointView endpoint, OffsetDateTime now) {
+        URI uri = probeUri(endpoint);
+        String pattern = endpoint.getProbeBodyPattern();
+        boolean needsBody = pattern != null && !pattern.isBlank();
+        HttpMethod configured = endpoint.getProbeMethod() != null ? HttpMethod.resolve(endpoint.getProbeMethod().trim().toUpperCase()) : null;
+
+        HttpMethod method = configured != null ? configured
+                : needsBody ? HttpMethod.GET
+                : workingMethod.getOrDefault(endpoint.getId(), HttpMethod.HEAD);
+        ProbeResult result = execute(uri, method);
+        if (configured == null && method == HttpMethod.HEAD && result.headRejected()) {
+            log.debug("HEAD rejected by {} ({}), using GET", uri, result.error != null ? result.error : result.status);
+            method = HttpMethod.GET;
+            result = execute(uri, method);
+        }
+        if (configured == null && result.status > 0) {
+            workingMethod.put(endpoint.getId(), method);
+        }
+
+        boolean up = result.status > 0 && statusOk(endpoint, result.status);
+        if (up && needsBody) {
+            up = result.body != null && compiled(pattern).matcher(result.body).find();
+        }
+        String body = result.error != null ? result.error : result.body;
+        service.recordPing(endpoint, result.status, up, body, now, result.latencyMs, method.name());
+        if (result.error != null) {
+            log.warn("Ping failed for {}: {}", uri, result.error);
+        } else {
+            log.info("Pinged({}) {} -> status {}{}", method, uri, result.status, up ? "" : " (DOWN)");
+        }
+    }
+
+    /** One request through the scheduler's RestTemplate stack; body read only up to maxBodyBytes. */
+    private ProbeResult execute(URI uri, HttpMethod method) {
+        long started = System.nanoTime();
+        try {
+            ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, method);
+            if (markProbes) {
+                ProbeMarker.mark(request.getHeaders());
+            }
+            try (ClientHttpResponse response = request.execute()) {
+                int status = response.getRawStatusCode();
+                String body = method == HttpMethod.HEAD ? null : readPrefix(response.getBody());
+                return new ProbeResult(status, body, elapsedMs(started), null, false);
             }
+        } catch (IOException | RuntimeException ex) {
+            return new ProbeResult(0, null, elapsedMs(started), ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName(),
+                    timedOut(ex));
+        }
+    }
+
+    /** Connect or read timeout anywhere in the cause chain (RestTemplate wraps it in ResourceAccessException). */
+    private static boolean timedOut(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof java.net.SocketTimeoutException || t instanceof java.net.http.HttpTimeoutException) return true;
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    private String readPrefix(InputStream in) throws IOException {
+        if (in == null) return null;
+        byte[] bytes = in.readNBytes(maxBodyBytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private URI probeUri(ApiEndpointView endpoint) {
+        URI base = URI.create(endpoint.getPath());
+        String probePath = endpoint.getProbePath();
+        if (probePath == null || probePath.isBlank()) {
+            return base;
+        }
+        return base.resolve(probePath.trim());
+    }
+
+    private boolean statusOk(ApiEndpointView endpoint, int status) {
+        String spec = endpoint.getProbeExpectedStatus();
+        if (spec == null || spec.isBlank()) {
+            return service.isUp(status);
         }
+        return expectedStatusCache.computeIfAbsent(spec, StatusClassifier::new).isUp(status);
+    }
+
+    private Pattern compiled(String pattern) {
+        return patternCache.computeIfAbsent(pattern, Pattern::compile);
+    }
+
+    private Integer elapsedMs(long startedNanos) {
+        return (int) ((System.nanoTime() - startedNanos) / 1_000_000);
     }
 
-    private String truncate(String body) {
-        if (body == null) return null;
-        if (body.length() > 4000) {
-            return body.substring(0, 4000) + "...<truncated>";
+    private static final class ProbeResult {
+        final int status;
+        final String body;
+        final Integer latencyMs;
+        final String error;
+        final boolean timedOut;
+
+        ProbeResult(int status, String body, Integer latencyMs, String error, boolean timedOut) {
+            this.status = status;
+            this.body = body;
+            this.latencyMs = latencyMs;
+            this.error = error;
+            this.timedOut = timedOut;
+        }
+
+        /**
+         * HEAD not usable for this target: explicit 405/501, or a connection-level failure that was not a timeout
+         * (e.g. reset on HEAD). A timeout means the endpoint is down; retrying with GET would only pay it twice.
+         */
+        boolean headRejected() {
+            return status == 405 || status == 501 || (status == 0 && !timedOut);
         }
-        return body;
     }
 }
@@ -0,0 +1,129 @@
+package com.zula.apihealth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Small TTL cache for admin read results. Entries are stamped with the write generation current when
+ * they were computed and are discarded once the generation moves (check and registry writes, and flushed
+ * call logs at most once per TTL) or the TTL elapses. Each entry carries a strong ETag derived from its
+ * JSON form, so unchanged polls can be answered with 304. Bounded by an LRU on entry count.
+ */
+public class ReadCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private final long ttlMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong lastFlushBump = new AtomicLong();
+    private final Map<String, Entry> entries;
+
+    public ReadCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        int max = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    /** Mark every cached result stale; called by the write paths. */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Mark cached results stale after the log writer flushed, at most once per TTL. Traffic flushes every few
+     * hundred millis; bumping on each would leave polls without a single hit.
+     */
+    public void invalidateAfterFlush() {
+        long now = System.currentTimeMillis();
+        long last = lastFlushBump.get();
+        if (now - last >= ttlMillis && lastFlushBump.compareAndSet(last, now)) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /** Cached result for the key, computing (outside the lock) on miss, expiry or newer writes. */
+    @SuppressWarnings("unchecked")
+    public <T> Cached<T> get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        long gen = generation.get();
+        if (ttlMillis > 0) {
+            Entry e;
+            synchronized (entries) {
+                e = entries.get(key);
+            }
+            if (e != null && e.generation == gen && e.expiresAt > now) {
+                return (Cached<T>) e.value;
+            }
+        }
+        T value = loader.get();
+        Cached<T> cached = new Cached<>(value, etag(value));
+        if (ttlMillis > 0) {
+            synchronized (entries) {
+                entries.put(key, new Entry(cached, gen, now + ttlMillis));
+            }
+        }
+        return cached;
+    }
+
+    /** Normalized cache key: blank -> "", collections sorted and de-duplicated. */
+    public static String key(String name, Object... params) {
+        StringBuilder sb = new StringBuilder(name);
+        for (Object p : params) {
+            sb.append('\u0001');
+            if (p == null) continue;
+            if (p instanceof Collection<?>) {
+                sb.append(new TreeSet<>(((Collection<?>) p).stream().map(String::valueOf).toList()));
+            } else {
+                sb.append(String.valueOf(p).trim());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String etag(Object value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(MAPPER.writeValueAsBytes(value));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 27) + "\"";
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /** A cached value and its strong ETag (quoted; null if the value could not be serialized). */
+    public static final class Cached<T> {
+        private final T value;
+        private final String etag;
+
+        Cached(T value, String etag) {
+            this.value = value;
+            this.etag = etag;
+        }
+
+        public T getValue() { return value; }
+        public String getEtag() { return etag; }
+    }
+
+    private static final class Entry {
+        final Cached<?> value;
+        final long generation;
+        final long expiresAt;
+
+        Entry(Cached<?> value, long generation, long expiresAt) {
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
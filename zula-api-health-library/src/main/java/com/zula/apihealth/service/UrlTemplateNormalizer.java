@@ -0,0 +1,211 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.model.ApiEndpointView;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps concrete URLs to low-cardinality templates, e.g. {@code https://api/customers/8812/accounts/77}
+ * to {@code https://api/customers/{id}/accounts/{id}}.
+ * Registered paths win (longest first, as the endpoint matcher orders them): {@code {name}} placeholders match
+ * one segment and everything else is a literal prefix kept as registered, so a template still starts with the
+ * registered path its call is counted under. The remainder of the URL, or the whole path when nothing is
+ * registered, falls back to segment heuristics:
+ * digits -> {@code {id}}, UUID -> {@code {uuid}}, long hex / mixed tokens -> {@code {hash}}.
+ * Query string and fragment are dropped, and templates are cut to {@link #MAX_LENGTH} (the column width) so
+ * long opaque segments cannot fail a log batch. Resolved templates are kept in a bounded LRU cache.
+ */
+public class UrlTemplateNormalizer {
+    /** Width of {@code api_call_logs.url_template}. */
+    public static final int MAX_LENGTH = 512;
+    private static final int SEGMENTS = 16;
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{[^/}]*}");
+
+    private final Segment[] cache = new Segment[SEGMENTS];
+    private volatile List<Template> templates = List.of();
+
+    public UrlTemplateNormalizer(int cacheSize) {
+        int perSegment = Math.max(16, cacheSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            cache[i] = new Segment(perSegment);
+        }
+    }
+
+    /** Replace the registered templates (any order) and drop cached resolutions. */
+    public void setTemplates(List<ApiEndpointView> endpoints) {
+        List<Template> list = new ArrayList<>();
+        for (ApiEndpointView e : endpoints) {
+            if (e.getPath() != null && !e.getPath().isEmpty()) {
+                list.add(new Template(e.getPath(), compile(e.getPath())));
+            }
+        }
+        list.sort((a, b) -> Integer.compare(b.path.length(), a.path.length()));
+        templates = List.copyOf(list);
+        for (Segment s : cache) {
+            s.clear();
+        }
+    }
+
+    /** Template for the URL; null only for a null URL. */
+    public String normalize(String url) {
+        if (url == null) return null;
+        String base = stripQuery(url);
+        Segment seg = cache[(base.hashCode() & 0x7fffffff) % SEGMENTS];
+        String cached = seg.get(base);
+        if (cached != null) return cached;
+        String template = cap(resolve(base));
+        seg.put(base, template);
+        return template;
+    }
+
+    private String resolve(String base) {
+        for (Template t : templates) {
+            if (t.pattern == null) {
+                if (base.startsWith(t.path)) {
+                    return t.path + normalizeSegments(base.substring(t.path.length()));
+                }
+                continue;
+            }
+            Matcher m = t.pattern.matcher(base);
+            if (m.lookingAt()) {
+                return t.path + normalizeSegments(base.substring(m.end()));
+            }
+        }
+        int pathStart = 0;
+        int scheme = base.indexOf("://");
+        if (scheme >= 0) {
+            int slash = base.indexOf('/', scheme + 3);
+            if (slash < 0) return base;
+            pathStart = slash;
+        }
+        return base.substring(0, pathStart) + normalizeSegments(base.substring(pathStart));
+    }
+
+    /**
+     * Prefix matcher for a registered path with {@code {name}} placeholders (each matches one segment),
+     * or null when the path has none.
+     */
+    public static Pattern compile(String path) {
+        if (path == null || path.indexOf('{') < 0) return null;
+        Matcher m = PLACEHOLDER.matcher(path);
+        StringBuilder regex = new StringBuilder();
+        int last = 0;
+        boolean found = false;
+        while (m.find()) {
+            regex.append(Pattern.quote(path.substring(last, m.start()))).append("[^/?#]+");
+            last = m.end();
+            found = true;
+        }
+        if (!found) return null;
+        regex.append(Pattern.quote(path.substring(last)));
+        return Pattern.compile(regex.toString());
+    }
+
+    /** {@code template} cut to {@link #MAX_LENGTH} characters (never inside a surrogate pair); null stays null. */
+    public static String cap(String template) {
+        if (template == null || template.length() <= MAX_LENGTH) return template;
+        int end = Character.isHighSurrogate(template.charAt(MAX_LENGTH - 1)) ? MAX_LENGTH - 1 : MAX_LENGTH;
+        return template.substring(0, end);
+    }
+
+    private static String stripQuery(String url) {
+        int q = url.indexOf('?');
+        int h = url.indexOf('#');
+        int cut = q < 0 ? h : (h < 0 ? q : Math.min(q, h));
+        return cut < 0 ? url : url.substring(0, cut);
+    }
+
+    private static String normalizeSegments(String path) {
+        if (path.isEmpty()) return path;
+        StringBuilder out = new StringBuilder(path.length());
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) end = path.length();
+            String segment = path.substring(start, end);
+            out.append(placeholder(segment));
+            if (end < path.length()) out.append('/');
+            start = end + 1;
+        }
+        return out.toString();
+    }
+
+    static String placeholder(String segment) {
+        int len = segment.length();
+        if (len == 0) return segment;
+        boolean digits = true;
+        boolean hex = true;
+        boolean hasDigit = false;
+        boolean hasLetter = false;
+        boolean token = true;
+        for (int i = 0; i < len; i++) {
+            char c = segment.charAt(i);
+            boolean d = c >= '0' && c <= '9';
+            boolean l = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            hasDigit |= d;
+            hasLetter |= l;
+            digits &= d;
+            hex &= d || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            token &= d || l || c == '-' || c == '_';
+        }
+        if (digits) return "{id}";
+        if (len == 36 && isUuid(segment)) return "{uuid}";
+        if (hex && len >= 16) return "{hash}";
+        if (token && hasDigit && hasLetter && len >= 20) return "{hash}";
+        return segment;
+    }
+
+    private static boolean isUuid(String s) {
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Template {
+        final String path;
+        /** Null for a plain prefix path. */
+        final Pattern pattern;
+
+        Template(String path, Pattern pattern) {
+            this.path = path;
+            this.pattern = pattern;
+        }
+    }
+
+    /** One stripe of the LRU cache; striping keeps lock hold times short under concurrent callers. */
+    private static final class Segment {
+        private final LinkedHashMap<String, String> map;
+
+        Segment(int capacity) {
+            this.map = new LinkedHashMap<>(capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized String get(String key) {
+            return map.get(key);
+        }
+
+        synchronized void put(String key, String value) {
+            map.put(key, value);
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+    }
+}
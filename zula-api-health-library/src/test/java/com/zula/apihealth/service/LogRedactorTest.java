@@ -0,0 +1,162 @@
+package com.zula.apihealth.service;
+
+import com.zula.apihealth.config.ApiHealthProperties;
+import com.zula.apihealth.model.ApiCallLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LogRedactorTest {
+    private static final ApiHealthProperties DEFAULTS = new ApiHealthProperties();
+
+    private final LogRedactor redactor = new LogRedactor(DEFAULTS.getRedactHeaders(), List.of("X-Internal-Route"),
+            fields("$.card.number"));
+
+    private static List<String> fields(String... extra) {
+        List<String> fields = new ArrayList<>(DEFAULTS.getRedactJsonFields());
+        fields.addAll(List.of(extra));
+        return fields;
+    }
+
+    // RestTemplate / HttpHeaders.toString()
+
+    @Test
+    void masksQuotedHeaderValues() {
+        assertEquals("[Authorization:***, Content-Type:\"application/json\", Cookie:***]",
+                redactor.headers("[Authorization:\"Bearer abc.def\", Content-Type:\"application/json\", Cookie:\"sid=1; theme=dark\"]"));
+    }
+
+    @Test
+    void masksEveryValueOfAMultiValuedQuotedHeader() {
+        String out = redactor.headers("[Set-Cookie:\"sid=1; Path=/\", \"csrf=2; Path=/\", Accept:\"*/*\"]");
+        assertEquals("[Set-Cookie:***, Accept:\"*/*\"]", out);
+    }
+
+    @Test
+    void headerNamesAreCaseInsensitive() {
+        assertEquals("[authorization:***]", redactor.headers("[authorization:\"Basic dXNlcjpwYXNz\"]"));
+    }
+
+    // Apache HttpClient 5 header arrays
+
+    @Test
+    void masksPlainHeaderValues() {
+        assertEquals("[Authorization: ***, Host: api.example.com, Cookie: ***]",
+                redactor.headers("[Authorization: Bearer abc, Host: api.example.com, Cookie: sid=1; theme=dark]"));
+    }
+
+    @Test
+    void plainValueWithCommasEndsAtTheNextHeaderName() {
+        String out = redactor.headers("[Set-Cookie: sid=1; Expires=Wed, 21 Oct 2026 07:28:00 GMT, X-Api-Key: k-123, Accept: */*]");
+        assertEquals("[Set-Cookie: ***, X-Api-Key: ***, Accept: */*]", out);
+    }
+
+    // WebClient / servlet header maps
+
+    @Test
+    void masksMapStyleHeaderValues() {
+        assertEquals("{authorization=***, accept=[application/json], cookie=***}",
+                redactor.headers("{authorization=[Bearer abc], accept=[application/json], cookie=[sid=1, theme=dark]}"));
+    }
+
+    @Test
+    void dropsConfiguredHeadersInEveryFormat() {
+        assertEquals("[Accept:\"*/*\"]", redactor.headers("[X-Internal-Route:\"blue\", Accept:\"*/*\"]"));
+        assertEquals("[Accept: */*]", redactor.headers("[Accept: */*, X-Internal-Route: blue]"));
+        assertEquals("{accept=[*/*]}", redactor.headers("{x-internal-route=[blue], accept=[*/*]}"));
+    }
+
+    @Test
+    void unmatchedHeadersAreReturnedAsIs() {
+        String raw = "[Accept:\"*/*\", Host:\"api.example.com\"]";
+        assertSame(raw, redactor.headers(raw));
+    }
+
+    // JSON bodies
+
+    @Test
+    void masksFieldsByNameAtAnyDepth() {
+        String out = redactor.json("{\"user\":\"ann\",\"password\":\"p@ss\",\"auth\":{\"access_token\":\"t1\",\"scope\":\"read\"}}");
+        assertEquals("{\"user\":\"ann\",\"password\":\"***\",\"auth\":{\"access_token\":\"***\",\"scope\":\"read\"}}", out);
+    }
+
+    @Test
+    void masksPathFieldsOnlyAtThatPath() {
+        String out = redactor.json("{\"card\":{\"number\":\"4111111111111111\",\"expiry\":\"12/30\"},\"order\":{\"number\":\"A-17\"}}");
+        assertEquals("{\"card\":{\"number\":\"***\",\"expiry\":\"12/30\"},\"order\":{\"number\":\"A-17\"}}", out);
+    }
+
+    @Test
+    void pathsSeeThroughArrays() {
+        String out = redactor.json("{\"card\":[{\"number\":\"4111\"},{\"number\":\"5500\"}]}");
+        assertEquals("{\"card\":[{\"number\":\"***\"},{\"number\":\"***\"}]}", out);
+    }
+
+    @Test
+    void masksStructuredAndNonStringValuesWhole() {
+        String out = redactor.json("[{\"secret\":{\"k\":[1,2]},\"client_secret\":12345,\"ok\":true}]");
+        assertEquals("[{\"secret\":\"***\",\"client_secret\":\"***\",\"ok\":true}]", out);
+    }
+
+    @Test
+    void keepsTheRestOfTheBodyVerbatim() {
+        String out = redactor.json("{ \"a\" : 1.50,\n  \"password\" : \"x\" ,\"b\":\"\\u00e9\" }");
+        assertEquals("{ \"a\" : 1.50,\n  \"password\" : \"***\" ,\"b\":\"\\u00e9\" }", out);
+    }
+
+    @Test
+    void truncatedInsideAMaskedStringValue() {
+        String out = redactor.json("{\"user\":\"ann\",\"password\":\"hunter2-and-then-so[TRUNCATED]");
+        assertEquals("{\"user\":\"ann\",\"password\":\"***\"[TRUNCATED]", out);
+        assertFalse(out.contains("hunter2"));
+    }
+
+    @Test
+    void truncatedInsideAMaskedObjectValue() {
+        String out = redactor.json("{\"id\":7,\"secret\":{\"key\":\"abc\",\"iv\":\"de[TRUNCATED]");
+        assertEquals("{\"id\":7,\"secret\":\"***\"[TRUNCATED]", out);
+    }
+
+    @Test
+    void truncatedAfterAMaskedFieldNameBeforeItsValue() {
+        String out = redactor.json("{\"id\":7,\"refresh_token\":[TRUNCATED]");
+        assertEquals("{\"id\":7[TRUNCATED]", out);
+    }
+
+    @Test
+    void truncatedInsideAMaskedFieldNameDropsTheTail() {
+        String out = redactor.json("{\"id\":7,\"access_token[TRUNCATED]");
+        assertEquals("{\"id\":7[TRUNCATED]", out);
+    }
+
+    @Test
+    void truncatedBodyWithoutMaskedFieldsIsUnchanged() {
+        String body = "{\"id\":7,\"name\":\"anything lon[TRUNCATED]";
+        assertSame(body, redactor.json(body));
+    }
+
+    @Test
+    void nonJsonBodiesAreUnchanged() {
+        String body = "password=hunter2&user=ann";
+        assertSame(body, redactor.json(body));
+    }
+
+    @Test
+    void redactsAllFourPartsOfAnEntry() {
+        ApiCallLogEntry entry = new ApiCallLogEntry();
+        entry.setRequestHeaders("[Authorization:\"Bearer abc\"]");
+        entry.setResponseHeaders("{set-cookie=[sid=1]}");
+        entry.setRequestBody("{\"password\":\"p\"}");
+        entry.setResponseBody("{\"access_token\":\"t\"}");
+        redactor.redact(entry);
+        assertEquals("[Authorization:***]", entry.getRequestHeaders());
+        assertEquals("{set-cookie=***}", entry.getResponseHeaders());
+        assertEquals("{\"password\":\"***\"}", entry.getRequestBody());
+        assertEquals("{\"access_token\":\"***\"}", entry.getResponseBody());
+    }
+}